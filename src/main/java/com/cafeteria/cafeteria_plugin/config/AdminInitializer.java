@@ -3,6 +3,8 @@ package com.cafeteria.cafeteria_plugin.config;
 import com.cafeteria.cafeteria_plugin.models.Admin;
 import com.cafeteria.cafeteria_plugin.models.User.UserType;
 import com.cafeteria.cafeteria_plugin.repositories.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -11,6 +13,8 @@ import org.springframework.stereotype.Component;
 @Component
 public class AdminInitializer implements CommandLineRunner {
 
+    private static final Logger logger = LoggerFactory.getLogger(AdminInitializer.class);
+
     @Autowired
     private UserRepository userRepository;
 
@@ -35,9 +39,9 @@ public class AdminInitializer implements CommandLineRunner {
             admin.setUserType(UserType.ADMIN);
 
             adminRepository.save(admin);
-            System.out.println("✅ Admin default creat: " + defaultUsername + " / admin123!");
+            logger.info("✅ Admin default creat: {}", defaultUsername);
         } else {
-            System.out.println("✅ Admin default deja există.");
+            logger.info("✅ Admin default deja există.");
         }
     }
 }
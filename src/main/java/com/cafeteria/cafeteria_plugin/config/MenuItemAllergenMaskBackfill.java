@@ -0,0 +1,58 @@
+package com.cafeteria.cafeteria_plugin.config;
+
+import com.cafeteria.cafeteria_plugin.models.MenuItem;
+import com.cafeteria.cafeteria_plugin.repositories.MenuItemRepository;
+import com.cafeteria.cafeteria_plugin.services.AllergenDictionary;
+import com.cafeteria.cafeteria_plugin.services.MenuSnapshotCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Computes the allergen mask of menu items saved before {@code menu_item.allergen_mask} existed.
+ * Runs at every start but only touches items whose mask is still null, so after the first run it
+ * is a no-op. Until then the safe menu leaves those items out for any child with allergies.
+ */
+@Component
+public class MenuItemAllergenMaskBackfill implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(MenuItemAllergenMaskBackfill.class);
+
+    private static final String SET_MASK = "UPDATE menu_item SET allergen_mask = ? WHERE id = ?";
+
+    private final MenuItemRepository menuItemRepository;
+    private final AllergenDictionary allergenDictionary;
+    private final MenuSnapshotCache menuSnapshotCache;
+    private final JdbcTemplate jdbcTemplate;
+
+    public MenuItemAllergenMaskBackfill(MenuItemRepository menuItemRepository,
+                                        AllergenDictionary allergenDictionary,
+                                        MenuSnapshotCache menuSnapshotCache,
+                                        JdbcTemplate jdbcTemplate) {
+        this.menuItemRepository = menuItemRepository;
+        this.allergenDictionary = allergenDictionary;
+        this.menuSnapshotCache = menuSnapshotCache;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(String... args) {
+        List<Object[]> rows = new ArrayList<>();
+        for (MenuItem item : menuItemRepository.findAllWithAllergens()) {
+            if (item.getAllergenMask() == null) {
+                rows.add(new Object[]{allergenDictionary.maskOf(item.getAllergens()), item.getId()});
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(SET_MASK, rows);
+        menuSnapshotCache.invalidate();
+        logger.info("Computed the allergen mask of {} existing menu items", rows.size());
+    }
+}
@@ -0,0 +1,39 @@
+package com.cafeteria.cafeteria_plugin.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Links order lines saved before {@code order_history.menu_item_id} existed to their menu item,
+ * matching on the name that was copied into the order. Runs at every start but only touches rows
+ * that are still unlinked, so after the first run it is a no-op. Orders for items that have since
+ * been deleted stay unlinked.
+ */
+@Component
+public class OrderHistoryMenuItemBackfill implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderHistoryMenuItemBackfill.class);
+
+    private static final String BACKFILL =
+            "UPDATE order_history oh SET menu_item_id = "
+                    + "(SELECT MIN(m.id) FROM menu_item m WHERE m.name = oh.menu_item_name) "
+                    + "WHERE oh.menu_item_id IS NULL "
+                    + "AND EXISTS (SELECT 1 FROM menu_item m WHERE m.name = oh.menu_item_name)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderHistoryMenuItemBackfill(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(String... args) {
+        int linked = jdbcTemplate.update(BACKFILL);
+        if (linked > 0) {
+            logger.info("Linked {} existing order lines to their menu items", linked);
+        }
+    }
+}
@@ -1,18 +1,29 @@
 package com.cafeteria.cafeteria_plugin.config;
 
+import com.cafeteria.cafeteria_plugin.security.CurrentUserArgumentResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.io.File;
+import java.util.List;
 
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
 
+    private static final Logger logger = LoggerFactory.getLogger(WebMvcConfig.class);
+
     @Value("${image.upload.dir}")
     private String uploadDir;
 
+    @Autowired
+    private CurrentUserArgumentResolver currentUserArgumentResolver;
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         File directory = new File(uploadDir);
@@ -23,9 +34,14 @@ public class WebMvcConfig implements WebMvcConfigurer {
             resourceLocation += "/";
         }
 
-        System.out.println("Configuring image resource handler with location: " + resourceLocation);
+        logger.info("Configuring image resource handler with location: {}", resourceLocation);
 
         registry.addResourceHandler("/images/**")
                 .addResourceLocations(resourceLocation);
     }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(currentUserArgumentResolver);
+    }
 }
\ No newline at end of file
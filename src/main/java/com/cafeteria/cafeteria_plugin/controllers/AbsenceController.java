@@ -6,7 +6,7 @@ import com.cafeteria.cafeteria_plugin.mappers.AbsenceMapper;
 import com.cafeteria.cafeteria_plugin.models.Absence;
 import com.cafeteria.cafeteria_plugin.models.ClassSession;
 import com.cafeteria.cafeteria_plugin.models.Student;
-import com.cafeteria.cafeteria_plugin.security.JwtUtil;
+import com.cafeteria.cafeteria_plugin.security.CurrentUser;
 import com.cafeteria.cafeteria_plugin.services.AbsenceService;
 import com.cafeteria.cafeteria_plugin.services.ClassSessionService;
 import com.cafeteria.cafeteria_plugin.services.StudentService;
@@ -32,8 +32,6 @@ public class AbsenceController {
     private StudentService studentService;
     @Autowired
     private AbsenceMapper absenceMapper;
-    @Autowired
-    private JwtUtil jwtUtil;
 
 
     @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN')")
@@ -95,9 +93,7 @@ public class AbsenceController {
 
     @PreAuthorize("hasRole('STUDENT')")
     @GetMapping("/me")
-    public ResponseEntity<List<AbsenceDTO>> getAbsencesForCurrentStudent(@RequestHeader("Authorization") String token) {
-        String username = jwtUtil.extractUsername(token.replace("Bearer ", ""));
-        Student student = studentService.findByUsername(username);
+    public ResponseEntity<List<AbsenceDTO>> getAbsencesForCurrentStudent(@CurrentUser Student student) {
         if (student == null) {
             return ResponseEntity.notFound().build();
         }
@@ -10,8 +10,10 @@ import com.cafeteria.cafeteria_plugin.mappers.GradeMapper;
 import com.cafeteria.cafeteria_plugin.mappers.StudentMapper;
 import com.cafeteria.cafeteria_plugin.models.*;
 import com.cafeteria.cafeteria_plugin.models.Class;
-import com.cafeteria.cafeteria_plugin.security.JwtUtil;
+import com.cafeteria.cafeteria_plugin.security.CurrentUser;
 import com.cafeteria.cafeteria_plugin.services.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -27,6 +29,8 @@ import java.util.stream.Collectors;
 @RequestMapping("/class-sessions")
 public class ClassSessionController {
 
+    private static final Logger logger = LoggerFactory.getLogger(ClassSessionController.class);
+
 
     @Autowired
     private ClassSessionService classSessionService;
@@ -49,8 +53,6 @@ public class ClassSessionController {
     @Autowired
     private ClassService classService;
     @Autowired
-    private JwtUtil jwtUtil;
-    @Autowired
     private CatalogService catalogService;
 
 
@@ -113,12 +115,8 @@ public class ClassSessionController {
     public ResponseEntity<?> addAbsenceToSession(
             @PathVariable Long sessionId,
             @RequestParam Long studentId,
-            @RequestHeader("Authorization") String token) {
+            @CurrentUser Teacher teacher) {
         try {
-            // Extrage profesorul din token
-            String username = jwtUtil.extractUsername(token.replace("Bearer ", ""));
-            Teacher teacher = teacherService.findByUsername(username);
-
             ClassSession session = classSessionService.getSessionById(sessionId);
             if (session == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Session not found");
@@ -153,7 +151,7 @@ public class ClassSessionController {
 
             return ResponseEntity.status(HttpStatus.CREATED).body(dto);
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.error("Failed to save absence", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Eroare la salvarea absenței.");
         }
     }
@@ -196,7 +194,7 @@ public class ClassSessionController {
 
             return ResponseEntity.status(HttpStatus.CREATED).body(dto);
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.error("Failed to save grade", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Eroare la salvarea notei.");
         }
     }
@@ -215,15 +213,12 @@ public class ClassSessionController {
         try {
             ClassSession session = classSessionService.getSessionById(sessionId);
             if (session == null) {
-                System.out.println("Session not found: " + sessionId);
+                logger.debug("Session not found: {}", sessionId);
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
             }
 
-            System.out.println("Found session: " + sessionId + ", Subject: " + session.getSubject());
-
-            // Debug info for Teacher
             Teacher teacher = session.getTeacher();
-            System.out.println("Session Teacher: " + teacher.getName() + ", ID: " + teacher.getId());
+            logger.debug("Found session {} ({}), teacher {}", sessionId, session.getSubject(), teacher.getId());
 
             // Improved approach: Get all classes where this teacher teaches this subject
             List<Class> allClasses = classService.getAllClasses();
@@ -251,16 +246,11 @@ public class ClassSessionController {
                     })
                     .collect(Collectors.toList());
 
-            System.out.println("Relevant classes found: " + relevantClasses.size());
+            logger.debug("Relevant classes found: {}", relevantClasses.size());
 
             // If no relevant classes found, log that information
             if (relevantClasses.isEmpty()) {
-                System.out.println("Warning: No classes found where teacher " +
-                        teacher.getName() + " teaches subject " + session.getSubject());
-            } else {
-                for (Class cls : relevantClasses) {
-                    System.out.println("Relevant class: " + cls.getName() + " (ID: " + cls.getId() + ")");
-                }
+                logger.warn("No classes found where teacher {} teaches subject {}", teacher.getId(), session.getSubject());
             }
 
             // Get students more efficiently by directly filtering by class IDs
@@ -273,7 +263,7 @@ public class ClassSessionController {
 
             // No relevant classes means no students
             if (relevantClassIds.isEmpty()) {
-                System.out.println("No relevant classes found, returning empty student list");
+                logger.debug("No relevant classes found, returning empty student list");
                 return ResponseEntity.ok(new ArrayList<>());
             }
 
@@ -288,7 +278,7 @@ public class ClassSessionController {
                     })
                     .collect(Collectors.toList());
 
-            System.out.println("Found " + studentsInRelevantClasses.size() + " students in relevant classes");
+            logger.debug("Found {} students in relevant classes", studentsInRelevantClasses.size());
 
             // Convert to DTOs
             List<StudentDTO> studentDTOs = studentsInRelevantClasses.stream()
@@ -297,8 +287,7 @@ public class ClassSessionController {
 
             return ResponseEntity.ok(studentDTOs);
         } catch (Exception e) {
-            System.err.println("Error retrieving students for session: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Error retrieving students for session {}", sessionId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
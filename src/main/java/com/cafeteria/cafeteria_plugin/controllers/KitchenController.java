@@ -0,0 +1,49 @@
+package com.cafeteria.cafeteria_plugin.controllers;
+
+import com.cafeteria.cafeteria_plugin.services.InventoryMonitor;
+import com.cafeteria.cafeteria_plugin.services.KitchenOrderBus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/kitchen")
+public class KitchenController {
+
+    @Autowired
+    private KitchenOrderBus kitchenOrderBus;
+
+    @Autowired
+    private InventoryMonitor inventoryMonitor;
+
+    // ✅ Flux live cu comenzile noi pentru ecranele din bucătărie
+    // La reconectare, Last-Event-ID aduce comenzile pierdute între timp
+    @PreAuthorize("hasAnyRole('ADMIN', 'CHEF')")
+    @GetMapping(value = "/orders/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamOrders(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        try {
+            return ResponseEntity.ok(kitchenOrderBus.subscribe(lastEventId));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    // ✅ Stocul live: cantitate, ritm de consum și minute rămase, din memorie (fără citirea tabelei)
+    // Alertele de stoc vin pe același flux SSE, ca evenimente "stock-alert"
+    @PreAuthorize("hasAnyRole('ADMIN', 'CHEF')")
+    @GetMapping("/inventory")
+    public ResponseEntity<List<Map<String, Object>>> getInventory() {
+        return ResponseEntity.ok(inventoryMonitor.getStatus());
+    }
+}
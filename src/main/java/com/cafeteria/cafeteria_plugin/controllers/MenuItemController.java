@@ -1,49 +1,74 @@
 package com.cafeteria.cafeteria_plugin.controllers;
 
+import com.cafeteria.cafeteria_plugin.dtos.CheckoutRequestDTO;
 import com.cafeteria.cafeteria_plugin.dtos.OrderHistoryDTO;
 import com.cafeteria.cafeteria_plugin.mappers.OrderHistoryMapper;
 import com.cafeteria.cafeteria_plugin.models.MenuItem;
 import com.cafeteria.cafeteria_plugin.models.OrderHistory;
-import com.cafeteria.cafeteria_plugin.models.Parent;
 import com.cafeteria.cafeteria_plugin.models.Student;
-import com.cafeteria.cafeteria_plugin.security.JwtUtil;
+import com.cafeteria.cafeteria_plugin.security.CurrentChild;
+import com.cafeteria.cafeteria_plugin.security.CurrentUser;
+import com.cafeteria.cafeteria_plugin.services.AllergenDictionary;
+import com.cafeteria.cafeteria_plugin.services.InvoiceBatchService;
+import com.cafeteria.cafeteria_plugin.services.InvoiceService;
 import com.cafeteria.cafeteria_plugin.services.MenuItemService;
-import com.cafeteria.cafeteria_plugin.services.ParentService;
-import com.cafeteria.cafeteria_plugin.services.StudentService;
+import com.cafeteria.cafeteria_plugin.services.MenuSnapshotCache;
+import com.cafeteria.cafeteria_plugin.services.OrderHistoryExportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/menu")
 public class MenuItemController {
 
+    private static final Logger logger = LoggerFactory.getLogger(MenuItemController.class);
+
     @Autowired
     private MenuItemService menuItemService;
 
     @Autowired
-    private StudentService studentService;
+    private OrderHistoryMapper orderHistoryMapper;
 
     @Autowired
-    private ParentService parentService;
+    private MenuSnapshotCache menuSnapshotCache;
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private InvoiceService invoiceService;
 
     @Autowired
-    private OrderHistoryMapper orderHistoryMapper;
+    private InvoiceBatchService invoiceBatchService;
+
+    @Autowired
+    private OrderHistoryExportService orderHistoryExportService;
+
+    @Autowired
+    private AllergenDictionary allergenDictionary;
 
     @Value("${image.upload.dir}")
     private String uploadDir;
@@ -57,15 +82,12 @@ public class MenuItemController {
             @RequestParam(name = "allergens", required = false) List<String> allergens,
             @RequestParam(name = "file", required = false) MultipartFile file) {
         try {
-            System.out.println("Add menu item request received");
-            System.out.println("Name: " + name);
-            System.out.println("File present: " + (file != null));
+            logger.debug("Add menu item request received: name={}, filePresent={}", name, file != null);
 
             File uploadDirectory = new File(uploadDir);
-            System.out.println("Upload directory: " + uploadDirectory.getAbsolutePath());
             if (!uploadDirectory.exists()) {
                 boolean created = uploadDirectory.mkdirs();
-                System.out.println("Created directory: " + created);
+                logger.info("Created upload directory {}: {}", uploadDirectory.getAbsolutePath(), created);
             }
 
             String imageUrl = null;
@@ -75,7 +97,7 @@ public class MenuItemController {
                 file.transferTo(destinationFile);
                 imageUrl = "/images/" + fileName;
             } else {
-                System.out.println("No file provided or file is empty");
+                logger.debug("No file provided or file is empty");
             }
             MenuItem menuItem = new MenuItem();
             menuItem.setName(name);
@@ -89,8 +111,7 @@ public class MenuItemController {
 
             return ResponseEntity.ok("Menu item added successfully with image URL: " + imageUrl);
         } catch (Exception e) {
-            System.err.println("Error in addMenuItemWithImage: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Error in addMenuItemWithImage", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error: " + e.getMessage());
         }
     }
@@ -103,26 +124,15 @@ public class MenuItemController {
     public ResponseEntity<String> purchaseMenuItemForMyChild(
             @PathVariable Long menuItemId,
             @RequestParam(name = "quantity") int quantity,
-            @RequestHeader("Authorization") String token) {
+            @CurrentChild Student student) {
         try {
-            // Extract parent from token
-            String username = jwtUtil.extractUsername(token.replace("Bearer ", ""));
-            Parent parent = parentService.findByUsername(username);
-
-            if (parent == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Parent not found");
-            }
-
-            // Get student associated with parent
-            Optional<Student> studentOpt = studentService.getStudentByParentId(parent.getId());
-            if (studentOpt.isEmpty()) {
+            // The child is loaded together with its parent, so no separate parent lookup is needed
+            if (student == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No student found for this parent");
             }
 
-            Student student = studentOpt.get();
-
             // Process the purchase
-            menuItemService.purchaseMenuItem(parent.getId(), student.getId(), menuItemId, quantity);
+            menuItemService.purchaseMenuItem(student.getParent(), student, menuItemId, quantity);
             return ResponseEntity.ok("Purchase successful!");
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
@@ -132,6 +142,55 @@ public class MenuItemController {
         }
     }
 
+    /**
+     * Buy several menu items for the parent's child in one order: all lines succeed or none do
+     */
+    @PostMapping("/me/checkout")
+    @PreAuthorize("hasRole('PARENT')")
+    public ResponseEntity<?> checkoutForMyChild(
+            @RequestBody CheckoutRequestDTO request,
+            @CurrentChild Student student) {
+        if (student == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "No student found for this parent"));
+        }
+        try {
+            MenuItemService.CheckoutResult result =
+                    menuItemService.checkout(student.getParent(), student, request.getItems());
+            return ResponseEntity.ok(Map.of(
+                    "message", "Purchase successful!",
+                    "lines", result.lines(),
+                    "total", result.total()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // ✅ Facturile tuturor elevilor pe o lună, într-o singură arhivă ZIP (cu manifest.csv)
+    @GetMapping("/invoices/month")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> generateMonthInvoices(
+            @RequestParam(name = "month") int month,
+            @RequestParam(name = "year") int year) {
+        YearMonth period;
+        try {
+            period = YearMonth.of(year, month);
+        } catch (DateTimeException e) {
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body("Invalid month".getBytes());
+        }
+        // Rularea se rezervă înainte de 200; corpul o eliberează la final
+        Optional<InvoiceBatchService.Run> run = invoiceBatchService.tryStart(period);
+        if (run.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body("An invoice run is already in progress".getBytes());
+        }
+        StreamingResponseBody body = out -> invoiceBatchService.writeMonthArchive(run.get(), out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=invoices_" + period + ".zip")
+                .body(body);
+    }
+
     /**
      * Legacy method - maintained for backward compatibility
      */
@@ -149,19 +208,47 @@ public class MenuItemController {
         }
     }
 
+    // ✅ Meniul vine din snapshot-ul serializat; If-None-Match identic primește 304 fără corp
     @GetMapping("/all")
-    public ResponseEntity<List<MenuItem>> getAllMenuItems() {
-        List<MenuItem> menuItems = menuItemService.getAllMenuItems();
-        return ResponseEntity.ok(menuItems);
+    public ResponseEntity<byte[]> getAllMenuItems(WebRequest request) {
+        return cachedJson(menuSnapshotCache.all(), request);
+    }
+
+    // ✅ Meniul sigur pentru copil: produsele fără alergenii din profilul lui, tot din snapshot
+    @GetMapping("/me/safe")
+    @PreAuthorize("hasRole('PARENT')")
+    public ResponseEntity<byte[]> getSafeMenuForMyChild(@CurrentChild Student student, WebRequest request) {
+        if (student == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+        long allergyMask = student.getAllergyMask() == null ? 0L : student.getAllergyMask();
+        return cachedJson(menuSnapshotCache.safeFor(allergyMask), request);
+    }
+
+    // ✅ Dicționarul de alergeni cunoscuți, pentru formularul de profil
+    @GetMapping("/allergens")
+    public ResponseEntity<List<String>> getAllergens() {
+        return ResponseEntity.ok(allergenDictionary.getAllergens());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<MenuItem> getMenuItemById(@PathVariable Long id) {
-        Optional<MenuItem> menuItem = menuItemService.getMenuItemById(id);
-        return menuItem.map(ResponseEntity::ok)
+    public ResponseEntity<byte[]> getMenuItemById(@PathVariable Long id, WebRequest request) {
+        return menuSnapshotCache.item(id)
+                .map(json -> cachedJson(json, request))
                 .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).body(null));
     }
 
+    private static ResponseEntity<byte[]> cachedJson(MenuSnapshotCache.CachedJson json, WebRequest request) {
+        if (request.checkNotModified(json.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(json.etag()).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(json.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(json.body());
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<MenuItem> updateMenuItem(@PathVariable Long id, @RequestBody MenuItem updatedMenuItem) {
         try {
@@ -181,75 +268,95 @@ public class MenuItemController {
     @GetMapping("/orders/student/me")
     @PreAuthorize("hasRole('STUDENT')")
     public ResponseEntity<List<OrderHistoryDTO>> getMyStudentOrders(
-            @RequestHeader("Authorization") String token,
+            @CurrentUser Student student,
             @RequestParam(name = "month") int month,
             @RequestParam(name = "year") int year) {
-        String username = jwtUtil.extractUsername(token.replace("Bearer ", ""));
-        Student student = studentService.findByUsername(username);
         if (student == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(List.of());
         }
 
-        var rawOrders = menuItemService.getOrderHistoryForStudent(student.getId(), month, year);
+        var rawOrders = menuItemService.getOrderHistoryForStudent(student, month, year);
         var dtos = rawOrders.stream()
                 .map(orderHistoryMapper::toDto)
                 .toList();
         return ResponseEntity.ok(dtos);
     }
 
+    // ✅ Export CSV al comenzilor pentru contabilitate, scris în răspuns pe măsură ce e citit
+    @GetMapping("/orders/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> exportOrders(
+            @RequestParam(name = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body("Invalid date range".getBytes());
+        }
+        StreamingResponseBody body = out -> orderHistoryExportService.writeCsv(from, to, out);
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=orders_" + from + "_" + to + ".csv")
+                .body(body);
+    }
+
     @GetMapping("/me/child/orders")
     @PreAuthorize("hasRole('PARENT')")
     public ResponseEntity<List<OrderHistoryDTO>> getChildOrdersForParent(
-            @RequestHeader("Authorization") String token,
+            @CurrentChild Student student,
             @RequestParam(name = "month") int month,
             @RequestParam(name = "year") int year) {
-        String username = jwtUtil.extractUsername(token.replace("Bearer ", ""));
-        Parent parent = parentService.findByUsername(username);
-        if (parent == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(List.of());
+        if (student == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(List.of());
         }
 
-        return studentService.getStudentByParentId(parent.getId())
-                .map(student -> {
-                    var orders = menuItemService.getOrderHistoryForStudent(student.getId(), month, year)
-                            .stream()
-                            .map(orderHistoryMapper::toDto)
-                            .toList();
-                    return ResponseEntity.ok(orders);
-                })
-                .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).body(List.of()));
+        var orders = menuItemService.getOrderHistoryForStudent(student, month, year)
+                .stream()
+                .map(orderHistoryMapper::toDto)
+                .toList();
+        return ResponseEntity.ok(orders);
     }
 
     @GetMapping("/me/invoice")
     @PreAuthorize("hasRole('PARENT')")
-    public ResponseEntity<byte[]> generateInvoiceForMyChild(
-            @RequestHeader("Authorization") String token,
+    public ResponseEntity<?> generateInvoiceForMyChild(
+            @CurrentChild Student student,
             @RequestParam(name = "month") int month,
-            @RequestParam(name = "year") int year) {
-        String username = jwtUtil.extractUsername(token.replace("Bearer ", ""));
-        Parent parent = parentService.findByUsername(username);
-        if (parent == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+            @RequestParam(name = "year") int year,
+            WebRequest request) throws IOException {
+        if (student == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .contentType(MediaType.TEXT_PLAIN)
-                    .body("Unauthorized".getBytes());
+                    .body("No student found".getBytes());
+        }
+        YearMonth period;
+        try {
+            period = YearMonth.of(year, month);
+        } catch (DateTimeException e) {
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body("Invalid month".getBytes());
+        }
+        String disposition = "attachment; filename=invoice_" + month + "_" + year + ".pdf";
+
+        // ✅ Luna încheiată: factura e un fișier deja generat, identificat prin hash-ul conținutului
+        if (invoiceService.isClosed(period)) {
+            InvoiceService.StoredInvoice invoice = invoiceService.getClosedMonthInvoice(student, period);
+            if (request.checkNotModified(invoice.etag())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(invoice.etag()).build();
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_PDF)
+                    .contentLength(invoice.size())
+                    .eTag(invoice.etag())
+                    .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate())
+                    .header(HttpHeaders.CONTENT_DISPOSITION, disposition)
+                    .body(new FileSystemResource(invoice.file()));
         }
 
-        return studentService.getStudentByParentId(parent.getId())
-                .map(student -> {
-                    // Get the PDF bytes
-                    byte[] pdfBytes = menuItemService.generateInvoicePDF(student.getId(), month, year);
-
-                    // Return with appropriate headers
-                    return ResponseEntity
-                            .ok()
-                            .contentType(MediaType.APPLICATION_PDF)
-                            .header(HttpHeaders.CONTENT_DISPOSITION,
-                                    "attachment; filename=invoice_" + month + "_" + year + ".pdf")
-                            .body(pdfBytes);
-                })
-                .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .contentType(MediaType.TEXT_PLAIN)
-                        .body("No student found".getBytes()));
+        // ✅ Luna curentă: comenzile se citesc acum, PDF-ul se scrie direct în răspuns
+        List<OrderHistory> orders = invoiceService.getOrders(student, period);
+        StreamingResponseBody body = out -> invoiceService.writeInvoice(student, period, orders, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition)
+                .body(body);
     }
 
     /**
@@ -0,0 +1,186 @@
+package com.cafeteria.cafeteria_plugin.controllers;
+
+import com.cafeteria.cafeteria_plugin.security.AuthUserLookup;
+import com.cafeteria.cafeteria_plugin.security.IdempotencyFilter;
+import com.cafeteria.cafeteria_plugin.security.LoginAttemptTracker;
+import com.cafeteria.cafeteria_plugin.security.PasswordHashingExecutor;
+import com.cafeteria.cafeteria_plugin.security.RateLimiter;
+import com.cafeteria.cafeteria_plugin.security.TokenRevocationRegistry;
+import com.cafeteria.cafeteria_plugin.services.InventoryMonitor;
+import com.cafeteria.cafeteria_plugin.services.InvoiceBatchService;
+import com.cafeteria.cafeteria_plugin.services.InvoiceService;
+import com.cafeteria.cafeteria_plugin.services.KitchenOrderBus;
+import com.cafeteria.cafeteria_plugin.services.MenuSnapshotCache;
+import com.cafeteria.cafeteria_plugin.services.MenuStockLedger;
+import com.cafeteria.cafeteria_plugin.services.OrderHistoryExportService;
+import com.cafeteria.cafeteria_plugin.services.PickupSlotLedger;
+import com.cafeteria.cafeteria_plugin.services.PopularityTracker;
+import com.cafeteria.cafeteria_plugin.services.SalesRollupService;
+import com.cafeteria.cafeteria_plugin.services.WalletService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/monitoring")
+@PreAuthorize("hasRole('ADMIN')")
+public class MonitoringController {
+
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private LoginAttemptTracker loginAttemptTracker;
+
+    @Autowired
+    private AuthUserLookup authUserLookup;
+
+    @Autowired
+    private MenuStockLedger menuStockLedger;
+
+    @Autowired
+    private IdempotencyFilter idempotencyFilter;
+
+    @Autowired
+    private KitchenOrderBus kitchenOrderBus;
+
+    @Autowired
+    private MenuSnapshotCache menuSnapshotCache;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private PopularityTracker popularityTracker;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private InvoiceBatchService invoiceBatchService;
+
+    @Autowired
+    private OrderHistoryExportService orderHistoryExportService;
+
+    @Autowired
+    private PickupSlotLedger pickupSlotLedger;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private InventoryMonitor inventoryMonitor;
+
+    // ✅ Coada și latența verificărilor de parolă
+    @GetMapping("/password-hashing")
+    public ResponseEntity<Map<String, Object>> getPasswordHashingMetrics() {
+        return ResponseEntity.ok(passwordHashingExecutor.getMetrics());
+    }
+
+    // ✅ Dimensiunea listei de tokenuri revocate
+    @GetMapping("/token-revocation")
+    public ResponseEntity<Map<String, Object>> getTokenRevocationMetrics() {
+        return ResponseEntity.ok(tokenRevocationRegistry.getMetrics());
+    }
+
+    // ✅ Cereri acceptate și respinse de limitatorul de rată, pe grupuri de endpointuri
+    @GetMapping("/rate-limit")
+    public ResponseEntity<Map<String, Object>> getRateLimitMetrics() {
+        return ResponseEntity.ok(rateLimiter.getMetrics());
+    }
+
+    // ✅ Autentificări eșuate și conturi/adrese blocate temporar
+    @GetMapping("/login-attempts")
+    public ResponseEntity<Map<String, Object>> getLoginAttemptMetrics() {
+        return ResponseEntity.ok(loginAttemptTracker.getMetrics());
+    }
+
+    // ✅ Cache-ul de credențiale folosit la autentificare
+    @GetMapping("/auth-cache")
+    public ResponseEntity<Map<String, Object>> getAuthCacheMetrics() {
+        return ResponseEntity.ok(authUserLookup.getMetrics());
+    }
+
+    // ✅ Rezervări de stoc și scrieri în lot către DB
+    @GetMapping("/stock")
+    public ResponseEntity<Map<String, Object>> getStockMetrics() {
+        return ResponseEntity.ok(menuStockLedger.getMetrics());
+    }
+
+    // ✅ Chei Idempotency-Key memorate și reîncercări servite din memorie
+    @GetMapping("/idempotency")
+    public ResponseEntity<Map<String, Object>> getIdempotencyMetrics() {
+        return ResponseEntity.ok(idempotencyFilter.getMetrics());
+    }
+
+    // ✅ Ecrane din bucătărie conectate și comenzi trimise prin SSE
+    @GetMapping("/kitchen-stream")
+    public ResponseEntity<Map<String, Object>> getKitchenStreamMetrics() {
+        return ResponseEntity.ok(kitchenOrderBus.getMetrics());
+    }
+
+    // ✅ Snapshot-ul meniului: citiri servite din memorie și reconstrucții
+    @GetMapping("/menu-cache")
+    public ResponseEntity<Map<String, Object>> getMenuCacheMetrics() {
+        return ResponseEntity.ok(menuSnapshotCache.getMetrics());
+    }
+
+    // ✅ Agregatele de vânzări: incremente în așteptare și reconstrucții
+    @GetMapping("/sales-rollups")
+    public ResponseEntity<Map<String, Object>> getSalesRollupMetrics() {
+        return ResponseEntity.ok(salesRollupService.getMetrics());
+    }
+
+    // ✅ Volumul urmărit de clasamentele din memorie, pe ferestre de timp
+    @GetMapping("/popularity")
+    public ResponseEntity<Map<String, Object>> getPopularityMetrics() {
+        return ResponseEntity.ok(popularityTracker.getMetrics());
+    }
+
+    // ✅ Facturi generate la cerere vs. servite din fișierele lunilor închise
+    @GetMapping("/invoices")
+    public ResponseEntity<Map<String, Object>> getInvoiceMetrics() {
+        return ResponseEntity.ok(invoiceService.getMetrics());
+    }
+
+    // ✅ Progresul și durata rulării de facturi pentru toată școala
+    @GetMapping("/invoice-runs")
+    public ResponseEntity<Map<String, Object>> getInvoiceRunMetrics() {
+        return ResponseEntity.ok(invoiceBatchService.getMetrics());
+    }
+
+    // ✅ Exporturi CSV de comenzi în curs și volumul exportat
+    @GetMapping("/order-export")
+    public ResponseEntity<Map<String, Object>> getOrderExportMetrics() {
+        return ResponseEntity.ok(orderHistoryExportService.getMetrics());
+    }
+
+    // ✅ Rezervările pe sloturile de ridicare și scrierile lor în lot
+    @GetMapping("/pickup-slots")
+    public ResponseEntity<Map<String, Object>> getPickupSlotMetrics() {
+        return ResponseEntity.ok(pickupSlotLedger.getMetrics());
+    }
+
+    // ✅ Intrările din portofele, plățile refuzate și punctele de control lunare
+    @GetMapping("/wallet")
+    public ResponseEntity<Map<String, Object>> getWalletMetrics() {
+        return ResponseEntity.ok(walletService.getMetrics());
+    }
+
+    // ✅ Monitorul de stoc: produse urmărite, unități înregistrate și alerte trimise
+    @GetMapping("/inventory")
+    public ResponseEntity<Map<String, Object>> getInventoryMetrics() {
+        return ResponseEntity.ok(inventoryMonitor.getMetrics());
+    }
+}
@@ -7,7 +7,8 @@ import com.cafeteria.cafeteria_plugin.models.Parent;
 import com.cafeteria.cafeteria_plugin.models.Schedule;
 import com.cafeteria.cafeteria_plugin.models.Student;
 import com.cafeteria.cafeteria_plugin.models.Teacher;
-import com.cafeteria.cafeteria_plugin.security.JwtUtil;
+import com.cafeteria.cafeteria_plugin.security.CurrentChild;
+import com.cafeteria.cafeteria_plugin.security.CurrentUser;
 import com.cafeteria.cafeteria_plugin.services.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -66,9 +67,6 @@ public class ParentController {
     @Autowired
     private StudentMapper studentMapper;
 
-    @Autowired
-    private JwtUtil jwtUtil;
-
 
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping
@@ -107,26 +105,18 @@ public class ParentController {
 
     @PreAuthorize("hasRole('PARENT') or hasRole('TEACHER') or hasRole('ADMIN')")
     @GetMapping("/me/child")
-    public ResponseEntity<?> getStudentForParent(@RequestHeader("Authorization") String token) {
-        String jwt = token.replace("Bearer ", "");
-        String username = jwtUtil.extractUsername(jwt);
-        Parent parent = parentService.findByUsername(username);
-
-        return studentService.getStudentByParentId(parent.getId())
-                .map(student -> ResponseEntity.ok(studentMapper.toDTO(student)))
-                .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).body(new StudentDTO()));
-
+    public ResponseEntity<?> getStudentForParent(@CurrentChild Student student) {
+        if (student == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new StudentDTO());
+        }
+        return ResponseEntity.ok(studentMapper.toDTO(student));
     }
 
 
     @PreAuthorize("hasRole('ADMIN')")
     @PostMapping("/me/add-student")
-    public ResponseEntity<?> addStudentToParent(@RequestHeader("Authorization") String token, @RequestBody Student student) {
+    public ResponseEntity<?> addStudentToParent(@CurrentUser Parent parent, @RequestBody Student student) {
         try {
-            String jwt = token.replace("Bearer ", "");
-            String username = jwtUtil.extractUsername(jwt);
-            Parent parent = parentService.findByUsername(username);
-
             Student added = parentService.addStudentToParent(parent.getId(), student);
             return ResponseEntity.ok(added);
         } catch (Exception e) {
@@ -136,33 +126,45 @@ public class ParentController {
 
     @PreAuthorize("hasRole('PARENT')")
     @GetMapping("/me/child/absences")
-    public ResponseEntity<?> getChildAbsencesForParent(@RequestHeader("Authorization") String token) {
-        String jwt = token.replace("Bearer ", "");
-        String username = jwtUtil.extractUsername(jwt);
-        Parent parent = parentService.findByUsername(username);
-
-        return studentService.getStudentByParentId(parent.getId())
-                .map(student -> {
-                    int total = absenceService.getTotalAbsencesForStudent(student.getId());
-                    return ResponseEntity.ok(Map.of("total", total));
-                })
-                .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("total", 0)));
+    public ResponseEntity<?> getChildAbsencesForParent(@CurrentChild Student student) {
+        if (student == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("total", 0));
+        }
+        int total = absenceService.getTotalAbsencesForStudent(student.getId());
+        return ResponseEntity.ok(Map.of("total", total));
     }
 
 
+    @PreAuthorize("hasRole('PARENT')")
+    @GetMapping("/me/child/allergies")
+    public ResponseEntity<?> getChildAllergies(@CurrentChild Student student) {
+        if (student == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(List.of());
+        }
+        return ResponseEntity.ok(studentService.getAllergies(student));
+    }
+
+    @PreAuthorize("hasRole('PARENT')")
+    @PutMapping("/me/child/allergies")
+    public ResponseEntity<?> updateChildAllergies(@CurrentChild Student student, @RequestBody List<String> allergies) {
+        if (student == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(List.of());
+        }
+        try {
+            return ResponseEntity.ok(studentService.updateAllergies(student, allergies));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
     @PreAuthorize("hasRole('PARENT')")
     @GetMapping("/me/child/grades")
-    public ResponseEntity<?> getChildGradesForParent(@RequestHeader("Authorization") String token) {
-        String jwt = token.replace("Bearer ", "");
-        String username = jwtUtil.extractUsername(jwt);
-        Parent parent = parentService.findByUsername(username);
-
-        return studentService.getStudentByParentId(parent.getId())
-                .map(student -> {
-                    List<GradeDTO> grades = gradeService.getGradesByStudent(student.getId());
-                    return ResponseEntity.ok(grades);
-                })
-                .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).body(List.of()));
+    public ResponseEntity<?> getChildGradesForParent(@CurrentChild Student student) {
+        if (student == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(List.of());
+        }
+        List<GradeDTO> grades = gradeService.getGradesByStudent(student.getId());
+        return ResponseEntity.ok(grades);
     }
 
 
@@ -170,29 +172,24 @@ public class ParentController {
     @PreAuthorize("hasRole('PARENT')")
     @GetMapping("/me/child/orders")
     public ResponseEntity<?> getChildOrdersForParent(
-            @RequestHeader("Authorization") String token,
+            @CurrentChild Student student,
             @RequestParam(name = "month") int month,
             @RequestParam(name = "year") int year) {
 
-        String username = jwtUtil.extractUsername(token.replace("Bearer ", ""));
-        Parent parent = parentService.findByUsername(username);
-
-        return studentService.getStudentByParentId(parent.getId())
-                .map(student -> {
-                    var orders = menuItemService.getOrderHistoryForStudent(student.getId(), month, year)
-                            .stream()
-                            .map(orderHistoryMapper::toDto)
-                            .toList();
-                    return ResponseEntity.ok(orders);
-                })
-                .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).body(List.of()));
+        if (student == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(List.of());
+        }
+
+        var orders = menuItemService.getOrderHistoryForStudent(student, month, year)
+                .stream()
+                .map(orderHistoryMapper::toDto)
+                .toList();
+        return ResponseEntity.ok(orders);
     }
 
     @PreAuthorize("hasRole('PARENT')")
     @GetMapping("/child/total-absences")
-    public ResponseEntity<Map<String, Integer>> getTotalAbsencesForChildren(@RequestHeader("Authorization") String token) {
-        String username = jwtUtil.extractUsername(token.replace("Bearer ", ""));
-        Parent parent = parentService.findByUsername(username);
+    public ResponseEntity<Map<String, Integer>> getTotalAbsencesForChildren(@CurrentUser Parent parent) {
         if (parent == null) {
             return ResponseEntity.notFound().build();
         }
@@ -206,37 +203,30 @@ public class ParentController {
 
     @PreAuthorize("hasRole('PARENT')")
     @GetMapping("/me/child/teachers")
-    public ResponseEntity<List<TeacherBriefDTO>> getTeachersForMyChild(@RequestHeader("Authorization") String token) {
-        String jwt = token.replace("Bearer ", "");
-        String username = jwtUtil.extractUsername(jwt);
-        Parent parent = parentService.findByUsername(username);
-
-        return studentService.getStudentByParentId(parent.getId())
-                .map(student -> {
-                    List<Teacher> teachers = student.getStudentClass().getSchedules().stream()
-                            .map(Schedule::getTeacher)
-                            .distinct()
-                            .toList();
-
-                    List<TeacherBriefDTO> result = teachers.stream().map(teacher -> {
-                        TeacherBriefDTO dto = new TeacherBriefDTO();
-                        dto.setName(teacher.getName());
-                        dto.setSubject(teacher.getSubject());
-                        dto.setEmail(teacher.getEmail());
-                        return dto;
-                    }).toList();
-
-                    return ResponseEntity.ok(result);
-                })
-                .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).body(List.of()));
+    public ResponseEntity<List<TeacherBriefDTO>> getTeachersForMyChild(@CurrentChild Student student) {
+        if (student == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(List.of());
+        }
+
+        List<Teacher> teachers = student.getStudentClass().getSchedules().stream()
+                .map(Schedule::getTeacher)
+                .distinct()
+                .toList();
+
+        List<TeacherBriefDTO> result = teachers.stream().map(teacher -> {
+            TeacherBriefDTO dto = new TeacherBriefDTO();
+            dto.setName(teacher.getName());
+            dto.setSubject(teacher.getSubject());
+            dto.setEmail(teacher.getEmail());
+            return dto;
+        }).toList();
+
+        return ResponseEntity.ok(result);
     }
 
     @PostMapping("/parents/me/send-message")
     @PreAuthorize("hasRole('PARENT')")
-    public ResponseEntity<Void> sendMessageToTeacher(@RequestBody EmailMessageDTO request, @RequestHeader("Authorization") String token) {
-        String username = jwtUtil.extractUsername(token.replace("Bearer ", ""));
-        Parent parent = parentService.findByUsername(username);
-
+    public ResponseEntity<Void> sendMessageToTeacher(@RequestBody EmailMessageDTO request, @CurrentUser Parent parent) {
         if (parent == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
 
         try {
@@ -254,9 +244,7 @@ public class ParentController {
 
     @PreAuthorize("hasRole('PARENT')")
     @GetMapping("/me")
-    public ResponseEntity<ParentDTO> getMyProfile(@RequestHeader("Authorization") String token) {
-        String username = jwtUtil.extractUsername(token.replace("Bearer ", ""));
-        Parent parent = parentService.findByUsername(username);
+    public ResponseEntity<ParentDTO> getMyProfile(@CurrentUser Parent parent) {
         if (parent == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
@@ -266,16 +254,13 @@ public class ParentController {
     @PreAuthorize("hasRole('PARENT')")
     @PostMapping("/me/profile-image")
     public ResponseEntity<String> uploadParentProfileImage(
-            @RequestHeader("Authorization") String token,
+            @CurrentUser Parent parent,
             @RequestParam("profileImage") MultipartFile file) {
         try {
             if (file.isEmpty()) {
                 return ResponseEntity.badRequest().body("No file uploaded");
             }
 
-            String username = jwtUtil.extractUsername(token.replace("Bearer ", ""));
-            Parent parent = parentService.findByUsername(username);
-
             if (parent == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Parent not found");
             }
@@ -301,46 +286,38 @@ public class ParentController {
 
     @PreAuthorize("hasRole('PARENT')")
     @GetMapping("/me/child/upcoming-classes")
-    public ResponseEntity<List<ScheduleDTO>> getChildUpcomingClassesForParent(@RequestHeader("Authorization") String token) {
-        String jwt = token.replace("Bearer ", "");
-        String username = jwtUtil.extractUsername(jwt);
-        Parent parent = parentService.findByUsername(username);
-
-        return studentService.getStudentByParentId(parent.getId())
-                .map(student -> {
-                    List<Schedule> schedules = studentService.getUpcomingSchedules(student.getId());
-                    List<ScheduleDTO> dtos = schedules.stream()
-                            .map(scheduleMapper::toDto)
-                            .toList();
-                    return ResponseEntity.ok(dtos);
-                })
-                .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).body(List.of()));
+    public ResponseEntity<List<ScheduleDTO>> getChildUpcomingClassesForParent(@CurrentChild Student student) {
+        if (student == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(List.of());
+        }
+
+        List<Schedule> schedules = studentService.getUpcomingSchedules(student);
+        List<ScheduleDTO> dtos = schedules.stream()
+                .map(scheduleMapper::toDto)
+                .toList();
+        return ResponseEntity.ok(dtos);
     }
 
     @PreAuthorize("hasRole('PARENT')")
     @GetMapping("/me/child/class-schedule")
-    public ResponseEntity<?> getChildClassScheduleForParent(@RequestHeader("Authorization") String token) {
-        String jwt = token.replace("Bearer ", "");
-        String username = jwtUtil.extractUsername(jwt);
-        Parent parent = parentService.findByUsername(username);
-
-        return studentService.getStudentByParentId(parent.getId())
-                .map(student -> {
-                    List<Schedule> schedules = student.getStudentClass().getSchedules();
-                    List<ScheduleDTO> dtos = schedules.stream()
-                            .map(scheduleMapper::toDto)
-                            .toList();
-
-                    String className = student.getStudentClass().getName();
-
-                    return ResponseEntity.ok(
-                            Map.of(
-                                    "className", className,
-                                    "schedule", dtos
-                            )
-                    );
-                })
-                .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of()));
+    public ResponseEntity<?> getChildClassScheduleForParent(@CurrentChild Student student) {
+        if (student == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of());
+        }
+
+        List<Schedule> schedules = student.getStudentClass().getSchedules();
+        List<ScheduleDTO> dtos = schedules.stream()
+                .map(scheduleMapper::toDto)
+                .toList();
+
+        String className = student.getStudentClass().getName();
+
+        return ResponseEntity.ok(
+                Map.of(
+                        "className", className,
+                        "schedule", dtos
+                )
+        );
     }
 
 
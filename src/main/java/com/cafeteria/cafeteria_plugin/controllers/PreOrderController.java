@@ -0,0 +1,72 @@
+package com.cafeteria.cafeteria_plugin.controllers;
+
+import com.cafeteria.cafeteria_plugin.dtos.PreOrderRequestDTO;
+import com.cafeteria.cafeteria_plugin.models.Student;
+import com.cafeteria.cafeteria_plugin.security.CurrentChild;
+import com.cafeteria.cafeteria_plugin.services.PreOrderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/preorders")
+public class PreOrderController {
+
+    @Autowired
+    private PreOrderService preOrderService;
+
+    // ✅ Părintele comandă pentru copil pe o zi viitoare și un slot de ridicare
+    @PostMapping("/me")
+    @PreAuthorize("hasRole('PARENT')")
+    public ResponseEntity<?> preOrderForMyChild(
+            @RequestBody PreOrderRequestDTO request,
+            @CurrentChild Student student) {
+        if (student == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "No student found for this parent"));
+        }
+        try {
+            PreOrderService.PreOrderResult result = preOrderService.placePreOrder(student.getParent(), student,
+                    request.getPickupDate(), request.getSlot(), request.getItems());
+            return ResponseEntity.ok(Map.of(
+                    "message", "Pre-order saved!",
+                    "lines", result.lines(),
+                    "portions", result.portions(),
+                    "total", result.total()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // ✅ Precomenzile viitoare ale copilului
+    @GetMapping("/me")
+    @PreAuthorize("hasRole('PARENT')")
+    public ResponseEntity<?> getMyChildPreOrders(@CurrentChild Student student) {
+        if (student == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "No student found for this parent"));
+        }
+        return ResponseEntity.ok(preOrderService.getUpcomingPreOrders(student));
+    }
+
+    // ✅ Locuri libere pe sloturile unei zile
+    @GetMapping("/slots")
+    @PreAuthorize("hasAnyRole('PARENT', 'ADMIN', 'CHEF')")
+    public ResponseEntity<List<Map<String, Object>>> getSlots(
+            @RequestParam(name = "date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(preOrderService.getSlotAvailability(date));
+    }
+
+    // ✅ Cât trebuie preparat din fiecare produs, pe slot
+    @GetMapping("/prep")
+    @PreAuthorize("hasAnyRole('ADMIN', 'CHEF')")
+    public ResponseEntity<List<Map<String, Object>>> getPrepSheet(
+            @RequestParam(name = "date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(preOrderService.getPrepSheet(date));
+    }
+}
@@ -5,8 +5,10 @@ import com.cafeteria.cafeteria_plugin.mappers.ScheduleMapper;
 import com.cafeteria.cafeteria_plugin.models.Schedule;
 import com.cafeteria.cafeteria_plugin.models.Student;
 import com.cafeteria.cafeteria_plugin.models.Teacher;
-import com.cafeteria.cafeteria_plugin.security.JwtUtil;
+import com.cafeteria.cafeteria_plugin.security.CurrentUser;
 import com.cafeteria.cafeteria_plugin.services.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -28,6 +30,8 @@ import java.util.*;
 @RequestMapping("/schedules")
 public class ScheduleController {
 
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleController.class);
+
     @Autowired
     private ScheduleService scheduleService;
 
@@ -43,8 +47,6 @@ public class ScheduleController {
     @Autowired
     private StudentService studentService;
 
-    @Autowired
-    private JwtUtil jwtUtil;
 
     @Autowired
     private ClassService classService;
@@ -105,7 +107,7 @@ public class ScheduleController {
             return ResponseEntity.ok(scheduleMapper.toDto(savedSchedule));
 
         } catch (Exception e) {
-            System.out.println("Error processing schedule: " + e.getMessage());
+            logger.warn("Error processing schedule: {}", e.getMessage());
             return ResponseEntity.badRequest().build();
         }
     }
@@ -196,11 +198,7 @@ public class ScheduleController {
 
     @PreAuthorize("hasRole('STUDENT')")
     @GetMapping("/me/weekly")
-    public ResponseEntity<List<ScheduleDTO>> getWeeklyScheduleForStudent(@RequestHeader("Authorization") String token) {
-        String jwt = token.replace("Bearer ", "");
-        String username = jwtUtil.extractUsername(jwt);
-        Student student = studentService.findByUsername(username);
-
+    public ResponseEntity<List<ScheduleDTO>> getWeeklyScheduleForStudent(@CurrentUser Student student) {
         if (student == null || student.getStudentClass() == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
@@ -217,10 +215,7 @@ public class ScheduleController {
 
     @PreAuthorize("hasRole('STUDENT')")
     @GetMapping("/me/today")
-    public ResponseEntity<List<ScheduleDTO>> getTodayScheduleForStudent(@RequestHeader("Authorization") String token) {
-        String username = jwtUtil.extractUsername(token.replace("Bearer ", ""));
-        Student student = studentService.findByUsername(username);
-
+    public ResponseEntity<List<ScheduleDTO>> getTodayScheduleForStudent(@CurrentUser Student student) {
         if (student == null || student.getStudentClass() == null) {
             return ResponseEntity.notFound().build();
         }
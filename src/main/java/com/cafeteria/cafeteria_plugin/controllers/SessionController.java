@@ -0,0 +1,38 @@
+package com.cafeteria.cafeteria_plugin.controllers;
+
+import com.cafeteria.cafeteria_plugin.repositories.UserRepository;
+import com.cafeteria.cafeteria_plugin.security.RefreshTokenService;
+import com.cafeteria.cafeteria_plugin.security.TokenRevocationRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/sessions")
+@PreAuthorize("hasRole('ADMIN')")
+public class SessionController {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    // ✅ Deconectare forțată: toate tokenurile emise până acum devin invalide, pe toate dispozitivele
+    @PostMapping("/users/{userId}/sign-out")
+    public ResponseEntity<?> forceSignOut(@PathVariable Long userId) {
+        if (!userRepository.existsById(userId)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "Utilizatorul nu există"));
+        }
+        tokenRevocationRegistry.revokeUser(userId);
+        int refreshTokens = refreshTokenService.revokeAll(userId);
+        return ResponseEntity.ok(Map.of("message", "Utilizator deconectat", "revokedRefreshTokens", refreshTokens));
+    }
+}
@@ -8,7 +8,7 @@ import com.cafeteria.cafeteria_plugin.mappers.ScheduleMapper;
 import com.cafeteria.cafeteria_plugin.mappers.StudentMapper;
 import com.cafeteria.cafeteria_plugin.models.*;
 import com.cafeteria.cafeteria_plugin.models.Class;
-import com.cafeteria.cafeteria_plugin.security.JwtUtil;
+import com.cafeteria.cafeteria_plugin.security.CurrentUser;
 import com.cafeteria.cafeteria_plugin.services.MenuItemService;
 import com.cafeteria.cafeteria_plugin.services.StudentService;
 import com.cafeteria.cafeteria_plugin.services.AbsenceService;
@@ -52,9 +52,6 @@ public class StudentController {
     @Autowired
     private OrderHistoryMapper orderHistoryMapper;
 
-    @Autowired
-    private JwtUtil jwtUtil;
-
 
     @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN')")
     @PostMapping("/class/{classId}")
@@ -103,11 +100,7 @@ public class StudentController {
 
     @PreAuthorize("hasRole('STUDENT')")
     @GetMapping("/me")
-    public ResponseEntity<StudentDTO> getCurrentStudent(@RequestHeader("Authorization") String token) {
-        String jwt = token.replace("Bearer ", "");
-        String username = jwtUtil.extractUsername(jwt);
-
-        Student student = studentService.findByUsername(username);
+    public ResponseEntity<StudentDTO> getCurrentStudent(@CurrentUser Student student) {
         if (student == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
@@ -118,9 +111,7 @@ public class StudentController {
 
     @PreAuthorize("hasRole('STUDENT')")
     @GetMapping("/me/total-absences")
-    public ResponseEntity<Map<String, Integer>> getTotalAbsencesForCurrentStudent(@RequestHeader("Authorization") String token) {
-        String username = jwtUtil.extractUsername(token.replace("Bearer ", ""));
-        Student student = studentService.findByUsername(username);
+    public ResponseEntity<Map<String, Integer>> getTotalAbsencesForCurrentStudent(@CurrentUser Student student) {
         if (student == null) {
             return ResponseEntity.notFound().build();
         }
@@ -132,13 +123,11 @@ public class StudentController {
 
     @GetMapping("/me/upcoming-classes")
     @PreAuthorize("hasRole('STUDENT')")
-    public ResponseEntity<List<ScheduleDTO>> getUpcomingClassesForCurrentStudent(@RequestHeader("Authorization") String token) {
-        String username = jwtUtil.extractUsername(token.replace("Bearer ", ""));
-        Student student = studentService.findByUsername(username);
+    public ResponseEntity<List<ScheduleDTO>> getUpcomingClassesForCurrentStudent(@CurrentUser Student student) {
         if (student == null) {
             return ResponseEntity.notFound().build();
         }
-        List<Schedule> schedules = studentService.getUpcomingSchedules(student.getId());
+        List<Schedule> schedules = studentService.getUpcomingSchedules(student);
         List<ScheduleDTO> dtos = schedules.stream().map(scheduleMapper::toDto).toList();
         return ResponseEntity.ok(dtos);
     }
@@ -146,16 +135,13 @@ public class StudentController {
     @PreAuthorize("hasRole('STUDENT')")
     @PostMapping("/me/profile-image")
     public ResponseEntity<String> uploadStudentProfileImage(
-            @RequestHeader("Authorization") String token,
+            @CurrentUser Student student,
             @RequestParam("profileImage") MultipartFile file) {
         try {
             if (file.isEmpty()) {
                 return ResponseEntity.badRequest().body("No file uploaded");
             }
 
-            String username = jwtUtil.extractUsername(token.replace("Bearer ", ""));
-            Student student = studentService.findByUsername(username);
-
             if (student == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Student not found");
             }
@@ -182,18 +168,15 @@ public class StudentController {
     @PreAuthorize("hasRole('STUDENT')")
     @GetMapping("/me/orders")
     public ResponseEntity<?> getStudentOrders(
-            @RequestHeader("Authorization") String token,
+            @CurrentUser Student student,
             @RequestParam(name = "month") int month,
             @RequestParam(name = "year") int year) {
 
-        String username = jwtUtil.extractUsername(token.replace("Bearer ", ""));
-        Student student = studentService.findByUsername(username);
-
         if (student == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
 
-        var orders = menuItemService.getOrderHistoryForStudent(student.getId(), month, year)
+        var orders = menuItemService.getOrderHistoryForStudent(student, month, year)
                 .stream()
                 .map(orderHistoryMapper::toDto)
                 .toList();
@@ -8,7 +8,7 @@ import com.cafeteria.cafeteria_plugin.mappers.StudentMapper;
 import com.cafeteria.cafeteria_plugin.mappers.TeacherMapper;
 import com.cafeteria.cafeteria_plugin.models.*;
 import com.cafeteria.cafeteria_plugin.models.User.UserType;
-import com.cafeteria.cafeteria_plugin.security.JwtUtil;
+import com.cafeteria.cafeteria_plugin.security.CurrentUser;
 import com.cafeteria.cafeteria_plugin.services.ParentService;
 import com.cafeteria.cafeteria_plugin.services.TeacherService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -42,9 +42,6 @@ public class TeacherController {
     @Autowired
     private StudentMapper studentMapper;
 
-    @Autowired
-    private JwtUtil jwtUtil;
-
 
     @PreAuthorize("hasRole('ADMIN')")
     @PostMapping
@@ -95,11 +92,7 @@ public class TeacherController {
 
     @GetMapping("/me")
     @PreAuthorize("hasRole('TEACHER')")
-    public ResponseEntity<TeacherDTO> getCurrentTeacher(@RequestHeader("Authorization") String token) {
-        String jwt = token.replace("Bearer ", "");
-        String username = jwtUtil.extractUsername(jwt);
-
-        Teacher teacher = teacherService.findByUsername(username);
+    public ResponseEntity<TeacherDTO> getCurrentTeacher(@CurrentUser Teacher teacher) {
         if (teacher == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
@@ -110,10 +103,7 @@ public class TeacherController {
 
     @GetMapping("/me/students")
     @PreAuthorize("hasRole('TEACHER')")
-    public ResponseEntity<List<StudentDTO>> getMyStudents(@RequestHeader("Authorization") String token) {
-        String jwt = token.replace("Bearer ", "");
-        String username = jwtUtil.extractUsername(jwt);
-        Teacher teacher = teacherService.findByUsername(username);
+    public ResponseEntity<List<StudentDTO>> getMyStudents(@CurrentUser Teacher teacher) {
         if (teacher == null) return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
 
         List<Student> students = teacherService.getStudentsForTeacher(teacher.getId());
@@ -127,10 +117,7 @@ public class TeacherController {
 
     @GetMapping("/me/weekly-schedule")
     @PreAuthorize("hasRole('TEACHER')")
-    public ResponseEntity<List<ScheduleDTO>> getMySchedule(@RequestHeader("Authorization") String token) {
-        String jwt = token.replace("Bearer ", "");
-        String username = jwtUtil.extractUsername(jwt);
-        Teacher teacher = teacherService.findByUsername(username);
+    public ResponseEntity<List<ScheduleDTO>> getMySchedule(@CurrentUser Teacher teacher) {
         if (teacher == null) return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
 
         List<Schedule> schedule = teacherService.getWeeklyScheduleForTeacher(teacher.getId());
@@ -143,10 +130,7 @@ public class TeacherController {
 
     @GetMapping("/me/sessions")
     @PreAuthorize("hasRole('TEACHER')")
-    public ResponseEntity<List<ClassSession>> getMySessions(@RequestHeader("Authorization") String token) {
-        String jwt = token.replace("Bearer ", "");
-        String username = jwtUtil.extractUsername(jwt);
-        Teacher teacher = teacherService.findByUsername(username);
+    public ResponseEntity<List<ClassSession>> getMySessions(@CurrentUser Teacher teacher) {
         if (teacher == null) return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
 
         List<ClassSession> sessions = teacherService.getSessionsForTeacher(teacher.getId());
@@ -156,11 +140,8 @@ public class TeacherController {
 
     @GetMapping("/my-class/parent-emails")
     @PreAuthorize("hasRole('TEACHER')")
-    public ResponseEntity<List<String>> getParentEmailsForOwnClass(@RequestHeader("Authorization") String token) {
-        String username = jwtUtil.extractUsername(token.replace("Bearer ", ""));
-        Teacher teacher = teacherService.findByUsername(username);
-
-        if (teacher.getClassAsTeacher() == null) {
+    public ResponseEntity<List<String>> getParentEmailsForOwnClass(@CurrentUser Teacher teacher) {
+        if (teacher == null || teacher.getClassAsTeacher() == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
 
@@ -5,11 +5,23 @@ import com.cafeteria.cafeteria_plugin.email.PasswordResetService;
 import com.cafeteria.cafeteria_plugin.email.PasswordResetToken;
 import com.cafeteria.cafeteria_plugin.models.*;
 import com.cafeteria.cafeteria_plugin.models.Class;
+import com.cafeteria.cafeteria_plugin.repositories.UserCredentials;
+import com.cafeteria.cafeteria_plugin.security.CredentialVerificationService;
 import com.cafeteria.cafeteria_plugin.security.JwtUtil;
+import com.cafeteria.cafeteria_plugin.security.LoginAttemptTracker;
+import com.cafeteria.cafeteria_plugin.security.RateLimiter;
+import com.cafeteria.cafeteria_plugin.security.RefreshTokenService;
+import com.cafeteria.cafeteria_plugin.security.TokenRevocationRegistry;
 import com.cafeteria.cafeteria_plugin.services.ClassService;
 import com.cafeteria.cafeteria_plugin.services.UserService;
 import com.cafeteria.cafeteria_plugin.services.ChefService;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -18,11 +30,15 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/auth/")
 public class UserController {
 
+    private static final Logger logger = LoggerFactory.getLogger(UserController.class);
+
     @Autowired
     private UserService userService;
 
@@ -44,46 +60,121 @@ public class UserController {
     @Autowired
     private PasswordResetService passwordResetService;
 
+    @Autowired
+    private CredentialVerificationService credentialVerificationService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    @Autowired
+    private LoginAttemptTracker loginAttemptTracker;
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Value("${security.password.retry-after-seconds:2}")
+    private int loginRetryAfterSeconds;
+
 
     // ✅ Autentificare utilizator (Oricine poate accesa)
+    // Verificarea BCrypt rulează pe un pool dedicat, deci firul Tomcat este eliberat imediat
     @PostMapping("/login")
-    public ResponseEntity<?> loginUser(@RequestBody Map<String, String> credentials) {
-        try {
+    public CompletableFuture<ResponseEntity<?>> loginUser(@RequestBody Map<String, String> credentials,
+                                                         HttpServletRequest request) {
+        String username = credentials.get("username");
+        String password = credentials.get("password");
+
+        if (username == null || password == null) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body(Map.of("message", "Username și parola sunt necesare")));
+        }
 
-            String username = credentials.get("username");
-            String password = credentials.get("password");
+        // Contul sau adresa blocate sunt refuzate înainte de orice interogare sau verificare BCrypt
+        String address = request.getRemoteAddr();
+        long blockedForMillis = loginAttemptTracker.blockedForMillis(username, address);
+        if (blockedForMillis > 0) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf((blockedForMillis + 999) / 1000))
+                    .body(Map.of("message", "Prea multe încercări eșuate, reîncercați mai târziu")));
+        }
 
-            if (username == null || password == null) {
-                return ResponseEntity.badRequest().body(Map.of("message", "Username și parola sunt necesare"));
-            }
+        try {
+            return credentialVerificationService.verify(username, password)
+                    .<ResponseEntity<?>>thenApply(user -> {
+                        if (user.isEmpty()) {
+                            loginAttemptTracker.recordFailure(username, address);
+                        } else {
+                            loginAttemptTracker.recordSuccess(username, address);
+                        }
+                        return toLoginResponse(user);
+                    })
+                    .exceptionally(this::toLoginError);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(loginRetryAfterSeconds))
+                    .body(Map.of("message", "Prea multe autentificări simultane, reîncercați în curând")));
+        }
+    }
 
-            User user = userService.findByUsername(username).orElse(null);
-            System.out.println();
-            System.out.println();
-            System.out.println();
-            System.out.println("Parola introdusă din Postmnan la login: " + password);
-            System.out.println("Parola stocată în DB: " + user.getPassword());
-            System.out.println();
-            System.out.println();
-
-            Optional<User> testuser = userService.findByUsername(username);
-            if (testuser.isPresent()) {
-                System.out.println("Utilizator găsit: " + testuser.get().getUsername());
-                System.out.println("Parola salvată în DB: " + testuser.get().getPassword());
-            } else {
-                System.out.println("Utilizatorul nu există!");
-            }
+    private ResponseEntity<?> toLoginResponse(Optional<UserCredentials> user) {
+        if (user.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Credentiale invalide"));
+        }
+        UserCredentials u = user.get();
+        String token = jwtUtil.generateToken(u.getId(), u.getUsername(), u.getUserType());
+        String refreshToken = refreshTokenService.issue(u.getId(), u.getUsername(), u.getUserType());
+        return ResponseEntity.ok(Map.of("token", token, "refreshToken", refreshToken));
+    }
 
-            if (!passwordEncoder.matches(password, user.getPassword())) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Credentiale invalide"));
-            }
+    private ResponseEntity<?> toLoginError(Throwable e) {
+        Throwable cause = e.getCause() != null ? e.getCause() : e;
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("message", "Eroare la autentificare: " + cause.getMessage()));
+    }
 
-            String token = jwtUtil.generateToken(username, user.getUserType());
+    // ✅ Reînnoire token fără parolă (tokenul de refresh prezentat este consumat și înlocuit)
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refreshToken(@RequestBody Map<String, String> request) {
+        String refreshToken = request.get("refreshToken");
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Refresh token lipsă"));
+        }
+        // Limita e pe familia tokenului, nu pe adresă: o școală în spatele unui NAT nu împarte aceeași găleată
+        long retryAfterMillis = rateLimiter.tryAcquire(RateLimiter.Group.REFRESH,
+                "family:" + RefreshTokenService.familyOf(refreshToken));
+        if (retryAfterMillis > 0) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf((retryAfterMillis + 999) / 1000))
+                    .body(Map.of("message", "Prea multe cereri, reîncercați în curând"));
+        }
 
-            return ResponseEntity.ok(Map.of("token", token));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("message", "Eroare la autentificare: " + e.getMessage()));
+        return refreshTokenService.rotate(refreshToken)
+                .<ResponseEntity<?>>map(pair -> ResponseEntity.ok(Map.of(
+                        "token", pair.accessToken(),
+                        "refreshToken", pair.refreshToken())))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(Map.of("message", "Refresh token invalid sau expirat")));
+    }
+
+    // ✅ Logout: tokenul curent este respins imediat, iar refresh token-ul (dacă e trimis) este revocat
+    // Rutele /auth/ nu trec prin JwtFilter, deci tokenul se citește direct din header
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authHeader,
+                                    @RequestBody(required = false) Map<String, String> request) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            try {
+                tokenRevocationRegistry.revokeToken(jwtUtil.parseClaims(authHeader.substring(7)));
+            } catch (JwtException | IllegalArgumentException e) {
+                // Token expirat sau invalid: nu mai are ce revoca
+            }
         }
+        if (request != null && request.get("refreshToken") != null) {
+            refreshTokenService.revoke(request.get("refreshToken"));
+        }
+        return ResponseEntity.ok(Map.of("message", "Delogare reușită"));
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -95,8 +186,7 @@ public class UserController {
                 return ResponseEntity.badRequest().body(Map.of("message", "Detalii student lipsă"));
             }
 
-            System.out.println("Student Data: " + studentData);
-            System.out.println("Student Email Extracted: " + studentData.get("email"));
+            logger.debug("Registering student {} with parent", studentData.get("name"));
 
             // === CREARE STUDENT ===
             Student student = new Student();
@@ -142,8 +232,6 @@ public class UserController {
                 student.setParent(parent);
             }
 
-            System.out.println("Student înainte de salvare: " + student);
-
             // 👉 Salvăm studentul în DB
             userService.createUser(student);
 
@@ -161,7 +249,7 @@ public class UserController {
             return ResponseEntity.ok(Map.of("message", "Student și părinte creați cu succes!"));
 
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.error("Failed to register student with parent", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("message", "Eroare: " + e.getMessage()));
         }
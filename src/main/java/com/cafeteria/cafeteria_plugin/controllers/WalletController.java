@@ -0,0 +1,89 @@
+package com.cafeteria.cafeteria_plugin.controllers;
+
+import com.cafeteria.cafeteria_plugin.models.Parent;
+import com.cafeteria.cafeteria_plugin.models.WalletEntry;
+import com.cafeteria.cafeteria_plugin.security.CurrentUser;
+import com.cafeteria.cafeteria_plugin.services.WalletService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.DateTimeException;
+import java.time.YearMonth;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/wallet")
+public class WalletController {
+
+    @Autowired
+    private WalletService walletService;
+
+    // ✅ Soldul portofelului părintelui autentificat (un singur rând citit)
+    @GetMapping("/me")
+    @PreAuthorize("hasRole('PARENT')")
+    public ResponseEntity<?> getMyBalance(@CurrentUser Parent parent) {
+        if (parent == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "Parent not found"));
+        }
+        return ResponseEntity.ok(Map.of("parentId", parent.getId(), "balance", walletService.getBalance(parent.getId())));
+    }
+
+    // ✅ Extrasul lunar al portofelului
+    @GetMapping("/me/statement")
+    @PreAuthorize("hasRole('PARENT')")
+    public ResponseEntity<?> getMyStatement(
+            @CurrentUser Parent parent,
+            @RequestParam(name = "month") int month,
+            @RequestParam(name = "year") int year) {
+        if (parent == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "Parent not found"));
+        }
+        try {
+            return ResponseEntity.ok(walletService.getStatement(parent.getId(), YearMonth.of(year, month)));
+        } catch (DateTimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Invalid month"));
+        }
+    }
+
+    @GetMapping("/{parentId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getBalance(@PathVariable Long parentId) {
+        return ResponseEntity.ok(Map.of("parentId", parentId, "balance", walletService.getBalance(parentId)));
+    }
+
+    // ✅ Alimentare a portofelului (plată primită de la părinte)
+    @PostMapping("/{parentId}/top-up")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> topUp(
+            @PathVariable Long parentId,
+            @RequestParam(name = "amount") double amount,
+            @RequestParam(name = "description", required = false) String description) {
+        try {
+            return ResponseEntity.ok(entryBody(walletService.topUp(parentId, amount, description)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // ✅ Rambursare: o intrare nouă, istoricul nu se modifică
+    @PostMapping("/{parentId}/refund")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> refund(
+            @PathVariable Long parentId,
+            @RequestParam(name = "amount") double amount,
+            @RequestParam(name = "description", required = false) String description) {
+        try {
+            return ResponseEntity.ok(entryBody(walletService.refund(parentId, amount, description)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    private static Map<String, Object> entryBody(WalletEntry entry) {
+        return Map.of("entryId", entry.getId(), "type", entry.getType(), "amount", entry.getAmount(),
+                "balance", entry.getBalanceAfter());
+    }
+}
@@ -0,0 +1,9 @@
+package com.cafeteria.cafeteria_plugin.dtos;
+
+import lombok.Data;
+
+@Data
+public class CartLineDTO {
+    private Long menuItemId;
+    private int quantity;
+}
@@ -0,0 +1,10 @@
+package com.cafeteria.cafeteria_plugin.dtos;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CheckoutRequestDTO {
+    private List<CartLineDTO> items;
+}
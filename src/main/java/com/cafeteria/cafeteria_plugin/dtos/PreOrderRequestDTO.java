@@ -0,0 +1,14 @@
+package com.cafeteria.cafeteria_plugin.dtos;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+@Data
+public class PreOrderRequestDTO {
+    private LocalDate pickupDate;
+    private LocalTime slot;
+    private List<CartLineDTO> items;
+}
@@ -0,0 +1,76 @@
+package com.cafeteria.cafeteria_plugin.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps one event in N per logger category, e.g. {@code rates=org.hibernate.SQL=100,com.cafeteria=1}.
+ * The longest configured prefix of the logger name wins; WARN and ERROR are never sampled out.
+ * Runs on the calling thread before the event is queued, so dropped events are never formatted.
+ */
+public class CategorySamplingFilter extends Filter<ILoggingEvent> {
+
+    private final Map<String, Long> ratesByPrefix = new ConcurrentHashMap<>();
+    private final Map<String, Sampler> samplersByLogger = new ConcurrentHashMap<>();
+
+    /**
+     * Comma-separated {@code prefix=N} pairs; N &lt;= 1 keeps every event.
+     */
+    public void setRates(String rates) {
+        ratesByPrefix.clear();
+        samplersByLogger.clear();
+        if (rates == null || rates.isBlank()) {
+            return;
+        }
+        for (String pair : rates.split(",")) {
+            int separator = pair.lastIndexOf('=');
+            if (separator <= 0) {
+                addWarn("Ignoring malformed sampling rate: " + pair);
+                continue;
+            }
+            try {
+                ratesByPrefix.put(pair.substring(0, separator).trim(), Long.parseLong(pair.substring(separator + 1).trim()));
+            } catch (NumberFormatException e) {
+                addWarn("Ignoring malformed sampling rate: " + pair);
+            }
+        }
+    }
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        if (!isStarted() || event.getLevel().isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        Sampler sampler = samplersByLogger.computeIfAbsent(event.getLoggerName(), this::samplerFor);
+        return sampler.keep() ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private Sampler samplerFor(String loggerName) {
+        String bestPrefix = null;
+        for (String prefix : ratesByPrefix.keySet()) {
+            if (loggerName.startsWith(prefix) && (bestPrefix == null || prefix.length() > bestPrefix.length())) {
+                bestPrefix = prefix;
+            }
+        }
+        return new Sampler(bestPrefix == null ? 1 : ratesByPrefix.get(bestPrefix));
+    }
+
+    private static final class Sampler {
+        private final long rate;
+        private final AtomicLong counter = new AtomicLong();
+
+        Sampler(long rate) {
+            this.rate = rate;
+        }
+
+        boolean keep() {
+            return rate <= 1 || counter.getAndIncrement() % rate == 0;
+        }
+    }
+}
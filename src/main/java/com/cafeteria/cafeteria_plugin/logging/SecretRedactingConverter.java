@@ -0,0 +1,37 @@
+package com.cafeteria.cafeteria_plugin.logging;
+
+import ch.qos.logback.classic.pattern.ClassicConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.regex.Pattern;
+
+/**
+ * Logback {@code %redactedMsg} conversion word: the formatted message with bearer tokens, JWTs,
+ * BCrypt hashes and the values of password/token/secret fields masked. Registered in
+ * {@code logback-spring.xml}, so no call site has to remember to redact.
+ */
+public class SecretRedactingConverter extends ClassicConverter {
+
+    private static final String MASK = "[REDACTED]";
+
+    private static final Pattern BEARER = Pattern.compile("(?i)(bearer\\s+)[A-Za-z0-9\\-_.~+/=]+");
+    private static final Pattern JWT = Pattern.compile("eyJ[A-Za-z0-9_-]+\\.[A-Za-z0-9_-]+\\.[A-Za-z0-9_-]*");
+    private static final Pattern BCRYPT = Pattern.compile("\\$2[abxy]?\\$\\d{2}\\$[./A-Za-z0-9]{53}");
+    private static final Pattern SECRET_FIELD = Pattern.compile(
+            "(?i)(\"?\\b(?:password|newPassword|token|refreshToken|secret|clientSecret|authorization)\\b\"?\\s*[=:]\\s*\"?)(?!bearer\\s)[^\\s,\"}&]+");
+
+    @Override
+    public String convert(ILoggingEvent event) {
+        return redact(event.getFormattedMessage());
+    }
+
+    public static String redact(String message) {
+        if (message == null || message.isEmpty()) {
+            return message;
+        }
+        String redacted = BEARER.matcher(message).replaceAll("$1" + MASK);
+        redacted = JWT.matcher(redacted).replaceAll(MASK);
+        redacted = BCRYPT.matcher(redacted).replaceAll(MASK);
+        return SECRET_FIELD.matcher(redacted).replaceAll("$1" + MASK);
+    }
+}
@@ -7,6 +7,8 @@ import com.google.api.client.http.*;
 import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.api.client.json.JsonObjectParser;
 import com.google.api.client.json.gson.GsonFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
@@ -17,6 +19,8 @@ import java.util.*;
 @Service
 public class GoogleCalendarService {
 
+    private static final Logger logger = LoggerFactory.getLogger(GoogleCalendarService.class);
+
     private final GoogleCalendarProperties props;
     private final HttpTransport HTTP_TRANSPORT = new NetHttpTransport();
     private final GsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
@@ -84,7 +88,7 @@ public class GoogleCalendarService {
         GenericUrl url = new GenericUrl("https://www.googleapis.com/calendar/v3/calendars/primary/events?conferenceDataVersion=1&sendUpdates=all");
         HttpContent content = new ByteArrayContent("application/json", JSON_FACTORY.toByteArray(eventData));
 
-        System.out.println(JSON_FACTORY.toPrettyString(eventData));
+        logger.debug("Creating calendar event: {}", summary);
 
 
         HttpRequest request = requestFactory.buildPostRequest(url, content);
@@ -0,0 +1,21 @@
+package com.cafeteria.cafeteria_plugin.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * One entry of the allergen dictionary: a normalized allergen name and the bit it occupies in
+ * the allergen masks of menu items and the allergy masks of students. Bits are handed out once
+ * and never reused, so stored masks stay valid.
+ */
+@Data
+@Entity
+@Table(name = "allergens")
+public class Allergen {
+
+    @Id
+    private Integer bit;
+
+    @Column(nullable = false, unique = true)
+    private String name;
+}
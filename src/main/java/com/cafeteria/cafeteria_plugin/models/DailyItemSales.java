@@ -0,0 +1,34 @@
+package com.cafeteria.cafeteria_plugin.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Sales of one menu item on one day, kept up to date from {@link OrderHistory} so that revenue and
+ * popularity reports read one row per day and item instead of every order line.
+ */
+@Data
+@Entity
+@Table(name = "daily_item_sales", uniqueConstraints =
+        @UniqueConstraint(name = "uk_daily_item_sales", columnNames = {"sales_day", "menu_item_name"}))
+public class DailyItemSales {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "sales_day", nullable = false)
+    private LocalDate salesDay;
+
+    @Column(name = "menu_item_name", nullable = false)
+    private String menuItemName;
+
+    // Numărul de linii de comandă, nu de bucăți
+    private long orderCount;
+
+    private long quantity;
+
+    private double revenue;
+}
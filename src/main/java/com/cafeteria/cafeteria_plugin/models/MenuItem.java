@@ -1,5 +1,6 @@
 package com.cafeteria.cafeteria_plugin.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 
@@ -21,4 +22,9 @@ public class MenuItem {
 
     @ElementCollection
     private List<String> allergens;
+
+    // Alergenii ca biți din AllergenDictionary; calculat la salvare, nu vine de la client
+    @JsonIgnore
+    @Column(name = "allergen_mask")
+    private Long allergenMask;
 }
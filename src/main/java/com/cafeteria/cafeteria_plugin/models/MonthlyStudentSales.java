@@ -0,0 +1,31 @@
+package com.cafeteria.cafeteria_plugin.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Orders placed for one student in one month, kept up to date from {@link OrderHistory}.
+ */
+@Data
+@Entity
+@Table(name = "monthly_student_sales", uniqueConstraints =
+        @UniqueConstraint(name = "uk_monthly_student_sales", columnNames = {"sales_month", "student_id"}))
+public class MonthlyStudentSales {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Prima zi a lunii
+    @Column(name = "sales_month", nullable = false)
+    private LocalDate salesMonth;
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    private long orderCount;
+
+    private double revenue;
+}
@@ -6,6 +6,7 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
+@Table(indexes = @Index(name = "idx_order_history_menu_item", columnList = "menu_item_id"))
 public class OrderHistory {
 
     @Id
@@ -13,6 +14,10 @@ public class OrderHistory {
     private Long id;
 
     private String menuItemName;
+
+    // Referință la produs fără cheie străină: istoricul rămâne valid și după ștergerea produsului
+    @Column(name = "menu_item_id")
+    private Long menuItemId;
     private Double price;
     private Integer quantity;
     private LocalDateTime orderTime;
@@ -0,0 +1,30 @@
+package com.cafeteria.cafeteria_plugin.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Portions already booked in one pickup slot of one day. Written in batches from the in-memory
+ * counters of the slot ledger, never once per pre-order.
+ */
+@Data
+@Entity
+@Table(name = "pickup_slots", uniqueConstraints =
+        @UniqueConstraint(name = "uk_pickup_slots", columnNames = {"pickup_date", "slot_start"}))
+public class PickupSlot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "pickup_date", nullable = false)
+    private LocalDate pickupDate;
+
+    @Column(name = "slot_start", nullable = false)
+    private LocalTime slotStart;
+
+    private int reserved;
+}
@@ -0,0 +1,48 @@
+package com.cafeteria.cafeteria_plugin.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * One line of an order placed ahead for a later day and pickup slot. On the pickup day it is
+ * copied into {@link OrderHistory}, which is what invoices and reports read.
+ */
+@Data
+@Entity
+@Table(name = "pre_orders", indexes = @Index(name = "idx_pre_orders_pickup", columnList = "pickup_date, slot_start"))
+public class PreOrder {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "pickup_date", nullable = false)
+    private LocalDate pickupDate;
+
+    @Column(name = "slot_start", nullable = false)
+    private LocalTime slotStart;
+
+    @Column(name = "menu_item_id", nullable = false)
+    private Long menuItemId;
+
+    private String menuItemName;
+    private Double price;
+    private Integer quantity;
+    private LocalDateTime createdAt;
+
+    // Devine true când linia a fost copiată în istoricul comenzilor
+    @Column(nullable = false)
+    private boolean transferred;
+
+    @ManyToOne
+    @JoinColumn(name = "parent_id", nullable = false)
+    private Parent parent;
+
+    @ManyToOne
+    @JoinColumn(name = "student_id", nullable = false)
+    private Student student;
+}
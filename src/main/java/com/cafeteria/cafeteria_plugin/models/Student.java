@@ -30,4 +30,9 @@ public class Student extends User {
     @Column
     private String profileImage;
 
+    // Profilul de alergii ca biți din AllergenDictionary; null înseamnă fără alergii
+    @JsonIgnore
+    @Column(name = "allergy_mask")
+    private Long allergyMask;
+
 }
@@ -0,0 +1,29 @@
+package com.cafeteria.cafeteria_plugin.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Current balance of a parent's wallet, changed in the same transaction as every appended
+ * {@link WalletEntry}, so reading a balance is a single-row lookup.
+ */
+@Data
+@Entity
+@Table(name = "wallet_balances")
+public class WalletBalance {
+
+    @Id
+    @Column(name = "parent_id")
+    private Long parentId;
+
+    @Column(nullable = false)
+    private double balance;
+
+    @Column(name = "entry_count", nullable = false)
+    private long entryCount;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,46 @@
+package com.cafeteria.cafeteria_plugin.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Totals of one parent's wallet for one closed month, written once the month is over so that
+ * statements for past months do not add up their entries again.
+ */
+@Data
+@Entity
+@Table(name = "wallet_checkpoints", uniqueConstraints =
+        @UniqueConstraint(name = "uk_wallet_checkpoints", columnNames = {"parent_id", "period_start"}))
+public class WalletCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "parent_id", nullable = false)
+    private Long parentId;
+
+    // Prima zi a lunii
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Column(name = "opening_balance", nullable = false)
+    private double openingBalance;
+
+    @Column(nullable = false)
+    private double credits;
+
+    @Column(nullable = false)
+    private double debits;
+
+    @Column(name = "closing_balance", nullable = false)
+    private double closingBalance;
+
+    @Column(name = "entry_count", nullable = false)
+    private long entryCount;
+
+    @Column(name = "last_entry_id", nullable = false)
+    private long lastEntryId;
+}
@@ -0,0 +1,42 @@
+package com.cafeteria.cafeteria_plugin.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * One movement in a parent's prepaid wallet. Entries are only ever appended: a mistake is undone
+ * with a refund, never by editing or deleting a row.
+ */
+@Data
+@Entity
+@Table(name = "wallet_entries", indexes = @Index(name = "idx_wallet_entries_parent_time", columnList = "parent_id, created_at"))
+public class WalletEntry {
+
+    public enum Type { TOP_UP, CHARGE, REFUND }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "parent_id", nullable = false)
+    private Long parentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Type type;
+
+    // Pozitiv pentru alimentări și rambursări, negativ pentru plăți
+    @Column(nullable = false)
+    private double amount;
+
+    // Soldul imediat după această intrare
+    @Column(name = "balance_after", nullable = false)
+    private double balanceAfter;
+
+    private String description;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,7 @@
+package com.cafeteria.cafeteria_plugin.repositories;
+
+import com.cafeteria.cafeteria_plugin.models.Allergen;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface AllergenRepository extends JpaRepository<Allergen, Integer> {
+}
@@ -0,0 +1,25 @@
+package com.cafeteria.cafeteria_plugin.repositories;
+
+import com.cafeteria.cafeteria_plugin.models.DailyItemSales;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+public interface DailyItemSalesRepository extends JpaRepository<DailyItemSales, Long> {
+
+    @Query("SELECT d.menuItemName as name, SUM(d.orderCount) as count " +
+            "FROM DailyItemSales d GROUP BY d.menuItemName ORDER BY count DESC LIMIT :limit")
+    List<Map<String, Object>> findMostOrderedItems(@Param("limit") int limit);
+
+    @Query("SELECT COALESCE(SUM(d.revenue), 0) FROM DailyItemSales d WHERE d.salesDay BETWEEN :start AND :end")
+    double sumRevenueBetween(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    @Query("SELECT d.salesDay as date, SUM(d.revenue) as total " +
+            "FROM DailyItemSales d WHERE d.salesDay BETWEEN :start AND :end " +
+            "GROUP BY d.salesDay ORDER BY d.salesDay")
+    List<Map<String, Object>> findDailySalesBetween(@Param("start") LocalDate start, @Param("end") LocalDate end);
+}
@@ -2,10 +2,15 @@ package com.cafeteria.cafeteria_plugin.repositories;
 
 import com.cafeteria.cafeteria_plugin.models.MenuItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface MenuItemRepository extends JpaRepository<MenuItem, Long> {
     Optional<MenuItem> findByName(String name);
-}
 
+    // Alergenii vin în același SELECT, nu câte o interogare pentru fiecare produs
+    @Query("SELECT DISTINCT m FROM MenuItem m LEFT JOIN FETCH m.allergens ORDER BY m.id")
+    List<MenuItem> findAllWithAllergens();
+}
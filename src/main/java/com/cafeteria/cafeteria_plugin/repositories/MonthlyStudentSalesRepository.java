@@ -0,0 +1,17 @@
+package com.cafeteria.cafeteria_plugin.repositories;
+
+import com.cafeteria.cafeteria_plugin.models.MonthlyStudentSales;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Map;
+
+public interface MonthlyStudentSalesRepository extends JpaRepository<MonthlyStudentSales, Long> {
+
+    @Query("SELECT s.name as name, SUM(m.orderCount) as orderCount " +
+            "FROM MonthlyStudentSales m, Student s WHERE s.id = m.studentId " +
+            "GROUP BY s.id, s.name ORDER BY orderCount DESC LIMIT :limit")
+    List<Map<String, Object>> findStudentsWithMostOrders(@Param("limit") int limit);
+}
@@ -0,0 +1,32 @@
+package com.cafeteria.cafeteria_plugin.repositories;
+
+import java.time.LocalDateTime;
+
+/**
+ * One order line with its parent and student, as read for the accounting export; no entity is
+ * loaded, so nothing accumulates in the persistence context while the rows stream.
+ */
+public interface OrderExportRow {
+
+    Long getId();
+
+    LocalDateTime getOrderTime();
+
+    Long getParentId();
+
+    String getParentUsername();
+
+    String getMotherName();
+
+    String getFatherName();
+
+    Long getStudentId();
+
+    String getStudentName();
+
+    String getMenuItemName();
+
+    Integer getQuantity();
+
+    Double getPrice();
+}
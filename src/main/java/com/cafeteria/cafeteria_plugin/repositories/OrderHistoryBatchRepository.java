@@ -0,0 +1,17 @@
+package com.cafeteria.cafeteria_plugin.repositories;
+
+import com.cafeteria.cafeteria_plugin.models.OrderHistory;
+
+import java.util.List;
+
+/**
+ * Bulk insert for order rows. {@code OrderHistory} uses IDENTITY ids, which stops Hibernate from
+ * batching inserts, so a multi-line order would otherwise cost one round-trip per row.
+ */
+public interface OrderHistoryBatchRepository {
+
+    /**
+     * Inserts all rows in one JDBC batch within the current transaction and sets their generated ids.
+     */
+    void insertAll(List<OrderHistory> orders);
+}
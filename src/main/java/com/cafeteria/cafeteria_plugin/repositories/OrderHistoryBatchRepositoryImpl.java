@@ -0,0 +1,56 @@
+package com.cafeteria.cafeteria_plugin.repositories;
+
+import com.cafeteria.cafeteria_plugin.models.OrderHistory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Iterator;
+import java.util.List;
+
+public class OrderHistoryBatchRepositoryImpl implements OrderHistoryBatchRepository {
+
+    private static final String INSERT_ORDER =
+            "INSERT INTO order_history (menu_item_name, menu_item_id, price, quantity, order_time, parent_id, student_id) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderHistoryBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAll(List<OrderHistory> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        // Conexiunea tranzacției curente; id-urile generate se citesc înapoi în ordinea lotului
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_ORDER, Statement.RETURN_GENERATED_KEYS)) {
+                for (OrderHistory order : orders) {
+                    ps.setString(1, order.getMenuItemName());
+                    ps.setObject(2, order.getMenuItemId(), Types.BIGINT);
+                    ps.setDouble(3, order.getPrice());
+                    ps.setInt(4, order.getQuantity());
+                    ps.setTimestamp(5, Timestamp.valueOf(order.getOrderTime()));
+                    ps.setLong(6, order.getParent().getId());
+                    ps.setLong(7, order.getStudent().getId());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    Iterator<OrderHistory> it = orders.iterator();
+                    while (it.hasNext() && keys.next()) {
+                        it.next().setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+}
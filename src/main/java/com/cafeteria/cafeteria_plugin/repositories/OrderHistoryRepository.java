@@ -3,34 +3,38 @@ package com.cafeteria.cafeteria_plugin.repositories;
 import com.cafeteria.cafeteria_plugin.models.OrderHistory;
 import com.cafeteria.cafeteria_plugin.models.Parent;
 import com.cafeteria.cafeteria_plugin.models.Student;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
+import java.util.stream.Stream;
 
-public interface OrderHistoryRepository extends JpaRepository<OrderHistory, Long> {
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface OrderHistoryRepository extends JpaRepository<OrderHistory, Long>, OrderHistoryBatchRepository {
 
     List<OrderHistory> findAllByParentAndOrderTimeBetween(Parent parent, LocalDateTime start, LocalDateTime end);
 
     List<OrderHistory> findAllByStudentAndOrderTimeBetween(Student student, LocalDateTime start, LocalDateTime end);
 
-    @Query("SELECT oh.menuItemName as name, COUNT(oh) as count " +
-            "FROM OrderHistory oh GROUP BY oh.menuItemName ORDER BY count DESC LIMIT :limit")
-    List<Map<String, Object>> findMostOrderedItems(@Param("limit") int limit);
-
-    @Query("SELECT SUM(oh.price) FROM OrderHistory oh WHERE oh.orderTime BETWEEN :start AND :end")
-    double sumOrderPricesBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
-
-    @Query("SELECT FUNCTION('DATE', oh.orderTime) as date, SUM(oh.price) as total " +
-            "FROM OrderHistory oh WHERE oh.orderTime BETWEEN :start AND :end " +
-            "GROUP BY FUNCTION('DATE', oh.orderTime) ORDER BY date")
-    List<Map<String, Object>> findDailySalesBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
-
-    @Query("SELECT s.name as name, COUNT(oh) as orderCount " +
-            "FROM OrderHistory oh JOIN oh.student s " +
-            "GROUP BY s.id ORDER BY orderCount DESC LIMIT :limit")
-    List<Map<String, Object>> findStudentsWithMostOrders(@Param("limit") int limit);
+    // O singură agregare peste tabela de alergeni; fiecare linie de comandă contează o dată per alergen
+    @Query(value = "SELECT a.allergens AS allergen, COUNT(*) AS orderCount " +
+            "FROM order_history oh JOIN menu_item_allergens a ON a.menu_item_id = oh.menu_item_id " +
+            "GROUP BY a.allergens", nativeQuery = true)
+    List<Object[]> countOrdersByAllergen();
+
+    // Cursor doar-înainte pentru export: rândurile se citesc în loturi de câte 1000, nu toate odată.
+    // Trebuie consumat într-o tranzacție read-only și închis la final
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT o.id AS id, o.orderTime AS orderTime, p.id AS parentId, p.username AS parentUsername, " +
+            "p.motherName AS motherName, p.fatherName AS fatherName, s.id AS studentId, s.name AS studentName, " +
+            "o.menuItemName AS menuItemName, o.quantity AS quantity, o.price AS price " +
+            "FROM OrderHistory o JOIN o.parent p JOIN o.student s " +
+            "WHERE o.orderTime >= :from AND o.orderTime < :to ORDER BY o.orderTime, o.id")
+    Stream<OrderExportRow> streamForExport(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
@@ -0,0 +1,36 @@
+package com.cafeteria.cafeteria_plugin.repositories;
+
+import com.cafeteria.cafeteria_plugin.models.PreOrder;
+import com.cafeteria.cafeteria_plugin.models.Student;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface PreOrderRepository extends JpaRepository<PreOrder, Long> {
+
+    List<PreOrder> findAllByStudentAndPickupDateGreaterThanEqualOrderByPickupDateAscSlotStartAsc(Student student, LocalDate from);
+
+    // Fișa de preparare: cantitatea totală pe slot și produs, într-o singură interogare
+    @Query("SELECT p.slotStart, p.menuItemId, p.menuItemName, SUM(p.quantity) FROM PreOrder p " +
+            "WHERE p.pickupDate = :date " +
+            "GROUP BY p.slotStart, p.menuItemId, p.menuItemName ORDER BY p.slotStart, p.menuItemName")
+    List<Object[]> sumQuantitiesBySlotAndItem(@Param("date") LocalDate date);
+
+    // Porțiile rezervate pe fiecare slot începând cu o zi; sursa contoarelor la pornire
+    @Query("SELECT p.pickupDate, p.slotStart, SUM(p.quantity) FROM PreOrder p " +
+            "WHERE p.pickupDate >= :from GROUP BY p.pickupDate, p.slotStart")
+    List<Object[]> sumQuantitiesBySlotFrom(@Param("from") LocalDate from);
+
+    @Query("SELECT p FROM PreOrder p JOIN FETCH p.parent JOIN FETCH p.student " +
+            "WHERE p.pickupDate <= :date AND p.transferred = false ORDER BY p.id")
+    List<PreOrder> findDueForTransfer(@Param("date") LocalDate date);
+
+    @Modifying
+    @Query("UPDATE PreOrder p SET p.transferred = true WHERE p.id IN :ids")
+    int markTransferred(@Param("ids") Collection<Long> ids);
+}
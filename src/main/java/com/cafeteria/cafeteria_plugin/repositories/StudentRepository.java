@@ -27,4 +27,9 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
     Student findByUsername(String username);
 
     List<Student> findByStudentClassId(Long id);
+
+    // Doar masca de alergii; restul entității (parola, clasa) nu se rescrie
+    @Modifying
+    @Query("UPDATE Student s SET s.allergyMask = :mask WHERE s.id = :id")
+    int updateAllergyMask(@Param("id") Long id, @Param("mask") Long mask);
 }
@@ -0,0 +1,17 @@
+package com.cafeteria.cafeteria_plugin.repositories;
+
+import com.cafeteria.cafeteria_plugin.models.User;
+
+/**
+ * The columns of {@code users} needed to authenticate, read without loading the polymorphic {@link User} entity.
+ */
+public interface UserCredentials {
+
+    Long getId();
+
+    String getUsername();
+
+    String getPassword();
+
+    User.UserType getUserType();
+}
@@ -2,7 +2,11 @@ package com.cafeteria.cafeteria_plugin.repositories;
 
 import com.cafeteria.cafeteria_plugin.models.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -10,10 +14,20 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
 
+    // Doar tabela `users`: findByUsername face outer join cu toate cele cinci tabele ale subclaselor
+    @Query(value = "SELECT id, username, password, user_type AS userType FROM users WHERE username = :username",
+            nativeQuery = true)
+    Optional<UserCredentials> findCredentialsByUsername(@Param("username") String username);
+
     Optional<Object> findByEmail(String email);
 
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
 }
 
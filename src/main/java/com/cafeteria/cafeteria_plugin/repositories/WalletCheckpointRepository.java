@@ -0,0 +1,14 @@
+package com.cafeteria.cafeteria_plugin.repositories;
+
+import com.cafeteria.cafeteria_plugin.models.WalletCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+public interface WalletCheckpointRepository extends JpaRepository<WalletCheckpoint, Long> {
+
+    // Cel mai recent checkpoint al părintelui până la perioada cerută, inclusiv
+    Optional<WalletCheckpoint> findFirstByParentIdAndPeriodStartLessThanEqualOrderByPeriodStartDesc(
+            Long parentId, LocalDate periodStart);
+}
@@ -0,0 +1,21 @@
+package com.cafeteria.cafeteria_plugin.repositories;
+
+import com.cafeteria.cafeteria_plugin.models.WalletEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface WalletEntryRepository extends JpaRepository<WalletEntry, Long> {
+
+    List<WalletEntry> findAllByParentIdAndCreatedAtGreaterThanEqualAndCreatedAtLessThanOrderByIdAsc(
+            Long parentId, LocalDateTime from, LocalDateTime to);
+
+    // Intrările scrise după un checkpoint, până la sfârșitul perioadei cerute
+    List<WalletEntry> findAllByParentIdAndIdGreaterThanAndCreatedAtLessThanOrderByIdAsc(
+            Long parentId, Long afterId, LocalDateTime to);
+
+    // Soldul de deschidere al unei perioade: ultima intrare dinainte, găsită prin index
+    Optional<WalletEntry> findFirstByParentIdAndCreatedAtLessThanOrderByCreatedAtDescIdDesc(Long parentId, LocalDateTime before);
+}
@@ -0,0 +1,72 @@
+package com.cafeteria.cafeteria_plugin.security;
+
+import com.cafeteria.cafeteria_plugin.repositories.UserCredentials;
+import com.cafeteria.cafeteria_plugin.repositories.UserRepository;
+import com.cafeteria.cafeteria_plugin.util.BoundedExpiringCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read path for authentication: {@link UserRepository#findCredentialsByUsername} on the {@code users}
+ * table only, behind a small short-lived cache. An entry is ignored once the user has been revoked
+ * in {@link TokenRevocationRegistry} after it was cached (deletion, forced sign-out), and password
+ * changes call {@link #evict}.
+ */
+@Component
+public class AuthUserLookup {
+
+    private final UserRepository userRepository;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+    private final BoundedExpiringCache<String, CachedCredentials> cache;
+    private final long ttlMillis;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public AuthUserLookup(UserRepository userRepository,
+                          TokenRevocationRegistry tokenRevocationRegistry,
+                          @Value("${security.auth-cache.size:1000}") int size,
+                          @Value("${security.auth-cache.ttl-seconds:60}") int ttlSeconds) {
+        this.userRepository = userRepository;
+        this.tokenRevocationRegistry = tokenRevocationRegistry;
+        this.cache = new BoundedExpiringCache<>(size);
+        this.ttlMillis = ttlSeconds * 1000L;
+    }
+
+    public Optional<UserCredentials> findByUsername(String username) {
+        CachedCredentials cached = cache.get(username);
+        if (cached != null && !tokenRevocationRegistry.isRevoked(cached.credentials().getId(), cached.cachedAtMillis())) {
+            hits.increment();
+            return Optional.of(cached.credentials());
+        }
+
+        misses.increment();
+        long now = System.currentTimeMillis();
+        Optional<UserCredentials> credentials = userRepository.findCredentialsByUsername(username);
+        credentials.ifPresent(c -> cache.put(username, new CachedCredentials(c, now), now + ttlMillis));
+        return credentials;
+    }
+
+    public void evict(String username) {
+        if (username != null) {
+            cache.remove(username);
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("size", cache.size());
+        metrics.put("capacity", cache.maxSize());
+        metrics.put("hits", hits.sum());
+        metrics.put("misses", misses.sum());
+        return metrics;
+    }
+
+    private record CachedCredentials(UserCredentials credentials, long cachedAtMillis) {
+    }
+}
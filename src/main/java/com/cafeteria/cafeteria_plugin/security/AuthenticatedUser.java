@@ -0,0 +1,64 @@
+package com.cafeteria.cafeteria_plugin.security;
+
+import com.cafeteria.cafeteria_plugin.models.User.UserType;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal built straight from verified token claims, used when
+ * {@code security.jwt.stateless-auth} is enabled so that authentication needs no database lookup.
+ */
+@Getter
+public class AuthenticatedUser implements UserDetails {
+
+    private final Long id;
+    private final String username;
+    private final UserType userType;
+    private final List<GrantedAuthority> authorities;
+
+    public AuthenticatedUser(Long id, String username, UserType userType) {
+        this.id = id;
+        this.username = username;
+        this.userType = userType;
+        this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + userType.name()));
+    }
+
+    static AuthenticatedUser from(JwtClaims claims) {
+        return new AuthenticatedUser(claims.getUserId(), claims.getUsername(), claims.getUserType());
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
@@ -0,0 +1,64 @@
+package com.cafeteria.cafeteria_plugin.security;
+
+import com.cafeteria.cafeteria_plugin.repositories.UserCredentials;
+import com.cafeteria.cafeteria_plugin.repositories.UserRepository;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Verifies login credentials on the {@link PasswordHashingExecutor}. Only the credential columns are
+ * read, through {@link AuthUserLookup}, and hashes created with an older BCrypt cost are transparently re-encoded with the current one.
+ * An unknown username is still checked against a dummy hash of the current cost, so the response time
+ * does not reveal which usernames exist.
+ */
+@Service
+public class CredentialVerificationService {
+
+    private final UserRepository userRepository;
+    private final AuthUserLookup authUserLookup;
+    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final String dummyHash;
+
+    public CredentialVerificationService(UserRepository userRepository,
+                                         AuthUserLookup authUserLookup,
+                                         PasswordEncoder passwordEncoder,
+                                         PasswordHashingExecutor passwordHashingExecutor) {
+        this.userRepository = userRepository;
+        this.authUserLookup = authUserLookup;
+        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.dummyHash = passwordEncoder.encode(UUID.randomUUID().toString());
+    }
+
+    /**
+     * Completes with the authenticated user, or with an empty optional when the credentials are wrong.
+     *
+     * @throws RejectedExecutionException if the hashing pool is saturated
+     */
+    public CompletableFuture<Optional<UserCredentials>> verify(String username, String rawPassword) {
+        return passwordHashingExecutor.submit(() -> {
+            Optional<UserCredentials> user = authUserLookup.findByUsername(username);
+            if (user.isEmpty()) {
+                // Același cost BCrypt ca pentru un utilizator existent, ca timpul să nu trădeze username-ul
+                passwordEncoder.matches(rawPassword, dummyHash);
+                return Optional.empty();
+            }
+            if (!passwordEncoder.matches(rawPassword, user.get().getPassword())) {
+                return Optional.empty();
+            }
+
+            String storedHash = user.get().getPassword();
+            if (passwordEncoder.upgradeEncoding(storedHash)) {
+                userRepository.updatePassword(user.get().getId(), passwordEncoder.encode(rawPassword));
+                authUserLookup.evict(username);
+            }
+            return user;
+        });
+    }
+}
@@ -0,0 +1,15 @@
+package com.cafeteria.cafeteria_plugin.security;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Injects the {@code Student} linked to the authenticated parent, or {@code null} when there is none.
+ * The lookup is memoized per request, see {@link CurrentUserContext}.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CurrentChild {
+}
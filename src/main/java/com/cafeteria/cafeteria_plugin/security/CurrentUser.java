@@ -0,0 +1,17 @@
+package com.cafeteria.cafeteria_plugin.security;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Injects the authenticated user's entity into a controller method parameter.
+ * Supported parameter types are {@code Parent}, {@code Student}, {@code Teacher} and {@code Chef};
+ * the argument is {@code null} when the caller is not a user of that type.
+ * The entity is loaded at most once per request, see {@link CurrentUserContext}.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CurrentUser {
+}
@@ -0,0 +1,61 @@
+package com.cafeteria.cafeteria_plugin.security;
+
+import com.cafeteria.cafeteria_plugin.models.Chef;
+import com.cafeteria.cafeteria_plugin.models.Parent;
+import com.cafeteria.cafeteria_plugin.models.Student;
+import com.cafeteria.cafeteria_plugin.models.Teacher;
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resolves {@link CurrentUser} and {@link CurrentChild} controller parameters from the
+ * request-scoped {@link CurrentUserContext}.
+ */
+@Component
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final CurrentUserContext currentUserContext;
+
+    public CurrentUserArgumentResolver(CurrentUserContext currentUserContext) {
+        this.currentUserContext = currentUserContext;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentUser.class)
+                || parameter.hasParameterAnnotation(CurrentChild.class);
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter,
+                                  ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest,
+                                  WebDataBinderFactory binderFactory) {
+        Class<?> type = parameter.getParameterType();
+
+        if (parameter.hasParameterAnnotation(CurrentChild.class)) {
+            if (type != Student.class) {
+                throw new IllegalStateException("@CurrentChild is only supported on Student parameters");
+            }
+            return currentUserContext.getChild();
+        }
+
+        if (type == Parent.class) {
+            return currentUserContext.getParent();
+        }
+        if (type == Student.class) {
+            return currentUserContext.getStudent();
+        }
+        if (type == Teacher.class) {
+            return currentUserContext.getTeacher();
+        }
+        if (type == Chef.class) {
+            return currentUserContext.getChef();
+        }
+        throw new IllegalStateException("@CurrentUser is not supported on " + type.getSimpleName() + " parameters");
+    }
+}
@@ -0,0 +1,118 @@
+package com.cafeteria.cafeteria_plugin.security;
+
+import com.cafeteria.cafeteria_plugin.models.Chef;
+import com.cafeteria.cafeteria_plugin.models.Parent;
+import com.cafeteria.cafeteria_plugin.models.Student;
+import com.cafeteria.cafeteria_plugin.models.Teacher;
+import com.cafeteria.cafeteria_plugin.models.User.UserType;
+import com.cafeteria.cafeteria_plugin.repositories.ChefRepository;
+import com.cafeteria.cafeteria_plugin.repositories.ParentRepository;
+import com.cafeteria.cafeteria_plugin.repositories.StudentRepository;
+import com.cafeteria.cafeteria_plugin.repositories.TeacherRepository;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Request-scoped memo of the authenticated user's entities. Each lookup hits the database
+ * at most once per request; when the principal already carries the user id (stateless mode),
+ * entities are loaded by primary key from their own table instead of by username.
+ */
+@Component
+@RequestScope
+public class CurrentUserContext {
+
+    private final ParentRepository parentRepository;
+    private final StudentRepository studentRepository;
+    private final TeacherRepository teacherRepository;
+    private final ChefRepository chefRepository;
+
+    private Optional<Parent> parent;
+    private Optional<Student> student;
+    private Optional<Teacher> teacher;
+    private Optional<Chef> chef;
+    private Optional<Student> child;
+
+    public CurrentUserContext(ParentRepository parentRepository,
+                              StudentRepository studentRepository,
+                              TeacherRepository teacherRepository,
+                              ChefRepository chefRepository) {
+        this.parentRepository = parentRepository;
+        this.studentRepository = studentRepository;
+        this.teacherRepository = teacherRepository;
+        this.chefRepository = chefRepository;
+    }
+
+    public Parent getParent() {
+        if (parent == null) {
+            parent = load(UserType.PARENT, parentRepository::findById,
+                    username -> Optional.ofNullable(parentRepository.findByUsername(username)));
+        }
+        return parent.orElse(null);
+    }
+
+    public Student getStudent() {
+        if (student == null) {
+            student = load(UserType.STUDENT, studentRepository::findById,
+                    username -> Optional.ofNullable(studentRepository.findByUsername(username)));
+        }
+        return student.orElse(null);
+    }
+
+    public Teacher getTeacher() {
+        if (teacher == null) {
+            teacher = load(UserType.TEACHER, teacherRepository::findById,
+                    username -> Optional.ofNullable(teacherRepository.findByUsername(username)));
+        }
+        return teacher.orElse(null);
+    }
+
+    public Chef getChef() {
+        if (chef == null) {
+            chef = load(UserType.CHEF, chefRepository::findById, chefRepository::findByUsername);
+        }
+        return chef.orElse(null);
+    }
+
+    /**
+     * The student linked to the authenticated parent. In stateless mode the parent id comes from
+     * the token, so the child is found without loading the parent at all.
+     */
+    public Student getChild() {
+        if (child == null) {
+            Long parentId = principalId(UserType.PARENT);
+            if (parentId == null) {
+                Parent p = getParent();
+                parentId = p != null ? p.getId() : null;
+            }
+            child = parentId != null ? studentRepository.findByParentId(parentId) : Optional.empty();
+        }
+        return child.orElse(null);
+    }
+
+    private <T> Optional<T> load(UserType type,
+                                 Function<Long, Optional<T>> byId,
+                                 Function<String, Optional<T>> byUsername) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return Optional.empty();
+        }
+        if (authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.getUserType() == type ? byId.apply(user.getId()) : Optional.empty();
+        }
+        return byUsername.apply(authentication.getName());
+    }
+
+    private Long principalId(UserType type) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user
+                && user.getUserType() == type) {
+            return user.getId();
+        }
+        return null;
+    }
+}
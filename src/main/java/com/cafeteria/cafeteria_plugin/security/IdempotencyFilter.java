@@ -0,0 +1,291 @@
+package com.cafeteria.cafeteria_plugin.security;
+
+import com.cafeteria.cafeteria_plugin.util.BoundedExpiringCache;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Makes purchase requests that carry an {@code Idempotency-Key} header safe to retry. The first
+ * request with a key runs normally and its response is kept for a while; retries with the same key
+ * from the same user are answered from memory, and a retry that arrives while the first is still
+ * running waits for that result instead of running the purchase again. Keys are scoped per user
+ * and bound to the method, path, query and a SHA-256 hash of the body of the first request, so a key
+ * reused for a different cart is rejected with 422 instead of replaying the wrong order.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private static final RequestMatcher PURCHASES = new OrRequestMatcher(
+            AntPathRequestMatcher.antMatcher(HttpMethod.POST, "/menu/me/purchase/**"),
+            AntPathRequestMatcher.antMatcher(HttpMethod.POST, "/menu/me/checkout"),
+            AntPathRequestMatcher.antMatcher(HttpMethod.POST, "/menu/*/purchase"),
+            AntPathRequestMatcher.antMatcher(HttpMethod.POST, "/preorders/me"));
+
+    private final BoundedExpiringCache<String, Execution> executions;
+    private final long ttlMillis;
+    private final long waitMillis;
+
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+
+    public IdempotencyFilter(@Value("${security.idempotency.max-keys:10000}") int maxKeys,
+                             @Value("${security.idempotency.ttl-seconds:86400}") int ttlSeconds,
+                             @Value("${security.idempotency.wait-ms:10000}") long waitMillis) {
+        this.executions = new BoundedExpiringCache<>(maxKeys);
+        this.ttlMillis = ttlSeconds * 1000L;
+        this.waitMillis = waitMillis;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getHeader(HEADER) == null || !PURCHASES.matches(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        String key = request.getHeader(HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Idempotency-Key invalid");
+            return;
+        }
+
+        // Corpul se citește o singură dată, pentru hash, și este redat apoi controller-ului
+        byte[] body = bodyOf(request);
+        if (body.length > MAX_BODY_BYTES) {
+            writeError(response, HttpStatus.PAYLOAD_TOO_LARGE, "Corpul cererii este prea mare");
+            return;
+        }
+        HttpServletRequest replayable = isForm(request) ? request : new CachedBodyRequest(request, body);
+
+        String storeKey = ownerOf(request) + '|' + key;
+        Execution mine = new Execution(fingerprintOf(request, body));
+        Execution existing = executions.putIfAbsent(storeKey, mine, System.currentTimeMillis() + ttlMillis);
+        if (existing != null) {
+            replay(existing, mine.fingerprint(), response);
+            return;
+        }
+
+        executed.increment();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(replayable, wrapper);
+        } catch (IOException | ServletException | RuntimeException e) {
+            executions.remove(storeKey, mine);
+            mine.result().completeExceptionally(e);
+            throw e;
+        }
+
+        int status = wrapper.getStatus();
+        StoredResponse stored = new StoredResponse(status, wrapper.getContentType(), wrapper.getContentAsByteArray());
+        if (status >= 500) {
+            // Erorile de server nu se memorează: clientul trebuie să poată reîncerca
+            executions.remove(storeKey, mine);
+        }
+        mine.result().complete(stored);
+        wrapper.copyBodyToResponse();
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("storedKeys", executions.size());
+        metrics.put("capacity", executions.maxSize());
+        metrics.put("executed", executed.sum());
+        metrics.put("replayed", replayed.sum());
+        metrics.put("conflicts", conflicts.sum());
+        return metrics;
+    }
+
+    private void replay(Execution existing, String fingerprint, HttpServletResponse response) throws IOException {
+        if (!existing.fingerprint().equals(fingerprint)) {
+            conflicts.increment();
+            writeError(response, HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key folosit pentru o altă cerere");
+            return;
+        }
+
+        StoredResponse stored;
+        try {
+            stored = existing.result().get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            conflicts.increment();
+            writeError(response, HttpStatus.CONFLICT, "Cererea cu acest Idempotency-Key este încă în curs");
+            return;
+        } catch (ExecutionException e) {
+            conflicts.increment();
+            writeError(response, HttpStatus.CONFLICT, "Cererea originală a eșuat, reîncercați");
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writeError(response, HttpStatus.SERVICE_UNAVAILABLE, "Cerere întreruptă");
+            return;
+        }
+
+        replayed.increment();
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private static String ownerOf(HttpServletRequest request) {
+        Object claims = request.getAttribute(JwtClaims.REQUEST_ATTRIBUTE);
+        if (claims instanceof JwtClaims jwtClaims && jwtClaims.getUsername() != null) {
+            return "user:" + jwtClaims.getUsername();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static String fingerprintOf(HttpServletRequest request, byte[] body) {
+        String query = request.getQueryString();
+        return request.getMethod() + ' ' + request.getRequestURI() + (query == null ? "" : '?' + query)
+                + ' ' + sha256(body);
+    }
+
+    /**
+     * The raw body, at most {@value #MAX_BODY_BYTES} + 1 bytes. A form body is left to the container,
+     * which parses it into parameters; its fingerprint is built from the sorted parameters instead.
+     */
+    private static byte[] bodyOf(HttpServletRequest request) throws IOException {
+        if (isForm(request)) {
+            Map<String, String> parameters = new TreeMap<>();
+            request.getParameterMap().forEach((name, values) -> parameters.put(name, Arrays.toString(values)));
+            return parameters.toString().getBytes(StandardCharsets.UTF_8);
+        }
+        return request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+    }
+
+    private static boolean isForm(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.startsWith(MediaType.APPLICATION_FORM_URLENCODED_VALUE);
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("{\"message\":\"" + message + "\"}");
+    }
+
+    private record Execution(String fingerprint, CompletableFuture<StoredResponse> result) {
+        Execution(String fingerprint) {
+            this(fingerprint, new CompletableFuture<>());
+        }
+    }
+
+    private record StoredResponse(int status, String contentType, byte[] body) {
+    }
+
+    /**
+     * Serves a body that the filter already read.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
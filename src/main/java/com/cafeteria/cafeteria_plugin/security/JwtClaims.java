@@ -0,0 +1,61 @@
+package com.cafeteria.cafeteria_plugin.security;
+
+import com.cafeteria.cafeteria_plugin.models.User.UserType;
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+
+import java.util.Date;
+
+/**
+ * Verified, immutable view of a JWT's claims. Parsed once per token by {@link JwtUtil}
+ * and attached to the current request by {@link JwtFilter}.
+ */
+@Getter
+public final class JwtClaims {
+
+    public static final String REQUEST_ATTRIBUTE = JwtClaims.class.getName();
+    static final String ISSUED_AT_MILLIS = "iatMs";
+
+    private final String tokenId;
+    private final Long userId;
+    private final String username;
+    private final UserType userType;
+    private final Date issuedAt;
+    private final Long issuedAtMillis;
+    private final Date expiration;
+
+    JwtClaims(String tokenId, Long userId, String username, UserType userType, Date issuedAt, Long issuedAtMillis,
+              Date expiration) {
+        this.tokenId = tokenId;
+        this.userId = userId;
+        this.username = username;
+        this.userType = userType;
+        this.issuedAt = issuedAt;
+        this.issuedAtMillis = issuedAtMillis;
+        this.expiration = expiration;
+    }
+
+    static JwtClaims from(Claims claims) {
+        String userTypeName = claims.get("userType", String.class);
+        Number userId = claims.get("uid", Number.class);
+        Number issuedAtMillis = claims.get(ISSUED_AT_MILLIS, Number.class);
+        Date issuedAt = claims.getIssuedAt();
+        if (issuedAtMillis == null && issuedAt != null) {
+            // Tokenurile mai vechi au doar `iat` în secunde; le considerăm emise la sfârșitul acelei secunde
+            issuedAtMillis = issuedAt.getTime() + 999;
+        }
+        return new JwtClaims(
+                claims.getId(),
+                userId != null ? userId.longValue() : null,
+                claims.getSubject(),
+                userTypeName != null ? UserType.valueOf(userTypeName) : null,
+                issuedAt,
+                issuedAtMillis != null ? issuedAtMillis.longValue() : null,
+                claims.getExpiration()
+        );
+    }
+
+    public boolean isExpired() {
+        return expiration.before(new Date());
+    }
+}
@@ -1,14 +1,19 @@
 package com.cafeteria.cafeteria_plugin.security;
 
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -18,12 +23,22 @@ import java.io.IOException;
 @Component
 public class JwtFilter extends OncePerRequestFilter {
 
+    // `logger` din GenericFilterBean este commons-logging, fără parametri {}
+    private static final Logger log = LoggerFactory.getLogger(JwtFilter.class);
+
     @Autowired
     private JwtUtil jwtUtil;
 
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    // Când e activ, principalul se construiește direct din claims, fără interogare în DB
+    @Value("${security.jwt.stateless-auth:false}")
+    private boolean statelessAuth;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws ServletException, IOException {
@@ -31,8 +46,8 @@ public class JwtFilter extends OncePerRequestFilter {
         String requestURI = request.getRequestURI();
         String authHeader = request.getHeader("Authorization");
 
-        System.out.println("📌 Incoming Request: " + requestURI);
-        System.out.println("🔍 Authorization Header: " + authHeader);
+        // Headerul Authorization nu se loghează; categoria este eșantionată în logback-spring.xml
+        log.debug("Incoming request: {} {}", request.getMethod(), requestURI);
 
         // Only these specific endpoints should bypass authentication
         if (requestURI.equals("/auth/login")
@@ -48,12 +63,26 @@ public class JwtFilter extends OncePerRequestFilter {
         // Continue with token validation for all other endpoints
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
-            String username = jwtUtil.extractUsername(token);
 
+            JwtClaims claims;
+            try {
+                // Semnătura se verifică o singură dată per token; apelurile ulterioare vin din cache
+                claims = jwtUtil.parseClaims(token);
+            } catch (JwtException | IllegalArgumentException e) {
+                chain.doFilter(request, response);
+                return;
+            }
+            if (tokenRevocationRegistry.isRevoked(claims)) {
+                chain.doFilter(request, response);
+                return;
+            }
+            request.setAttribute(JwtClaims.REQUEST_ATTRIBUTE, claims);
+
+            String username = claims.getUsername();
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                UserDetails userDetails = resolveUserDetails(claims);
 
-                if (jwtUtil.isTokenValid(token, userDetails.getUsername())) {
+                if (userDetails != null) {
                     UsernamePasswordAuthenticationToken authenticationToken =
                             new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
 
@@ -67,4 +96,16 @@ public class JwtFilter extends OncePerRequestFilter {
         chain.doFilter(request, response);
     }
 
+    private UserDetails resolveUserDetails(JwtClaims claims) {
+        // Tokenurile emise înainte de modul stateless nu au `uid`, deci cad pe varianta cu DB
+        if (statelessAuth && claims.getUserId() != null && claims.getUserType() != null) {
+            return AuthenticatedUser.from(claims);
+        }
+        try {
+            return userDetailsService.loadUserByUsername(claims.getUsername());
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+    }
+
 }
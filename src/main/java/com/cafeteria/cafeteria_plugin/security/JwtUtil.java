@@ -1,48 +1,98 @@
 package com.cafeteria.cafeteria_plugin.security;
 
 import com.cafeteria.cafeteria_plugin.models.User.UserType;
+import com.cafeteria.cafeteria_plugin.util.BoundedExpiringCache;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
 
     private static final String SECRET_KEY = "MySuperSecretKeyForJwtMySuperSecretKeyForJwt"; // Min 32 caractere
-    private static final long EXPIRATION_TIME = 1000 * 60 * 60; // 1 oră
+    static final long EXPIRATION_TIME = 1000 * 60 * 60; // 1 oră
 
     private final Key key = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
 
-    public String generateToken(String username, UserType userType) {
+    // Parserul este imutabil și thread-safe, îl construim o singură dată
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(key).build();
+
+    // Claims deja verificate, indexate după digest-ul tokenului
+    private final BoundedExpiringCache<String, JwtClaims> claimsCache;
+
+    public JwtUtil(@Value("${security.jwt.claims-cache-size:10000}") int claimsCacheSize) {
+        this.claimsCache = new BoundedExpiringCache<>(claimsCacheSize);
+    }
+
+    public String generateToken(Long userId, String username, UserType userType) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString()) // ✅ `jti` permite revocarea unui singur token (logout)
                 .setSubject(username)
+                .claim("uid", userId) // ✅ ID-ul permite autentificarea fără interogare în DB
                 .claim("userType", userType.name()) // ✅ Adăugăm `UserType` în token
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
+                .claim(JwtClaims.ISSUED_AT_MILLIS, now) // ✅ `iat` are doar secunde; revocarea compară în milisecunde
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + EXPIRATION_TIME))
                 .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Returns the verified claims of a token. The signature is checked only the first time a
+     * token is seen; afterwards the claims are served from a bounded cache until the token expires.
+     *
+     * @throws JwtException if the token is malformed, tampered with or expired
+     */
+    public JwtClaims parseClaims(String token) {
+        String digest = digest(token);
+        JwtClaims cached = claimsCache.get(digest);
+        if (cached != null) {
+            return cached;
+        }
+
+        JwtClaims claims = JwtClaims.from(parser.parseClaimsJws(token).getBody());
+        claimsCache.put(digest, claims, claims.getExpiration().getTime());
+        return claims;
+    }
+
+    /**
+     * Returns the claims {@link JwtFilter} attached to the request, or {@code null} for anonymous requests.
+     */
+    public JwtClaims getRequestClaims(HttpServletRequest request) {
+        return (JwtClaims) request.getAttribute(JwtClaims.REQUEST_ATTRIBUTE);
+    }
+
     public String extractUsername(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build()
-                .parseClaimsJws(token).getBody().getSubject();
+        return parseClaims(token).getUsername();
     }
 
     public UserType extractUserType(String token) {
-        String userTypeName = Jwts.parserBuilder().setSigningKey(key).build()
-                .parseClaimsJws(token).getBody().get("userType", String.class);
-        return UserType.valueOf(userTypeName); // ✅ Convertim String în `UserType`
+        return parseClaims(token).getUserType();
     }
 
     public boolean isTokenValid(String token, String username) {
-        return username.equals(extractUsername(token)) && !isTokenExpired(token);
+        JwtClaims claims = parseClaims(token);
+        return username.equals(claims.getUsername()) && !claims.isExpired();
     }
 
-    private boolean isTokenExpired(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build()
-                .parseClaimsJws(token).getBody().getExpiration().before(new Date());
+    static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
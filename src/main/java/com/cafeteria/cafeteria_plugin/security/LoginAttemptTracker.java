@@ -0,0 +1,257 @@
+package com.cafeteria.cafeteria_plugin.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Sliding-window count of failed logins per username and per source address. Each key owns a small
+ * ring of time buckets, so memory per key is fixed regardless of how many attempts it makes. Once a
+ * key reaches its threshold, further attempts are refused for a delay that doubles with every extra
+ * failure, before the user is loaded or the password encoder is touched.
+ * <p>
+ * An address counts distinct usernames that failed from it, not attempts, so it only trips on
+ * password spraying; every successful login from the address takes one failure back off. A school
+ * behind one NAT address, where most logins succeed, therefore never reaches its threshold through
+ * ordinary typos.
+ */
+@Component
+public class LoginAttemptTracker {
+
+    private static final int MAX_LISTED_LOCKOUTS = 100;
+
+    private final Map<String, FailureWindow> windows = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean(false);
+    private final LongSupplier clock;
+
+    private final int usernameThreshold;
+    private final int addressThreshold;
+    private final int bucketCount;
+    private final long bucketMillis;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final int maxKeys;
+
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder blockedAttempts = new LongAdder();
+
+    @Autowired
+    public LoginAttemptTracker(
+            @Value("${security.login.username-failure-threshold:5}") int usernameThreshold,
+            @Value("${security.login.address-failure-threshold:20}") int addressThreshold,
+            @Value("${security.login.failure-window-seconds:900}") int windowSeconds,
+            @Value("${security.login.failure-window-buckets:15}") int bucketCount,
+            @Value("${security.login.base-delay-ms:1000}") long baseDelayMillis,
+            @Value("${security.login.max-delay-ms:900000}") long maxDelayMillis,
+            @Value("${security.login.max-tracked-keys:50000}") int maxKeys) {
+        this(usernameThreshold, addressThreshold, windowSeconds, bucketCount, baseDelayMillis, maxDelayMillis, maxKeys,
+                System::currentTimeMillis);
+    }
+
+    LoginAttemptTracker(int usernameThreshold, int addressThreshold, int windowSeconds, int bucketCount,
+                        long baseDelayMillis, long maxDelayMillis, int maxKeys, LongSupplier clock) {
+        if (bucketCount <= 0 || windowSeconds <= 0 || maxKeys <= 0) {
+            throw new IllegalArgumentException("window, bucket count and key bound must be positive");
+        }
+        this.usernameThreshold = usernameThreshold;
+        this.addressThreshold = addressThreshold;
+        this.bucketCount = bucketCount;
+        this.bucketMillis = Math.max(1, windowSeconds * 1000L / bucketCount);
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.maxKeys = maxKeys;
+        this.clock = clock;
+    }
+
+    /**
+     * @return 0 when a login attempt may proceed, otherwise the milliseconds until the next attempt is accepted
+     */
+    public long blockedForMillis(String username, String address) {
+        long now = clock.getAsLong();
+        long blocked = Math.max(
+                remainingDelay(userKey(username), usernameThreshold, now),
+                remainingDelay(addressKey(address), addressThreshold, now));
+        if (blocked > 0) {
+            blockedAttempts.increment();
+        }
+        return blocked;
+    }
+
+    public void recordFailure(String username, String address) {
+        long now = clock.getAsLong();
+        failures.increment();
+        windowFor(userKey(username)).add(now);
+        // Adresa numără fiecare utilizator o singură dată pe fereastră: greșelile repetate ale aceluiași cont nu o blochează
+        FailureWindow pair = windowFor(pairKey(username, address));
+        if (pair.count(now) == 0) {
+            windowFor(addressKey(address)).add(now);
+        }
+        pair.add(now);
+    }
+
+    /**
+     * Clears the username's failures and takes one failure off the address.
+     */
+    public void recordSuccess(String username, String address) {
+        windows.remove(userKey(username));
+        windows.remove(pairKey(username, address));
+        FailureWindow window = windows.get(addressKey(address));
+        if (window != null) {
+            window.removeOne(clock.getAsLong());
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        long now = clock.getAsLong();
+        List<Map<String, Object>> lockouts = new ArrayList<>();
+        for (Map.Entry<String, FailureWindow> entry : windows.entrySet()) {
+            if (lockouts.size() >= MAX_LISTED_LOCKOUTS) {
+                break;
+            }
+            String key = entry.getKey();
+            if (key.startsWith("pair:")) {
+                continue;
+            }
+            long remaining = remainingDelay(key, key.startsWith("user:") ? usernameThreshold : addressThreshold, now);
+            if (remaining > 0) {
+                Map<String, Object> lockout = new LinkedHashMap<>();
+                lockout.put("key", key);
+                lockout.put("failures", entry.getValue().count(now));
+                lockout.put("retryAfterMs", remaining);
+                lockouts.add(lockout);
+            }
+        }
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("trackedKeys", windows.size());
+        metrics.put("maxTrackedKeys", maxKeys);
+        metrics.put("failures", failures.sum());
+        metrics.put("blockedAttempts", blockedAttempts.sum());
+        metrics.put("lockouts", lockouts);
+        return metrics;
+    }
+
+    private long remainingDelay(String key, int threshold, long now) {
+        FailureWindow window = windows.get(key);
+        if (window == null || threshold <= 0) {
+            return 0;
+        }
+        int count = window.count(now);
+        if (count < threshold) {
+            return 0;
+        }
+        // Întârzierea se dublează cu fiecare eșec peste prag
+        int excess = Math.min(count - threshold, 30);
+        long delay = Math.min(maxDelayMillis, baseDelayMillis << excess);
+        return Math.max(0, window.lastFailureMillis() + delay - now);
+    }
+
+    private FailureWindow windowFor(String key) {
+        FailureWindow window = windows.get(key);
+        if (window != null) {
+            return window;
+        }
+        if (windows.size() >= maxKeys) {
+            evict();
+        }
+        return windows.computeIfAbsent(key, k -> new FailureWindow(bucketCount, bucketMillis));
+    }
+
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = clock.getAsLong();
+            windows.values().removeIf(window -> window.count(now) == 0);
+            // Keep ~10% headroom so a full map does not evict on every new key
+            int target = maxKeys - Math.max(1, maxKeys / 10);
+            Iterator<String> keys = windows.keySet().iterator();
+            while (windows.size() > target && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static String userKey(String username) {
+        return "user:" + username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String addressKey(String address) {
+        return "ip:" + address;
+    }
+
+    private static String pairKey(String username, String address) {
+        return "pair:" + address + '|' + username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Ring of {@code counts.length} buckets; a slot is reused once its bucket falls out of the window.
+     */
+    private static final class FailureWindow {
+        private final int[] counts;
+        private final long[] bucketIds;
+        private final long bucketMillis;
+        private long lastFailureMillis;
+
+        FailureWindow(int buckets, long bucketMillis) {
+            this.counts = new int[buckets];
+            this.bucketIds = new long[buckets];
+            this.bucketMillis = bucketMillis;
+        }
+
+        synchronized void add(long now) {
+            long bucketId = now / bucketMillis;
+            int slot = (int) (bucketId % counts.length);
+            if (bucketIds[slot] != bucketId) {
+                bucketIds[slot] = bucketId;
+                counts[slot] = 0;
+            }
+            counts[slot]++;
+            lastFailureMillis = now;
+        }
+
+        synchronized int count(long now) {
+            long oldest = now / bucketMillis - counts.length;
+            int total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (bucketIds[i] > oldest) {
+                    total += counts[i];
+                }
+            }
+            return total;
+        }
+
+        // Scade un eșec din cel mai recent bucket încă în fereastră
+        synchronized void removeOne(long now) {
+            long oldest = now / bucketMillis - counts.length;
+            int newest = -1;
+            for (int i = 0; i < counts.length; i++) {
+                if (bucketIds[i] > oldest && counts[i] > 0 && (newest < 0 || bucketIds[i] > bucketIds[newest])) {
+                    newest = i;
+                }
+            }
+            if (newest >= 0) {
+                counts[newest]--;
+            }
+        }
+
+        synchronized long lastFailureMillis() {
+            return lastFailureMillis;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.cafeteria.cafeteria_plugin.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Applies {@link RateLimiter} right after {@link JwtFilter}. Authenticated requests are keyed by
+ * username, taken from the claims {@link JwtFilter} already verified; {@code /auth/**} and anonymous
+ * requests are keyed by client IP. {@code /auth/refresh} is left to the controller, which limits it
+ * per refresh-token family.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final RequestMatcher AUTH = new OrRequestMatcher(
+            AntPathRequestMatcher.antMatcher("/auth/**"),
+            AntPathRequestMatcher.antMatcher("/LTG/auth/**"));
+
+    private static final RequestMatcher REFRESH = new OrRequestMatcher(
+            AntPathRequestMatcher.antMatcher("/auth/refresh"),
+            AntPathRequestMatcher.antMatcher("/LTG/auth/refresh"));
+
+    private static final RequestMatcher ORDERING = new OrRequestMatcher(
+            AntPathRequestMatcher.antMatcher(HttpMethod.POST, "/menu/me/purchase/**"),
+            AntPathRequestMatcher.antMatcher(HttpMethod.POST, "/menu/me/checkout"),
+            AntPathRequestMatcher.antMatcher(HttpMethod.POST, "/menu/*/purchase"),
+            AntPathRequestMatcher.antMatcher(HttpMethod.POST, "/preorders/me"));
+
+    private static final RequestMatcher ANALYTICS = new OrRequestMatcher(
+            AntPathRequestMatcher.antMatcher("/menu/invoice"),
+            AntPathRequestMatcher.antMatcher("/menu/me/invoice"),
+            AntPathRequestMatcher.antMatcher("/menu/invoices/**"),
+            AntPathRequestMatcher.antMatcher("/menu/orders/export"),
+            AntPathRequestMatcher.antMatcher("/admin/**"));
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || request.getRequestURI().startsWith("/h2-console/") || REFRESH.matches(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        RateLimiter.Group group = classify(request);
+        long retryAfterMillis = rateLimiter.tryAcquire(group, clientKey(request, group));
+        if (retryAfterMillis > 0) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf((retryAfterMillis + 999) / 1000));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            response.getWriter().write("{\"message\":\"Prea multe cereri, reîncercați în curând\"}");
+            return;
+        }
+
+        chain.doFilter(request, response);
+    }
+
+    private RateLimiter.Group classify(HttpServletRequest request) {
+        if (AUTH.matches(request)) {
+            return RateLimiter.Group.AUTH;
+        }
+        if (ORDERING.matches(request)) {
+            return RateLimiter.Group.ORDERING;
+        }
+        if (ANALYTICS.matches(request)) {
+            return RateLimiter.Group.ANALYTICS;
+        }
+        return RateLimiter.Group.READS;
+    }
+
+    private String clientKey(HttpServletRequest request, RateLimiter.Group group) {
+        // Pe /auth/** JwtFilter nu rulează, iar un atacator poate schimba oricum numele de utilizator
+        Object claims = request.getAttribute(JwtClaims.REQUEST_ATTRIBUTE);
+        if (group != RateLimiter.Group.AUTH && claims instanceof JwtClaims jwtClaims && jwtClaims.getUsername() != null) {
+            return "user:" + jwtClaims.getUsername();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,52 @@
+package com.cafeteria.cafeteria_plugin.security;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Token-bucket limits per endpoint group, bound from {@code security.rate-limit.*}.
+ * {@code capacity} is the burst a client may send at once; {@code refillPerMinute} is the sustained rate.
+ * {@code auth} is keyed by address and sized for a whole school behind one NAT address logging in
+ * at 8:00; {@code refresh} is keyed by refresh-token family.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "security.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    private int maxKeys = 50_000;
+    private Limit auth = new Limit(100, 300);
+    private Limit refresh = new Limit(5, 10);
+    private Limit ordering = new Limit(10, 30);
+    private Limit reads = new Limit(60, 300);
+    private Limit analytics = new Limit(5, 10);
+
+    public Limit limitFor(RateLimiter.Group group) {
+        return switch (group) {
+            case AUTH -> auth;
+            case REFRESH -> refresh;
+            case ORDERING -> ordering;
+            case READS -> reads;
+            case ANALYTICS -> analytics;
+        };
+    }
+
+    @Getter
+    @Setter
+    public static class Limit {
+        private int capacity;
+        private int refillPerMinute;
+
+        public Limit() {
+        }
+
+        public Limit(int capacity, int refillPerMinute) {
+            this.capacity = capacity;
+            this.refillPerMinute = refillPerMinute;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.cafeteria.cafeteria_plugin.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token buckets keyed by client. Each bucket is a single {@link AtomicLong} holding the
+ * instant at which it will be full again (the GCRA form of a token bucket), so a check is one
+ * read and one CAS. The key map is bounded: when it is full, buckets that have refilled completely
+ * are dropped first (they are indistinguishable from a fresh bucket), then arbitrary ones.
+ */
+@Component
+public class RateLimiter {
+
+    public enum Group {
+        AUTH, REFRESH, ORDERING, READS, ANALYTICS
+    }
+
+    private final RateLimitProperties properties;
+    private final LongSupplier nanoClock;
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean(false);
+
+    private final Map<Group, LongAdder> allowed = new EnumMap<>(Group.class);
+    private final Map<Group, LongAdder> rejected = new EnumMap<>(Group.class);
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public RateLimiter(RateLimitProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    RateLimiter(RateLimitProperties properties, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+        for (Group group : Group.values()) {
+            allowed.put(group, new LongAdder());
+            rejected.put(group, new LongAdder());
+        }
+    }
+
+    /**
+     * Takes one token from the bucket of {@code clientKey} in {@code group}.
+     *
+     * @return 0 when the request may proceed, otherwise the milliseconds until a token is available
+     */
+    public long tryAcquire(Group group, String clientKey) {
+        RateLimitProperties.Limit limit = properties.limitFor(group);
+        if (!properties.isEnabled() || limit.getCapacity() <= 0 || limit.getRefillPerMinute() <= 0) {
+            allowed.get(group).increment();
+            return 0;
+        }
+        long interval = TimeUnit.MINUTES.toNanos(1) / limit.getRefillPerMinute();
+        long burst = interval * limit.getCapacity();
+
+        AtomicLong bucket = bucketFor(group.name() + ':' + clientKey);
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long fullAt = bucket.get();
+            long next = Math.max(fullAt, now) + interval;
+            if (next - now > burst) {
+                rejected.get(group).increment();
+                return Math.max(1, TimeUnit.NANOSECONDS.toMillis(next - now - burst));
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                allowed.get(group).increment();
+                return 0;
+            }
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", properties.isEnabled());
+        metrics.put("trackedClients", buckets.size());
+        metrics.put("maxClients", properties.getMaxKeys());
+        metrics.put("evictions", evictions.sum());
+        for (Group group : Group.values()) {
+            Map<String, Object> counters = new LinkedHashMap<>();
+            counters.put("allowed", allowed.get(group).sum());
+            counters.put("rejected", rejected.get(group).sum());
+            metrics.put(group.name().toLowerCase(), counters);
+        }
+        return metrics;
+    }
+
+    private AtomicLong bucketFor(String key) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= properties.getMaxKeys()) {
+            evict();
+        }
+        // Un bucket nou pornește plin: momentul în care "va fi plin" este deja în trecut
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE / 2));
+    }
+
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = nanoClock.getAsLong();
+            int before = buckets.size();
+            buckets.values().removeIf(bucket -> bucket.get() <= now);
+            // Keep ~10% headroom so a full map does not evict on every new client
+            int target = properties.getMaxKeys() - Math.max(1, properties.getMaxKeys() / 10);
+            Iterator<String> keys = buckets.keySet().iterator();
+            while (buckets.size() > target && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+            evictions.add(Math.max(0, before - buckets.size()));
+        } finally {
+            evicting.set(false);
+        }
+    }
+}
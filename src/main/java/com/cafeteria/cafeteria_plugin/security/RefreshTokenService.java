@@ -0,0 +1,150 @@
+package com.cafeteria.cafeteria_plugin.security;
+
+import com.cafeteria.cafeteria_plugin.models.RefreshToken;
+import com.cafeteria.cafeteria_plugin.models.User;
+import com.cafeteria.cafeteria_plugin.repositories.RefreshTokenRepository;
+import com.cafeteria.cafeteria_plugin.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Issues and rotates refresh tokens, so clients can get a new access token without sending the
+ * password again. Every refresh consumes the presented token and hands out a new one from the same
+ * family; a consumed token that shows up again means it was copied, and the whole family is revoked.
+ * A raw token starts with its family id, so refreshes can be rate-limited per family before any lookup.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final JwtUtil jwtUtil;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+    private final Duration validity;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UserRepository userRepository,
+                               JwtUtil jwtUtil,
+                               TokenRevocationRegistry tokenRevocationRegistry,
+                               @Value("${security.jwt.refresh-token-days:7}") int validityDays) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.jwtUtil = jwtUtil;
+        this.tokenRevocationRegistry = tokenRevocationRegistry;
+        this.validity = Duration.ofDays(validityDays);
+    }
+
+    public record TokenPair(String accessToken, String refreshToken) {
+    }
+
+    /**
+     * Starts a new token family for a user who has just logged in with a password.
+     */
+    public String issue(Long userId, String username, User.UserType userType) {
+        return store(UUID.randomUUID().toString(), userId, username, userType);
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh token.
+     * Returns an empty optional when the token is unknown, expired, already used or belongs to a removed user.
+     * Marking the old token used and storing the new one commit together, so a failed save does not
+     * leave the family without a usable token.
+     */
+    @Transactional
+    public Optional<TokenPair> rotate(String rawToken) {
+        Optional<RefreshToken> found = refreshTokenRepository.findByTokenHash(JwtUtil.digest(rawToken));
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+
+        RefreshToken current = found.get();
+        if (current.isUsed()) {
+            // Token deja consumat: cineva are o copie, revocăm toată familia
+            refreshTokenRepository.deleteByFamilyId(current.getFamilyId());
+            return Optional.empty();
+        }
+        if (current.getExpiresAt().isBefore(LocalDateTime.now())) {
+            refreshTokenRepository.deleteById(current.getId());
+            return Optional.empty();
+        }
+
+        long createdAtMillis = current.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (tokenRevocationRegistry.isRevoked(current.getUserId(), createdAtMillis)
+                || !userRepository.existsById(current.getUserId())) {
+            refreshTokenRepository.deleteByFamilyId(current.getFamilyId());
+            return Optional.empty();
+        }
+
+        // Doar o cerere concurentă poate câștiga marcarea; cealaltă este tratată ca reutilizare
+        if (refreshTokenRepository.markUsed(current.getId()) == 0) {
+            refreshTokenRepository.deleteByFamilyId(current.getFamilyId());
+            return Optional.empty();
+        }
+
+        String accessToken = jwtUtil.generateToken(current.getUserId(), current.getUsername(), current.getUserType());
+        String refreshToken = store(current.getFamilyId(), current.getUserId(), current.getUsername(), current.getUserType());
+        return Optional.of(new TokenPair(accessToken, refreshToken));
+    }
+
+    /**
+     * The family id a raw token was issued for, read from its prefix; tokens without one map to their own digest.
+     */
+    public static String familyOf(String rawToken) {
+        int dot = rawToken.indexOf('.');
+        return dot > 0 ? rawToken.substring(0, dot) : JwtUtil.digest(rawToken);
+    }
+
+    /**
+     * Revokes the family the given token belongs to (logout from one device).
+     */
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHash(JwtUtil.digest(rawToken))
+                .ifPresent(token -> refreshTokenRepository.deleteByFamilyId(token.getFamilyId()));
+    }
+
+    /**
+     * Revokes every refresh token of a user (forced sign-out from all devices).
+     */
+    public int revokeAll(Long userId) {
+        return refreshTokenRepository.deleteByUserId(userId);
+    }
+
+    /**
+     * Removes expired tokens in a single bulk delete.
+     */
+    @Scheduled(fixedDelayString = "${security.jwt.refresh-token-purge-interval-ms:3600000}")
+    public int purgeExpired() {
+        return refreshTokenRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    private String store(String familyId, Long userId, String username, User.UserType userType) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String rawToken = familyId + '.' + Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        LocalDateTime now = LocalDateTime.now();
+        RefreshToken token = new RefreshToken();
+        token.setTokenHash(JwtUtil.digest(rawToken));
+        token.setFamilyId(familyId);
+        token.setUserId(userId);
+        token.setUsername(username);
+        token.setUserType(userType);
+        token.setCreatedAt(now);
+        token.setExpiresAt(now.plus(validity));
+        refreshTokenRepository.save(token);
+        return rawToken;
+    }
+}
@@ -1,6 +1,8 @@
 package com.cafeteria.cafeteria_plugin.security;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -27,9 +29,19 @@ public class SecurityConfig {
     @Autowired
     private JwtFilter jwtFilter;
 
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
+    @Autowired
+    private IdempotencyFilter idempotencyFilter;
+
+    // Costul BCrypt; parolele mai vechi sunt re-hash-uite automat la login după o creștere
+    @Value("${security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(10);
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Bean
@@ -47,6 +59,8 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Fluxurile SSE se încheie printr-un dispatch ASYNC, fără JWT: cererea inițială a fost deja autorizată
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(AntPathRequestMatcher.antMatcher("/h2-console/**")).permitAll()
                         .requestMatchers(AntPathRequestMatcher.antMatcher("/auth/**")).permitAll()
                                 .requestMatchers(AntPathRequestMatcher.antMatcher("/images/**")).permitAll()
@@ -54,6 +68,10 @@ public class SecurityConfig {
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
+                // Rulează după JwtFilter ca bucket-ul să fie ales după utilizatorul din token
+                .addFilterAfter(rateLimitFilter, JwtFilter.class)
+                // Reîncercările unei cumpărări sunt servite din memorie, înainte de controller și DB
+                .addFilterAfter(idempotencyFilter, RateLimitFilter.class)
                 .headers(headers -> headers.frameOptions(frameOptions -> frameOptions.disable()));
 
         logger.info("Security filter chain configured successfully");
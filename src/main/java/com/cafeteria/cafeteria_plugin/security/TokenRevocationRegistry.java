@@ -0,0 +1,101 @@
+package com.cafeteria.cafeteria_plugin.security;
+
+import com.cafeteria.cafeteria_plugin.util.BoundedExpiringCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory record of tokens that must stop working before they expire. Two mechanisms are kept:
+ * <ul>
+ *     <li>a denylist of single token ids ({@code jti}), used on logout; an entry lives until the token expires;</li>
+ *     <li>a per-user watermark (deleted users, forced sign-out): tokens issued at or before it are rejected.
+ *     Issue times are compared in milliseconds, so a login right after a revocation is not caught by it.
+ *     A watermark only matters while tokens issued before it can still be alive; refresh tokens are
+ *     checked against it too, so entries are kept for the longer of the access and refresh token lifetimes.</li>
+ * </ul>
+ * Both checks are single hash lookups, which lets {@link JwtFilter} trust token claims without going to the database.
+ */
+@Component
+public class TokenRevocationRegistry {
+
+    private final Map<Long, Long> revokedBeforeMillis = new ConcurrentHashMap<>();
+    private final BoundedExpiringCache<String, Boolean> revokedTokenIds;
+    private final AtomicLong denylistOverflows = new AtomicLong();
+    private final long watermarkRetentionMillis;
+    private final LongSupplier clock;
+
+    @Autowired
+    public TokenRevocationRegistry(@Value("${security.jwt.denylist-size:100000}") int denylistSize,
+                                   @Value("${security.jwt.refresh-token-days:7}") int refreshTokenDays) {
+        this(denylistSize, refreshTokenDays, System::currentTimeMillis);
+    }
+
+    TokenRevocationRegistry(int denylistSize, int refreshTokenDays, LongSupplier clock) {
+        this.revokedTokenIds = new BoundedExpiringCache<>(denylistSize);
+        this.watermarkRetentionMillis = Math.max(JwtUtil.EXPIRATION_TIME, Duration.ofDays(refreshTokenDays).toMillis());
+        this.clock = clock;
+    }
+
+    /**
+     * Invalidates every token issued to the given user up to now.
+     */
+    public void revokeUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        long now = clock.getAsLong();
+        revokedBeforeMillis.put(userId, now);
+        revokedBeforeMillis.values().removeIf(watermark -> watermark + watermarkRetentionMillis < now);
+    }
+
+    /**
+     * Invalidates a single token, e.g. on logout.
+     */
+    public void revokeToken(JwtClaims claims) {
+        if (claims.getTokenId() == null) {
+            // Tokenurile vechi nu au `jti`; singura variantă sigură este watermark-ul utilizatorului
+            revokeUser(claims.getUserId());
+            return;
+        }
+        // Verificarea capacității și inserarea sunt atomice; o denylist plină nu evacuează intrări încă valide
+        if (!revokedTokenIds.tryPut(claims.getTokenId(), Boolean.TRUE, claims.getExpiration().getTime())) {
+            denylistOverflows.incrementAndGet();
+            revokeUser(claims.getUserId());
+        }
+    }
+
+    public boolean isRevoked(JwtClaims claims) {
+        if (claims.getTokenId() != null && revokedTokenIds.get(claims.getTokenId()) != null) {
+            return true;
+        }
+        if (claims.getIssuedAtMillis() == null) {
+            return false;
+        }
+        return isRevoked(claims.getUserId(), claims.getIssuedAtMillis());
+    }
+
+    public boolean isRevoked(Long userId, long issuedAtMillis) {
+        if (userId == null) {
+            return false;
+        }
+        Long watermark = revokedBeforeMillis.get(userId);
+        return watermark != null && issuedAtMillis <= watermark;
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("revokedTokens", revokedTokenIds.size());
+        metrics.put("revokedTokensCapacity", revokedTokenIds.maxSize());
+        metrics.put("revokedUsers", revokedBeforeMillis.size());
+        metrics.put("denylistOverflows", denylistOverflows.get());
+        return metrics;
+    }
+}
@@ -1,7 +1,6 @@
 package com.cafeteria.cafeteria_plugin.security;
 
-import com.cafeteria.cafeteria_plugin.models.User;
-import com.cafeteria.cafeteria_plugin.repositories.UserRepository;
+import com.cafeteria.cafeteria_plugin.repositories.UserCredentials;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -10,15 +9,15 @@ import org.springframework.stereotype.Service;
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
 
-    private final UserRepository userRepository;
+    private final AuthUserLookup authUserLookup;
 
-    public UserDetailsServiceImpl(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public UserDetailsServiceImpl(AuthUserLookup authUserLookup) {
+        this.authUserLookup = authUserLookup;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
+        UserCredentials user = authUserLookup.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
 
         return org.springframework.security.core.userdetails.User
@@ -0,0 +1,190 @@
+package com.cafeteria.cafeteria_plugin.services;
+
+import com.cafeteria.cafeteria_plugin.models.Allergen;
+import com.cafeteria.cafeteria_plugin.repositories.AllergenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Maps every allergen name to one bit of a {@code long}, so an allergen list becomes a mask and
+ * "does this item contain anything the child is allergic to" is a single AND. Names are compared
+ * trimmed and lower-cased. Only menu item saves may add names: a name seen for the first time
+ * gets the next free bit, stored in {@code allergens} in its own transaction and published in
+ * memory once that commits. The dictionary is read once and then answered from memory.
+ */
+@Component
+public class AllergenDictionary {
+
+    private static final Logger logger = LoggerFactory.getLogger(AllergenDictionary.class);
+
+    static final int MAX_ALLERGENS = Long.SIZE;
+
+    private final AllergenRepository allergenRepository;
+    private final TransactionTemplate registerTransaction;
+
+    // Copii imutabile înlocuite la fiecare alergen nou: citirile nu iau lacăt
+    private volatile Map<String, Integer> bits;
+    private volatile List<String> names;
+
+    public AllergenDictionary(AllergenRepository allergenRepository, PlatformTransactionManager transactionManager) {
+        this.allergenRepository = allergenRepository;
+        // Bitul nou se scrie separat de tranzacția apelantului: un rollback al acesteia nu lasă în memorie un bit nesalvat
+        this.registerTransaction = new TransactionTemplate(transactionManager);
+        this.registerTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * The mask of {@code allergens}; names not in the dictionary yet are added to it.
+     *
+     * @throws IllegalArgumentException if all 64 bits are already taken
+     */
+    public long maskOf(Collection<String> allergens) {
+        if (allergens == null || allergens.isEmpty()) {
+            return 0L;
+        }
+        long mask = 0L;
+        for (String allergen : allergens) {
+            String name = normalize(allergen);
+            if (name.isEmpty()) {
+                continue;
+            }
+            Integer bit = bits().get(name);
+            if (bit == null) {
+                bit = register(name);
+            }
+            mask |= 1L << bit;
+        }
+        return mask;
+    }
+
+    /**
+     * The mask of {@code allergens} using only names already in the dictionary.
+     *
+     * @throws IllegalArgumentException listing every name the dictionary does not know
+     */
+    public long knownMaskOf(Collection<String> allergens) {
+        if (allergens == null || allergens.isEmpty()) {
+            return 0L;
+        }
+        Map<String, Integer> known = bits();
+        Set<String> unknown = new LinkedHashSet<>();
+        long mask = 0L;
+        for (String allergen : allergens) {
+            String name = normalize(allergen);
+            if (name.isEmpty()) {
+                continue;
+            }
+            Integer bit = known.get(name);
+            if (bit == null) {
+                unknown.add(name);
+            } else {
+                mask |= 1L << bit;
+            }
+        }
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Unknown allergens: " + String.join(", ", unknown));
+        }
+        return mask;
+    }
+
+    /**
+     * The allergen names set in {@code mask}, in bit order.
+     */
+    public List<String> namesOf(long mask) {
+        List<String> all = names();
+        List<String> result = new ArrayList<>(Long.bitCount(mask));
+        for (long rest = mask; rest != 0; rest &= rest - 1) {
+            int bit = Long.numberOfTrailingZeros(rest);
+            if (bit < all.size() && all.get(bit) != null) {
+                result.add(all.get(bit));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Every known allergen, in bit order.
+     */
+    public List<String> getAllergens() {
+        return names().stream().filter(Objects::nonNull).toList();
+    }
+
+    static String normalize(String allergen) {
+        return allergen == null ? "" : allergen.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private Map<String, Integer> bits() {
+        Map<String, Integer> current = bits;
+        if (current == null) {
+            load();
+            current = bits;
+        }
+        return current;
+    }
+
+    private List<String> names() {
+        List<String> current = names;
+        if (current == null) {
+            load();
+            current = names;
+        }
+        return current;
+    }
+
+    private synchronized void load() {
+        if (bits != null) {
+            return;
+        }
+        Map<String, Integer> loaded = new HashMap<>();
+        List<String> byBit = new ArrayList<>();
+        for (Allergen allergen : allergenRepository.findAll()) {
+            loaded.put(allergen.getName(), allergen.getBit());
+            while (byBit.size() <= allergen.getBit()) {
+                byBit.add(null);
+            }
+            byBit.set(allergen.getBit(), allergen.getName());
+        }
+        names = Collections.unmodifiableList(byBit);
+        bits = Map.copyOf(loaded);
+        logger.info("Allergen dictionary loaded with {} entries", loaded.size());
+    }
+
+    private synchronized int register(String name) {
+        Map<String, Integer> current = bits();
+        Integer existing = current.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        int bit = names.size();
+        if (bit >= MAX_ALLERGENS) {
+            throw new IllegalArgumentException("The allergen dictionary is full (" + MAX_ALLERGENS + " entries)");
+        }
+        Allergen allergen = new Allergen();
+        allergen.setBit(bit);
+        allergen.setName(name);
+        registerTransaction.executeWithoutResult(status -> allergenRepository.save(allergen));
+
+        Map<String, Integer> updatedBits = new HashMap<>(current);
+        updatedBits.put(name, bit);
+        List<String> updatedNames = new ArrayList<>(names);
+        updatedNames.add(name);
+        names = Collections.unmodifiableList(updatedNames);
+        bits = Map.copyOf(updatedBits);
+        return bit;
+    }
+}
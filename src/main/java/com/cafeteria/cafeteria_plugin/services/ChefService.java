@@ -2,6 +2,8 @@ package com.cafeteria.cafeteria_plugin.services;
 
 import com.cafeteria.cafeteria_plugin.models.Chef;
 import com.cafeteria.cafeteria_plugin.repositories.ChefRepository;
+import com.cafeteria.cafeteria_plugin.security.AuthUserLookup;
+import com.cafeteria.cafeteria_plugin.security.TokenRevocationRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -12,10 +14,15 @@ import java.util.Optional;
 public class ChefService {
 
     private final ChefRepository chefRepository;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+    private final AuthUserLookup authUserLookup;
 
     @Autowired
-    public ChefService(ChefRepository chefRepository) {
+    public ChefService(ChefRepository chefRepository, TokenRevocationRegistry tokenRevocationRegistry,
+                       AuthUserLookup authUserLookup) {
         this.chefRepository = chefRepository;
+        this.tokenRevocationRegistry = tokenRevocationRegistry;
+        this.authUserLookup = authUserLookup;
     }
 
     // ✅ Creare bucătar
@@ -45,12 +52,14 @@ public class ChefService {
             throw new IllegalArgumentException("Chef-ul cu ID-ul " + id + " nu există!");
         }
         chefRepository.deleteById(id);
+        tokenRevocationRegistry.revokeUser(id);
         return true;
     }
 
     // ✅ Actualizare bucătar
     public Chef updateChef(Long id, Chef chefDetails) {
         return chefRepository.findById(id).map(existingChef -> {
+            authUserLookup.evict(existingChef.getUsername());
             if (chefDetails.getName() != null) {
                 existingChef.setName(chefDetails.getName());
             }
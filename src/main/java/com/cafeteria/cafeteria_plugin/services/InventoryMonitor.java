@@ -0,0 +1,280 @@
+package com.cafeteria.cafeteria_plugin.services;
+
+import com.cafeteria.cafeteria_plugin.models.MenuItem;
+import com.cafeteria.cafeteria_plugin.models.OrderHistory;
+import com.cafeteria.cafeteria_plugin.repositories.MenuItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live inventory view for the kitchen, fed by purchases instead of polling the menu table. Each
+ * item keeps an exponentially decayed count of the units sold, which divided by the window gives
+ * its current consumption rate; together with the stock counter of {@link MenuStockLedger} that
+ * says how many minutes are left. When an item's level changes (in stock, running low, out) a
+ * {@code stock-alert} event goes to the kitchen screens over {@link KitchenOrderBus}. A low item
+ * is cleared only once it has clearly recovered, so a rate hovering around the threshold does
+ * not flap between alerts.
+ */
+@Component
+public class InventoryMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryMonitor.class);
+
+    static final String ALERT_EVENT = "stock-alert";
+
+    // Un articol marcat „Low Stock” revine la „In Stock” abia peste 1,5 × pragul de alertă
+    private static final double CLEAR_FACTOR = 1.5;
+
+    public enum Level {
+        IN_STOCK("In Stock"), LOW_STOCK("Low Stock"), OUT_OF_STOCK("Out of Stock");
+
+        private final String label;
+
+        Level(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private final MenuItemRepository menuItemRepository;
+    private final MenuStockLedger stockLedger;
+    private final KitchenOrderBus kitchenOrderBus;
+    private final double windowMinutes;
+    private final long alertMinutes;
+    private final int lowStockFloor;
+    private final Clock clock;
+
+    // Ordonat după id, ca vizualizarea să aibă aceeași ordine ca meniul
+    private final Map<Long, Tracked> items = new ConcurrentSkipListMap<>();
+
+    private final LongAdder recordedUnits = new LongAdder();
+    private final LongAdder alerts = new LongAdder();
+    private final LongAdder statusReads = new LongAdder();
+
+    @Autowired
+    public InventoryMonitor(MenuItemRepository menuItemRepository,
+                            MenuStockLedger stockLedger,
+                            KitchenOrderBus kitchenOrderBus,
+                            @Value("${inventory.rate-window-minutes:15}") double windowMinutes,
+                            @Value("${inventory.alert-minutes:20}") long alertMinutes,
+                            @Value("${inventory.low-stock-floor:10}") int lowStockFloor) {
+        this(menuItemRepository, stockLedger, kitchenOrderBus, windowMinutes, alertMinutes, lowStockFloor,
+                Clock.systemDefaultZone());
+    }
+
+    InventoryMonitor(MenuItemRepository menuItemRepository, MenuStockLedger stockLedger, KitchenOrderBus kitchenOrderBus,
+                     double windowMinutes, long alertMinutes, int lowStockFloor, Clock clock) {
+        this.menuItemRepository = menuItemRepository;
+        this.stockLedger = stockLedger;
+        this.kitchenOrderBus = kitchenOrderBus;
+        this.windowMinutes = windowMinutes;
+        this.alertMinutes = alertMinutes;
+        this.lowStockFloor = lowStockFloor;
+        this.clock = clock;
+    }
+
+    /**
+     * Loads the item names once; the levels found at startup are taken as they are, without alerts.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        for (MenuItem item : menuItemRepository.findAll()) {
+            Tracked tracked = items.computeIfAbsent(item.getId(), Tracked::new);
+            tracked.name = item.getName();
+            synchronized (tracked) {
+                tracked.level = levelOf(tracked, clock.millis()).level();
+            }
+        }
+        logger.info("Inventory monitor tracking {} menu items", items.size());
+    }
+
+    /**
+     * Adds or renames an item after an admin change and checks its level against the new stock.
+     */
+    public void track(MenuItem item) {
+        Tracked tracked = items.computeIfAbsent(item.getId(), Tracked::new);
+        tracked.name = item.getName();
+        evaluate(tracked);
+    }
+
+    public void untrack(Long menuItemId) {
+        items.remove(menuItemId);
+    }
+
+    /**
+     * Feeds units sold at the counter into the consumption rates of tracked items, once the
+     * orders commit.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrdersPlaced(OrdersPlacedEvent event) {
+        if (!event.live() || event.orders().isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> sold = new LinkedHashMap<>();
+        for (OrderHistory order : event.orders()) {
+            if (order.getMenuItemId() != null && order.getQuantity() != null) {
+                sold.merge(order.getMenuItemId(), order.getQuantity(), Integer::sum);
+            }
+        }
+        consume(sold);
+    }
+
+    /**
+     * Re-checks every item, so rates that cool down and stock put back clear their alerts too.
+     */
+    @Scheduled(fixedDelayString = "${inventory.check-interval-ms:30000}")
+    public void check() {
+        items.values().forEach(this::evaluate);
+    }
+
+    /**
+     * The current view, in id order: stock, rate, minutes left and level of every item.
+     */
+    public List<Map<String, Object>> getStatus() {
+        statusReads.increment();
+        long now = clock.millis();
+        List<Map<String, Object>> result = new ArrayList<>(items.size());
+        for (Tracked tracked : items.values()) {
+            Reading reading;
+            synchronized (tracked) {
+                reading = levelOf(tracked, now);
+            }
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("id", tracked.id);
+            status.put("name", tracked.name);
+            status.put("quantity", reading.available());
+            status.put("status", reading.level().getLabel());
+            status.put("ratePerMinute", round(reading.ratePerMinute()));
+            status.put("minutesLeft", reading.minutesLeft());
+            result.add(status);
+        }
+        return result;
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("trackedItems", items.size());
+        metrics.put("rateWindowMinutes", windowMinutes);
+        metrics.put("alertMinutes", alertMinutes);
+        metrics.put("recordedUnits", recordedUnits.sum());
+        metrics.put("alerts", alerts.sum());
+        metrics.put("statusReads", statusReads.sum());
+        return metrics;
+    }
+
+    private void consume(Map<Long, Integer> sold) {
+        long now = clock.millis();
+        sold.forEach((menuItemId, quantity) -> {
+            // Un articol șters între timp (untrack) nu se readaugă din vânzări
+            Tracked tracked = items.get(menuItemId);
+            if (tracked == null) {
+                return;
+            }
+            synchronized (tracked) {
+                decay(tracked, now);
+                tracked.sold += quantity;
+            }
+            recordedUnits.add(quantity);
+            evaluate(tracked);
+        });
+    }
+
+    private void evaluate(Tracked tracked) {
+        StockAlert alert;
+        synchronized (tracked) {
+            Reading reading = levelOf(tracked, clock.millis());
+            if (reading.level() == tracked.level) {
+                return;
+            }
+            tracked.level = reading.level();
+            alert = new StockAlert(tracked.id, tracked.name, reading.level().getLabel(), reading.available(),
+                    round(reading.ratePerMinute()), reading.minutesLeft(), messageFor(tracked.name, reading),
+                    LocalDateTime.now(clock));
+        }
+        alerts.increment();
+        kitchenOrderBus.publishEvent(ALERT_EVENT, alert);
+    }
+
+    private Reading levelOf(Tracked tracked, long now) {
+        decay(tracked, now);
+        int available = stockLedger.available(tracked.id);
+        double rate = tracked.sold / windowMinutes;
+        // Sub o unitate pe fereastră ritmul e doar zgomot: nu facem prognoză
+        Long minutesLeft = tracked.sold >= 1 ? (long) Math.floor(available / rate) : null;
+        Level level;
+        if (available <= 0) {
+            level = Level.OUT_OF_STOCK;
+        } else if (available <= lowStockFloor || (minutesLeft != null && minutesLeft <= alertMinutes)
+                || (tracked.level != Level.IN_STOCK && minutesLeft != null && minutesLeft <= alertMinutes * CLEAR_FACTOR)) {
+            level = Level.LOW_STOCK;
+        } else {
+            level = Level.IN_STOCK;
+        }
+        return new Reading(available, rate, minutesLeft, level);
+    }
+
+    // Suma vândută scade exponențial cu vechimea: ce s-a vândut acum o fereastră contează cu 1/e
+    private void decay(Tracked tracked, long now) {
+        long elapsed = now - tracked.updatedAt;
+        if (elapsed > 0) {
+            tracked.sold *= Math.exp(-elapsed / (windowMinutes * 60_000));
+            tracked.updatedAt = now;
+        }
+    }
+
+    private static String messageFor(String name, Reading reading) {
+        return switch (reading.level()) {
+            case OUT_OF_STOCK -> name + " is out of stock";
+            case LOW_STOCK -> reading.minutesLeft() != null
+                    ? name + " runs out in about " + reading.minutesLeft() + " minutes"
+                    : name + " is running low (" + reading.available() + " left)";
+            case IN_STOCK -> name + " is back in stock";
+        };
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private record Reading(int available, double ratePerMinute, Long minutesLeft, Level level) {
+    }
+
+    /**
+     * What a kitchen screen receives when an item changes level.
+     */
+    public record StockAlert(Long menuItemId, String name, String level, int available, double ratePerMinute,
+                             Long minutesLeft, String message, LocalDateTime raisedAt) {
+    }
+
+    private static final class Tracked {
+        final Long id;
+        volatile String name;
+        double sold;
+        long updatedAt;
+        Level level = Level.IN_STOCK;
+
+        Tracked(Long id) {
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package com.cafeteria.cafeteria_plugin.services;
+
+import com.cafeteria.cafeteria_plugin.models.OrderHistory;
+import com.cafeteria.cafeteria_plugin.util.Csv;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Month-end invoice run for the whole school. The month's orders are read in one query ordered by
+ * student and consumed row by row; every time the student changes, that student's invoice is handed
+ * to a render pool. Finished PDFs are written to a ZIP stream in student order, at most
+ * {@code invoice.batch.max-in-flight} of them held in memory at once, and a {@code manifest.csv}
+ * with the per-student totals closes the archive. One run at a time.
+ */
+@Service
+public class InvoiceBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceBatchService.class);
+
+    private static final String MONTH_ORDERS =
+            "SELECT oh.student_id, s.name AS student_name, oh.menu_item_name, oh.quantity, oh.price, oh.order_time "
+                    + "FROM order_history oh JOIN students s ON s.id = oh.student_id "
+                    + "WHERE oh.order_time >= ? AND oh.order_time < ? "
+                    + "ORDER BY oh.student_id, oh.order_time, oh.id";
+
+    private static final int FETCH_SIZE = 500;
+    // O rezervare al cărei răspuns nu a început să fie scris în acest timp poate fi preluată
+    private static final long UNUSED_CLAIM_TIMEOUT_MILLIS = 60_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InvoicePdfRenderer renderer;
+    private final Executor renderPool;
+    private final int maxInFlight;
+    private final Clock clock;
+
+    private final AtomicReference<Run> current = new AtomicReference<>();
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder failedRuns = new LongAdder();
+
+    @Autowired
+    public InvoiceBatchService(JdbcTemplate jdbcTemplate,
+                               InvoicePdfRenderer renderer,
+                               @Value("${invoice.batch.threads:0}") int threads,
+                               @Value("${invoice.batch.max-in-flight:64}") int maxInFlight) {
+        this(jdbcTemplate, renderer, newRenderPool(threads), maxInFlight, Clock.systemDefaultZone());
+    }
+
+    InvoiceBatchService(JdbcTemplate jdbcTemplate, InvoicePdfRenderer renderer, Executor renderPool,
+                        int maxInFlight, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.renderer = renderer;
+        this.renderPool = renderPool;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.clock = clock;
+    }
+
+    /**
+     * Claims the single run slot for {@code period}. Callers that stream the archive claim it before
+     * the response is committed, so a concurrent caller is refused up front instead of getting a 200
+     * with a broken body. The claim is released by {@link #writeMonthArchive(Run, OutputStream)}; a
+     * claim that is never written is taken over after a minute.
+     *
+     * @return empty if another run holds the slot
+     */
+    public Optional<Run> tryStart(YearMonth period) {
+        Run run = new Run(period, System.nanoTime());
+        while (true) {
+            Run existing = current.get();
+            if (existing != null && (existing.elapsedMillis() < UNUSED_CLAIM_TIMEOUT_MILLIS
+                    || !existing.taken.compareAndSet(false, true))) {
+                return Optional.empty();
+            }
+            if (current.compareAndSet(existing, run)) {
+                return Optional.of(run);
+            }
+        }
+    }
+
+    /**
+     * Claims the slot and writes the archive in one call.
+     *
+     * @throws IllegalStateException if another run is in progress
+     */
+    public void writeMonthArchive(YearMonth period, OutputStream out) throws IOException {
+        Run run = tryStart(period)
+                .orElseThrow(() -> new IllegalStateException("An invoice run is already in progress"));
+        writeMonthArchive(run, out);
+    }
+
+    /**
+     * Writes the ZIP with every student's invoice for the claimed period to {@code out}, which is
+     * finished but not closed, and releases the claim.
+     *
+     * @throws IllegalStateException if the claim was already used or taken over
+     */
+    public void writeMonthArchive(Run progress, OutputStream out) throws IOException {
+        if (!progress.taken.compareAndSet(false, true)) {
+            throw new IllegalStateException("The invoice run claim is no longer valid");
+        }
+        YearMonth period = progress.period;
+        LocalDateTime generatedAt = LocalDateTime.now(clock);
+        try {
+            ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+            // PDF-urile sunt deja comprimate intern; nivelul maxim doar ar consuma CPU
+            zip.setLevel(Deflater.BEST_SPEED);
+            StringBuilder manifest = new StringBuilder("student_id,student_name,orders,total,file\n");
+            ArrayDeque<CompletableFuture<Rendered>> inFlight = new ArrayDeque<>();
+            Batch batch = new Batch();
+
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(MONTH_ORDERS,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(FETCH_SIZE);
+                statement.setTimestamp(1, Timestamp.valueOf(period.atDay(1).atStartOfDay()));
+                statement.setTimestamp(2, Timestamp.valueOf(period.plusMonths(1).atDay(1).atStartOfDay()));
+                return statement;
+            }, (ResultSet rs) -> {
+                long studentId = rs.getLong("student_id");
+                if (batch.studentId != null && batch.studentId != studentId) {
+                    submit(batch.take(), period, generatedAt, inFlight, zip, manifest, progress);
+                }
+                if (batch.studentId == null) {
+                    batch.start(studentId, rs.getString("student_name"));
+                }
+                batch.orders.add(row(rs));
+                progress.orders.increment();
+            });
+            if (batch.studentId != null) {
+                submit(batch.take(), period, generatedAt, inFlight, zip, manifest, progress);
+            }
+            while (!inFlight.isEmpty()) {
+                write(inFlight.removeFirst(), zip, manifest, progress);
+            }
+
+            zip.putNextEntry(new ZipEntry("manifest.csv"));
+            zip.write(manifest.toString().getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+            zip.finish();
+            out.flush();
+
+            runs.increment();
+            lastRun = progress.snapshot("completed");
+            logger.info("Invoice run for {}: {} students, {} orders in {} ms", period,
+                    progress.students.sum(), progress.orders.sum(), progress.elapsedMillis());
+        } catch (IOException | RuntimeException e) {
+            failedRuns.increment();
+            lastRun = progress.snapshot("failed");
+            logger.error("Invoice run for {} failed after {} students", period, progress.students.sum(), e);
+            if (e instanceof UncheckedIOException unchecked) {
+                throw unchecked.getCause();
+            }
+            throw e;
+        } finally {
+            current.compareAndSet(progress, null);
+        }
+    }
+
+    public boolean isRunning() {
+        return current.get() != null;
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        Run progress = current.get();
+        metrics.put("running", progress == null ? Map.of() : progress.snapshot("running"));
+        metrics.put("lastRun", lastRun);
+        metrics.put("completedRuns", runs.sum());
+        metrics.put("failedRuns", failedRuns.sum());
+        return metrics;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (renderPool instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    // Rulează pe firul care citește rezultatul: randarea merge în paralel, scrierea rămâne în ordine
+    private void submit(StudentOrders student, YearMonth period, LocalDateTime generatedAt,
+                        ArrayDeque<CompletableFuture<Rendered>> inFlight, ZipOutputStream zip,
+                        StringBuilder manifest, Run progress) {
+        try {
+            while (!inFlight.isEmpty() && (inFlight.size() >= maxInFlight || inFlight.peekFirst().isDone())) {
+                write(inFlight.removeFirst(), zip, manifest, progress);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        inFlight.addLast(CompletableFuture.supplyAsync(() -> render(student, period, generatedAt), renderPool));
+    }
+
+    private Rendered render(StudentOrders student, YearMonth period, LocalDateTime generatedAt) {
+        long start = System.nanoTime();
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream(8192 + student.orders().size() * 64);
+        try {
+            renderer.render(student.name(), period, student.orders(), generatedAt, pdf);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        double total = student.orders().stream().mapToDouble(OrderHistory::getPrice).sum();
+        return new Rendered(student, total, pdf.toByteArray(), System.nanoTime() - start);
+    }
+
+    private static void write(CompletableFuture<Rendered> future, ZipOutputStream zip,
+                              StringBuilder manifest, Run progress) throws IOException {
+        Rendered rendered;
+        try {
+            rendered = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Invoice run interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to render invoice", e.getCause());
+        }
+        StudentOrders student = rendered.student();
+        String fileName = "invoice_" + student.studentId() + ".pdf";
+        zip.putNextEntry(new ZipEntry(fileName));
+        zip.write(rendered.pdf());
+        zip.closeEntry();
+
+        manifest.append(student.studentId()).append(',')
+                .append(Csv.field(student.name())).append(',')
+                .append(student.orders().size()).append(',')
+                .append(String.format(Locale.ROOT, "%.2f", rendered.total())).append(',')
+                .append(fileName).append('\n');
+        progress.students.increment();
+        progress.renderNanos.add(rendered.renderNanos());
+        progress.bytes.add(rendered.pdf().length);
+    }
+
+    private static OrderHistory row(ResultSet rs) throws SQLException {
+        OrderHistory order = new OrderHistory();
+        order.setMenuItemName(rs.getString("menu_item_name"));
+        order.setQuantity(rs.getInt("quantity"));
+        order.setPrice(rs.getDouble("price"));
+        order.setOrderTime(rs.getTimestamp("order_time").toLocalDateTime());
+        return order;
+    }
+
+    private static ExecutorService newRenderPool(int threads) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIndex = new AtomicInteger();
+        return Executors.newFixedThreadPool(size, runnable -> {
+            Thread thread = new Thread(runnable, "invoice-render-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private record StudentOrders(long studentId, String name, List<OrderHistory> orders) {
+    }
+
+    private record Rendered(StudentOrders student, double total, byte[] pdf, long renderNanos) {
+    }
+
+    /**
+     * The student whose rows are currently being read.
+     */
+    private static final class Batch {
+        private Long studentId;
+        private String name;
+        private List<OrderHistory> orders = new ArrayList<>();
+
+        void start(long studentId, String name) {
+            this.studentId = studentId;
+            this.name = name;
+        }
+
+        StudentOrders take() {
+            StudentOrders taken = new StudentOrders(studentId, name, orders);
+            studentId = null;
+            name = null;
+            orders = new ArrayList<>();
+            return taken;
+        }
+    }
+
+    /**
+     * A claimed invoice run and its progress counters.
+     */
+    public static final class Run {
+        private final YearMonth period;
+        private final long startNanos;
+        // Setat o singură dată: de scrierea arhivei sau de preluarea unei rezervări nefolosite
+        private final AtomicBoolean taken = new AtomicBoolean();
+        private final LongAdder orders = new LongAdder();
+        private final LongAdder students = new LongAdder();
+        private final LongAdder renderNanos = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+
+        private Run(YearMonth period, long startNanos) {
+            this.period = period;
+            this.startNanos = startNanos;
+        }
+
+        long elapsedMillis() {
+            return (System.nanoTime() - startNanos) / 1_000_000;
+        }
+
+        Map<String, Object> snapshot(String status) {
+            long written = students.sum();
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("status", status);
+            snapshot.put("month", period.toString());
+            snapshot.put("ordersRead", orders.sum());
+            snapshot.put("invoicesWritten", written);
+            snapshot.put("pdfBytes", bytes.sum());
+            snapshot.put("elapsedMs", elapsedMillis());
+            snapshot.put("avgRenderMs", written == 0 ? 0 : renderNanos.sum() / written / 1_000_000.0);
+            return snapshot;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.cafeteria.cafeteria_plugin.services;
+
+import com.cafeteria.cafeteria_plugin.models.OrderHistory;
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Writes the monthly invoice PDF of one student straight to an output stream. The order table is
+ * written to the document in slices of {@value #ROWS_PER_SLICE} rows, so memory does not grow with
+ * the number of orders, and the fonts are shared instead of being created for every invoice.
+ */
+@Component
+public class InvoicePdfRenderer {
+
+    private static final int ROWS_PER_SLICE = 100;
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
+
+    private static final Font TITLE_FONT = new Font(Font.FontFamily.HELVETICA, 18, Font.BOLD);
+    private static final Font NORMAL_FONT = new Font(Font.FontFamily.HELVETICA, 12);
+    private static final Font BOLD_FONT = new Font(Font.FontFamily.HELVETICA, 12, Font.BOLD);
+    private static final String[] COLUMNS = {"Item", "Quantity", "Price", "Date"};
+
+    /**
+     * Renders the invoice; {@code out} is flushed but left open for the caller to close.
+     */
+    public void render(String studentName, YearMonth period, List<OrderHistory> orders,
+                       LocalDateTime generatedAt, OutputStream out) throws IOException {
+        Document document = new Document(PageSize.A4);
+        try {
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            writer.setCloseStream(false);
+            document.open();
+
+            Paragraph title = new Paragraph("INVOICE", TITLE_FONT);
+            title.setAlignment(Element.ALIGN_CENTER);
+            document.add(title);
+            document.add(new Paragraph(" "));
+
+            document.add(new Paragraph("Invoice for: " + studentName, BOLD_FONT));
+            document.add(new Paragraph("Month: " + period.getMonthValue() + "/" + period.getYear(), NORMAL_FONT));
+            document.add(new Paragraph("Date Generated: " + generatedAt.format(DATE_TIME), NORMAL_FONT));
+            document.add(new Paragraph(" "));
+
+            PdfPTable table = new PdfPTable(COLUMNS.length);
+            table.setWidthPercentage(100);
+            // Antetul se repetă pe fiecare pagină; tabelul e scris în document pe bucăți
+            table.setHeaderRows(1);
+            table.setComplete(false);
+            for (String column : COLUMNS) {
+                PdfPCell header = new PdfPCell(new Phrase(column, BOLD_FONT));
+                header.setBackgroundColor(BaseColor.LIGHT_GRAY);
+                header.setBorderWidth(2);
+                table.addCell(header);
+            }
+
+            double total = 0;
+            int rows = 0;
+            for (OrderHistory order : orders) {
+                table.addCell(new Phrase(order.getMenuItemName(), NORMAL_FONT));
+                table.addCell(new Phrase(String.valueOf(order.getQuantity()), NORMAL_FONT));
+                table.addCell(new Phrase("$" + order.getPrice(), NORMAL_FONT));
+                table.addCell(new Phrase(order.getOrderTime().format(DATE_TIME), NORMAL_FONT));
+                total += order.getPrice();
+                if (++rows % ROWS_PER_SLICE == 0) {
+                    document.add(table);
+                }
+            }
+            table.setComplete(true);
+            document.add(table);
+            document.add(new Paragraph(" "));
+
+            Paragraph totalParagraph = new Paragraph("Total: $" + total, BOLD_FONT);
+            totalParagraph.setAlignment(Element.ALIGN_RIGHT);
+            document.add(totalParagraph);
+
+            Paragraph footer = new Paragraph("Thank you for your order!", NORMAL_FONT);
+            footer.setAlignment(Element.ALIGN_CENTER);
+            document.add(footer);
+        } catch (DocumentException e) {
+            throw new IOException("Failed to render invoice PDF", e);
+        } finally {
+            if (document.isOpen()) {
+                document.close();
+            }
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,199 @@
+package com.cafeteria.cafeteria_plugin.services;
+
+import com.cafeteria.cafeteria_plugin.models.OrderHistory;
+import com.cafeteria.cafeteria_plugin.models.Student;
+import com.cafeteria.cafeteria_plugin.repositories.OrderHistoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monthly invoices for students. The current (or a future) month is rendered on every request and
+ * streamed to the client. A closed month can no longer change, so its PDF is rendered once and
+ * kept under {@code invoice.storage.dir} as {@code objects/<sha-256>.pdf}, with a small
+ * {@code refs/<student>_<month>.ref} file pointing at it; repeat downloads are a file read, and the
+ * hash doubles as the ETag.
+ */
+@Service
+public class InvoiceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceService.class);
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final OrderHistoryRepository orderHistoryRepository;
+    private final InvoicePdfRenderer renderer;
+    private final Path objectsDir;
+    private final Path refsDir;
+    private final Clock clock;
+
+    private final Map<String, StoredInvoice> index = new ConcurrentHashMap<>();
+    // Două cereri pentru aceeași factură nu o generează de două ori
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    private final LongAdder streamed = new LongAdder();
+    private final LongAdder stored = new LongAdder();
+    private final LongAdder storeHits = new LongAdder();
+
+    @Autowired
+    public InvoiceService(OrderHistoryRepository orderHistoryRepository,
+                         InvoicePdfRenderer renderer,
+                         @Value("${invoice.storage.dir:${java.io.tmpdir}/cafeteria-invoices}") String storageDir) {
+        this(orderHistoryRepository, renderer, Paths.get(storageDir), Clock.systemDefaultZone());
+    }
+
+    InvoiceService(OrderHistoryRepository orderHistoryRepository, InvoicePdfRenderer renderer,
+                   Path storageDir, Clock clock) {
+        this.orderHistoryRepository = orderHistoryRepository;
+        this.renderer = renderer;
+        this.objectsDir = storageDir.resolve("objects");
+        this.refsDir = storageDir.resolve("refs");
+        this.clock = clock;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * A month is closed once it has ended; its orders, and therefore its invoice, no longer change.
+     */
+    public boolean isClosed(YearMonth period) {
+        return period.isBefore(YearMonth.now(clock));
+    }
+
+    public List<OrderHistory> getOrders(Student student, YearMonth period) {
+        LocalDateTime start = period.atDay(1).atStartOfDay();
+        LocalDateTime end = period.plusMonths(1).atDay(1).atStartOfDay().minusSeconds(1);
+        return orderHistoryRepository.findAllByStudentAndOrderTimeBetween(student, start, end);
+    }
+
+    /**
+     * Renders the invoice directly into {@code out}; used for months that are still open.
+     */
+    public void writeInvoice(Student student, YearMonth period, List<OrderHistory> orders, OutputStream out)
+            throws IOException {
+        renderer.render(student.getName(), period, orders, LocalDateTime.now(clock), out);
+        streamed.increment();
+    }
+
+    /**
+     * Returns the stored PDF of a closed month, rendering and storing it on first use.
+     */
+    public StoredInvoice getClosedMonthInvoice(Student student, YearMonth period) throws IOException {
+        if (!isClosed(period)) {
+            throw new IllegalArgumentException("Invoice for " + period + " can still change");
+        }
+        String key = student.getId() + "_" + period;
+        StoredInvoice known = index.get(key);
+        if (known != null && Files.exists(known.file())) {
+            storeHits.increment();
+            return known;
+        }
+        synchronized (locks[Math.floorMod(key.hashCode(), LOCK_STRIPES)]) {
+            StoredInvoice existing = readRef(key);
+            if (existing != null) {
+                index.put(key, existing);
+                storeHits.increment();
+                return existing;
+            }
+            StoredInvoice created = store(key, student, period);
+            index.put(key, created);
+            return created;
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("indexedInvoices", index.size());
+        metrics.put("streamed", streamed.sum());
+        metrics.put("stored", stored.sum());
+        metrics.put("servedFromStore", storeHits.sum());
+        metrics.put("storageDir", objectsDir.getParent().toAbsolutePath().toString());
+        return metrics;
+    }
+
+    private StoredInvoice store(String key, Student student, YearMonth period) throws IOException {
+        Files.createDirectories(objectsDir);
+        Files.createDirectories(refsDir);
+        List<OrderHistory> orders = getOrders(student, period);
+
+        Path temp = Files.createTempFile(objectsDir, "invoice-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            try (OutputStream out = new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)), digest)) {
+                renderer.render(student.getName(), period, orders, LocalDateTime.now(clock), out);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path file = objectsDir.resolve(hash + ".pdf");
+            if (!Files.exists(file)) {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            }
+            writeRef(key, hash);
+            stored.increment();
+            logger.info("Stored invoice {} for {} orders as {}", key, orders.size(), file.getFileName());
+            return new StoredInvoice(file, "\"" + hash + "\"", Files.size(file));
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private StoredInvoice readRef(String key) throws IOException {
+        Path ref = refsDir.resolve(key + ".ref");
+        if (!Files.exists(ref)) {
+            return null;
+        }
+        String hash = Files.readString(ref, StandardCharsets.US_ASCII).trim();
+        Path file = objectsDir.resolve(hash + ".pdf");
+        if (!Files.exists(file)) {
+            return null;
+        }
+        return new StoredInvoice(file, "\"" + hash + "\"", Files.size(file));
+    }
+
+    private void writeRef(String key, String hash) throws IOException {
+        Path temp = Files.createTempFile(refsDir, key, ".tmp");
+        try {
+            Files.writeString(temp, hash, StandardCharsets.US_ASCII);
+            Files.move(temp, refsDir.resolve(key + ".ref"), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A stored invoice file, its strong ETag (already quoted) and its size in bytes.
+     */
+    public record StoredInvoice(Path file, String etag, long size) {
+    }
+}
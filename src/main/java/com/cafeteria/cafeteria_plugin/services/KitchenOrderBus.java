@@ -0,0 +1,328 @@
+package com.cafeteria.cafeteria_plugin.services;
+
+import com.cafeteria.cafeteria_plugin.models.OrderHistory;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process fan-out of newly placed orders to the kitchen screens connected over SSE. Every order
+ * gets a sequence number that doubles as the SSE event id, and the most recent ones are kept so a
+ * screen that reconnects with {@code Last-Event-ID} receives what it missed. Each screen has its own
+ * bounded queue drained by a small sender pool; a screen that falls a full queue behind is
+ * disconnected rather than slowing the others down, and catches up on its next reconnect.
+ * <p>
+ * Other kitchen notices (such as stock alerts) travel on the same streams as named events. They
+ * carry no sequence and are not replayed: a reconnecting screen reloads that state instead.
+ */
+@Component
+public class KitchenOrderBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(KitchenOrderBus.class);
+
+    private static final Object HEARTBEAT = new Object();
+    private static final Object RESYNC = new Object();
+
+    private final int catchUpSize;
+    private final int maxSubscribers;
+    private final int queueSize;
+    private final long emitterTimeoutMillis;
+    private final Executor sender;
+
+    // Fereastra de recuperare și numărul de secvență se modifică doar sub acest lock,
+    // împreună cu punerea în cozi: fiecare ecran primește evenimentele în ordinea secvenței
+    private final Object lock = new Object();
+    private final ArrayDeque<KitchenOrder> recent = new ArrayDeque<>();
+    private long lastSequence;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder droppedSubscribers = new LongAdder();
+    private final LongAdder resyncs = new LongAdder();
+    private final LongAdder notices = new LongAdder();
+
+    @Autowired
+    public KitchenOrderBus(@Value("${kitchen.stream.catch-up-size:500}") int catchUpSize,
+                           @Value("${kitchen.stream.max-subscribers:100}") int maxSubscribers,
+                           @Value("${kitchen.stream.queue-size:512}") int queueSize,
+                           @Value("${kitchen.stream.timeout-ms:1800000}") long emitterTimeoutMillis,
+                           @Value("${kitchen.stream.sender-threads:2}") int senderThreads) {
+        this(catchUpSize, maxSubscribers, queueSize, emitterTimeoutMillis, newSenderPool(senderThreads));
+    }
+
+    KitchenOrderBus(int catchUpSize, int maxSubscribers, int queueSize, long emitterTimeoutMillis, Executor sender) {
+        // La reconectare toată fereastra trebuie să încapă în coada ecranului, lângă primul heartbeat
+        if (catchUpSize >= queueSize) {
+            throw new IllegalArgumentException("kitchen.stream.catch-up-size (" + catchUpSize
+                    + ") must be smaller than kitchen.stream.queue-size (" + queueSize + ")");
+        }
+        this.catchUpSize = catchUpSize;
+        this.maxSubscribers = maxSubscribers;
+        this.queueSize = queueSize;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.sender = sender;
+    }
+
+    /**
+     * Announces orders taken at the counter once they commit, so a screen never shows an order
+     * that was rolled back.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrdersPlaced(OrdersPlacedEvent event) {
+        if (!event.live() || event.orders().isEmpty()) {
+            return;
+        }
+        dispatch(event.orders().stream().map(KitchenOrder::of).toList());
+    }
+
+    /**
+     * Sends a named event to every connected screen. Unlike orders it is not numbered and not
+     * kept for screens that reconnect later.
+     */
+    public void publishEvent(String name, Object payload) {
+        NamedEvent event = new NamedEvent(name, payload);
+        List<Subscriber> ready = new ArrayList<>();
+        synchronized (lock) {
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.queue().offer(event)) {
+                    drop(subscriber);
+                }
+            }
+            ready.addAll(subscribers);
+        }
+        notices.increment();
+        ready.forEach(this::schedule);
+    }
+
+    /**
+     * Opens a stream for one kitchen screen.
+     *
+     * @param lastEventId the last sequence the screen saw, or {@code null} on a first connect
+     * @throws IllegalStateException if {@code kitchen.stream.max-subscribers} screens are connected
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        return subscribe(lastEventId, new SseEmitter(emitterTimeoutMillis));
+    }
+
+    SseEmitter subscribe(Long lastEventId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(queueSize));
+        synchronized (lock) {
+            if (subscribers.size() >= maxSubscribers) {
+                throw new IllegalStateException("Too many kitchen screens connected");
+            }
+            // Primul mesaj trimite antetele imediat, chiar dacă nu există comenzi noi
+            subscriber.queue().offer(HEARTBEAT);
+            if (lastEventId != null) {
+                enqueueMissed(subscriber, lastEventId);
+            }
+            subscribers.add(subscriber);
+        }
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        schedule(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Keeps idle connections open through proxies and notices screens that went away.
+     */
+    @Scheduled(fixedDelayString = "${kitchen.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.queue().offer(HEARTBEAT)) {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter().complete();
+        }
+        subscribers.clear();
+        if (sender instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("connectedScreens", subscribers.size());
+        metrics.put("maxScreens", maxSubscribers);
+        synchronized (lock) {
+            metrics.put("lastSequence", lastSequence);
+            metrics.put("catchUpWindow", recent.size());
+        }
+        metrics.put("published", published.sum());
+        metrics.put("delivered", delivered.sum());
+        metrics.put("droppedSlowScreens", droppedSubscribers.sum());
+        metrics.put("resyncs", resyncs.sum());
+        metrics.put("notices", notices.sum());
+        return metrics;
+    }
+
+    private void dispatch(List<KitchenOrder> orders) {
+        List<Subscriber> ready = new ArrayList<>();
+        synchronized (lock) {
+            for (KitchenOrder order : orders) {
+                KitchenOrder numbered = order.withSequence(++lastSequence);
+                recent.addLast(numbered);
+                if (recent.size() > catchUpSize) {
+                    recent.removeFirst();
+                }
+                for (Subscriber subscriber : subscribers) {
+                    if (!subscriber.queue().offer(numbered)) {
+                        drop(subscriber);
+                    }
+                }
+            }
+            ready.addAll(subscribers);
+        }
+        published.add(orders.size());
+        ready.forEach(this::schedule);
+    }
+
+    private void enqueueMissed(Subscriber subscriber, long lastEventId) {
+        if (lastEventId == lastSequence) {
+            return;
+        }
+        KitchenOrder oldest = recent.peekFirst();
+        if (lastEventId > lastSequence || oldest == null || lastEventId < oldest.sequence() - 1) {
+            // Golul e mai mare decât fereastra păstrată (sau serverul a repornit):
+            // ecranul trebuie să-și reîncarce lista
+            resyncs.increment();
+            subscriber.queue().offer(RESYNC);
+            return;
+        }
+        for (KitchenOrder order : recent) {
+            if (order.sequence() > lastEventId) {
+                subscriber.queue().offer(order);
+            }
+        }
+    }
+
+    private void drop(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            droppedSubscribers.increment();
+            logger.warn("Kitchen screen fell {} events behind, disconnecting it", queueSize);
+            subscriber.queue().clear();
+            subscriber.emitter().complete();
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled().compareAndSet(false, true)) {
+            try {
+                sender.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.scheduled().set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Object next;
+            while ((next = subscriber.queue().poll()) != null) {
+                subscriber.emitter().send(eventFor(next));
+                if (next instanceof KitchenOrder) {
+                    delivered.increment();
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Conexiune închisă de client sau emitter deja finalizat
+            subscribers.remove(subscriber);
+            subscriber.queue().clear();
+            return;
+        } finally {
+            subscriber.scheduled().set(false);
+        }
+        if (!subscriber.queue().isEmpty()) {
+            schedule(subscriber);
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder eventFor(Object item) {
+        if (item == HEARTBEAT) {
+            return SseEmitter.event().comment("keep-alive");
+        }
+        if (item == RESYNC) {
+            return SseEmitter.event().name("resync").data("reload", MediaType.TEXT_PLAIN);
+        }
+        if (item instanceof NamedEvent event) {
+            return SseEmitter.event().name(event.name()).data(event.payload(), MediaType.APPLICATION_JSON);
+        }
+        KitchenOrder order = (KitchenOrder) item;
+        return SseEmitter.event()
+                .id(Long.toString(order.sequence()))
+                .name("order")
+                .data(order, MediaType.APPLICATION_JSON);
+    }
+
+    private static ExecutorService newSenderPool(int threads) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "kitchen-sse-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private record NamedEvent(String name, Object payload) {
+    }
+
+    private record Subscriber(SseEmitter emitter, BlockingQueue<Object> queue, AtomicBoolean scheduled) {
+        Subscriber(SseEmitter emitter, BlockingQueue<Object> queue) {
+            this(emitter, queue, new AtomicBoolean());
+        }
+    }
+
+    /**
+     * What a kitchen screen shows for one order line.
+     */
+    public record KitchenOrder(long sequence, Long orderId, String menuItemName, Integer quantity,
+                               Long studentId, String studentName, LocalDateTime orderTime) {
+
+        static KitchenOrder of(OrderHistory order) {
+            return new KitchenOrder(0, order.getId(), order.getMenuItemName(), order.getQuantity(),
+                    order.getStudent() == null ? null : order.getStudent().getId(),
+                    order.getStudent() == null ? null : order.getStudent().getName(),
+                    order.getOrderTime());
+        }
+
+        KitchenOrder withSequence(long sequence) {
+            return new KitchenOrder(sequence, orderId, menuItemName, quantity, studentId, studentName, orderTime);
+        }
+    }
+}
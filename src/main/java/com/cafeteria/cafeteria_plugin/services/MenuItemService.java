@@ -1,59 +1,99 @@
 package com.cafeteria.cafeteria_plugin.services;
 
+import com.cafeteria.cafeteria_plugin.dtos.CartLineDTO;
 import com.cafeteria.cafeteria_plugin.models.*;
 import com.cafeteria.cafeteria_plugin.repositories.MenuItemRepository;
 import com.cafeteria.cafeteria_plugin.repositories.OrderHistoryRepository;
 import com.cafeteria.cafeteria_plugin.repositories.ParentRepository;
 import com.cafeteria.cafeteria_plugin.repositories.StudentRepository;
-import com.itextpdf.text.*;
-import com.itextpdf.text.pdf.PdfPCell;
-import com.itextpdf.text.pdf.PdfPTable;
-import com.itextpdf.text.pdf.PdfWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 
 @Service
 public class MenuItemService {
 
+    private static final Logger logger = LoggerFactory.getLogger(MenuItemService.class);
+
+    static final int MAX_QUANTITY_PER_ITEM = 100;
+
     private final MenuItemRepository menuItemRepository;
     private final OrderHistoryRepository orderHistoryRepository;
     private final ParentRepository parentRepository;
     private final StudentRepository studentRepository;
+    private final MenuStockLedger stockLedger;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MenuSnapshotCache menuSnapshotCache;
+    private final SalesRollupService salesRollupService;
+    private final PopularityTracker popularityTracker;
+    private final WalletService walletService;
+    private final AllergenDictionary allergenDictionary;
+    private final InventoryMonitor inventoryMonitor;
 
     public MenuItemService(MenuItemRepository menuItemRepository,
                            OrderHistoryRepository orderHistoryRepository,
                            ParentRepository parentRepository,
-                           StudentRepository studentRepository) {
+                           StudentRepository studentRepository,
+                           MenuStockLedger stockLedger,
+                           ApplicationEventPublisher eventPublisher,
+                           MenuSnapshotCache menuSnapshotCache,
+                           SalesRollupService salesRollupService,
+                           PopularityTracker popularityTracker,
+                           WalletService walletService,
+                           AllergenDictionary allergenDictionary,
+                           InventoryMonitor inventoryMonitor) {
         this.menuItemRepository = menuItemRepository;
         this.orderHistoryRepository = orderHistoryRepository;
         this.parentRepository = parentRepository;
         this.studentRepository = studentRepository;
+        this.stockLedger = stockLedger;
+        this.eventPublisher = eventPublisher;
+        this.menuSnapshotCache = menuSnapshotCache;
+        this.salesRollupService = salesRollupService;
+        this.popularityTracker = popularityTracker;
+        this.walletService = walletService;
+        this.allergenDictionary = allergenDictionary;
+        this.inventoryMonitor = inventoryMonitor;
     }
 
     // ✅ Adaugă un nou produs în meniu
     public MenuItem addMenuItem(MenuItem menuItem) {
-        return menuItemRepository.save(menuItem);
+        menuItem.setAllergenMask(allergenDictionary.maskOf(menuItem.getAllergens()));
+        MenuItem saved = menuItemRepository.save(menuItem);
+        stockLedger.reset(saved.getId(), saved.getQuantity());
+        inventoryMonitor.track(saved);
+        menuSnapshotCache.invalidate();
+        return saved;
     }
 
     // ✅ Returnează toate produsele din meniu
+    // Cantitatea vine din ledger: în DB poate rămâne în urmă cu un interval de scriere
     public List<MenuItem> getAllMenuItems() {
-        return menuItemRepository.findAll();
+        List<MenuItem> items = menuItemRepository.findAllWithAllergens();
+        items.forEach(item -> item.setQuantity(stockLedger.available(item.getId())));
+        return items;
     }
 
     // ✅ Returnează un produs după ID
     public Optional<MenuItem> getMenuItemById(Long id) {
-        return menuItemRepository.findById(id);
+        Optional<MenuItem> item = menuItemRepository.findById(id);
+        item.ifPresent(i -> i.setQuantity(stockLedger.available(i.getId())));
+        return item;
     }
 
     // ✅ Actualizează un produs
@@ -63,7 +103,17 @@ public class MenuItemService {
             existingMenuItem.setDescription(updatedMenuItem.getDescription());
             existingMenuItem.setPrice(updatedMenuItem.getPrice());
             existingMenuItem.setQuantity(updatedMenuItem.getQuantity());
-            return menuItemRepository.save(existingMenuItem);
+            // Lista de alergeni lipsă din cerere o păstrează pe cea existentă
+            if (updatedMenuItem.getAllergens() != null) {
+                existingMenuItem.setAllergens(new ArrayList<>(updatedMenuItem.getAllergens()));
+                existingMenuItem.setAllergenMask(allergenDictionary.maskOf(updatedMenuItem.getAllergens()));
+            }
+            MenuItem saved = menuItemRepository.save(existingMenuItem);
+            // Stocul setat de admin înlocuiește contorul din memorie
+            stockLedger.reset(id, saved.getQuantity());
+            inventoryMonitor.track(saved);
+            menuSnapshotCache.invalidate();
+            return saved;
         }).orElseThrow(() -> new IllegalArgumentException("MenuItem not found"));
     }
 
@@ -71,6 +121,9 @@ public class MenuItemService {
     public boolean deleteMenuItem(Long id) {
         if (menuItemRepository.existsById(id)) {
             menuItemRepository.deleteById(id);
+            stockLedger.remove(id);
+            inventoryMonitor.untrack(id);
+            menuSnapshotCache.invalidate();
             return true;
         }
         return false;
@@ -80,7 +133,10 @@ public class MenuItemService {
     public void updateMenuItemImage(Long id, String imageUrl) {
         menuItemRepository.findById(id).ifPresent(menuItem -> {
             menuItem.setImageUrl(imageUrl);
+            // Salvarea scrie tot rândul, deci nu trebuie să readucă o cantitate veche
+            menuItem.setQuantity(stockLedger.available(id));
             menuItemRepository.save(menuItem);
+            menuSnapshotCache.invalidate();
         });
     }
 
@@ -97,38 +153,127 @@ public class MenuItemService {
     public List<OrderHistory> getOrderHistoryForStudent(Long studentId, int month, int year) {
         Student student = studentRepository.findById(studentId)
                 .orElseThrow(() -> new IllegalArgumentException("Student not found"));
+        return getOrderHistoryForStudent(student, month, year);
+    }
+
+    // ✅ Istoricul comenzilor pentru un elev deja încărcat
+    public List<OrderHistory> getOrderHistoryForStudent(Student student, int month, int year) {
         LocalDateTime start = LocalDateTime.of(year, month, 1, 0, 0);
         LocalDateTime end = start.plusMonths(1).minusSeconds(1);
         return orderHistoryRepository.findAllByStudentAndOrderTimeBetween(student, start, end);
     }
 
     // ✅ Permite unui părinte să comande mâncare pentru un elev
+    @Transactional
     public void purchaseMenuItem(Long parentId, Long studentId, Long menuItemId, int quantity) {
         Parent parent = parentRepository.findById(parentId)
                 .orElseThrow(() -> new IllegalArgumentException("Parent not found"));
         Student student = studentRepository.findById(studentId)
                 .orElseThrow(() -> new IllegalArgumentException("Student not found"));
+        purchaseMenuItem(parent, student, menuItemId, quantity);
+    }
+
+    // ✅ Aceeași comandă, pentru entități deja încărcate (evită re-citirea părintelui și elevului)
+    // Comanda și plata din portofel se salvează în aceeași tranzacție
+    @Transactional
+    public void purchaseMenuItem(Parent parent, Student student, Long menuItemId, int quantity) {
+        if (parent == null) {
+            throw new IllegalArgumentException("Parent not found");
+        }
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        if (quantity > MAX_QUANTITY_PER_ITEM) {
+            throw new IllegalArgumentException("At most " + MAX_QUANTITY_PER_ITEM + " of each menu item per order");
+        }
         MenuItem menuItem = menuItemRepository.findById(menuItemId)
                 .orElseThrow(() -> new IllegalArgumentException("MenuItem not found"));
 
-        if (menuItem.getQuantity() < quantity) {
+        // Rezervarea se face atomic în memorie; stocul ajunge în DB la următoarea scriere în lot
+        if (!stockLedger.tryReserve(menuItemId, quantity)) {
             throw new IllegalArgumentException("Not enough stock available for " + menuItem.getName());
         }
 
-        // Scade cantitatea din stoc
-        menuItem.setQuantity(menuItem.getQuantity() - quantity);
-        menuItemRepository.save(menuItem);
-
         // Creează comanda
         OrderHistory order = new OrderHistory();
         order.setMenuItemName(menuItem.getName());
+        order.setMenuItemId(menuItemId);
         order.setPrice(menuItem.getPrice() * quantity);
         order.setQuantity(quantity);
         order.setOrderTime(LocalDateTime.now());
         order.setParent(parent);
         order.setStudent(student);
 
-        orderHistoryRepository.save(order);
+        // Stocul revine în ledger dacă tranzacția face rollback, chiar și la commit
+        stockLedger.commitOrRelease(Map.of(menuItemId, quantity), () -> {
+            orderHistoryRepository.save(order);
+            walletService.charge(parent.getId(), order.getPrice(), quantity + " x " + menuItem.getName());
+        });
+        // După commit comanda apare pe ecranele din bucătărie și intră în statistici și în prognoza stocului
+        eventPublisher.publishEvent(new OrdersPlacedEvent(List.of(order), true));
+    }
+
+    // ✅ Comandă cu mai multe produse: stocul se scade pentru toate liniile sau pentru niciuna
+    @Transactional
+    public CheckoutResult checkout(Parent parent, Student student, List<CartLineDTO> lines) {
+        if (parent == null) {
+            throw new IllegalArgumentException("Parent not found");
+        }
+        if (lines == null || lines.isEmpty()) {
+            throw new IllegalArgumentException("Cart is empty");
+        }
+
+        // Liniile cu același produs se cumulează; ordinea din coș se păstrează
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (CartLineDTO line : lines) {
+            if (line.getMenuItemId() == null || line.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Each line needs a menu item and a positive quantity");
+            }
+            // Fiecare linie și totalul pe produs sunt limitate, deci suma nu poate depăși un int
+            if (line.getQuantity() > MAX_QUANTITY_PER_ITEM
+                    || quantities.merge(line.getMenuItemId(), line.getQuantity(), Math::addExact) > MAX_QUANTITY_PER_ITEM) {
+                throw new IllegalArgumentException("At most " + MAX_QUANTITY_PER_ITEM + " of each menu item per order");
+            }
+        }
+
+        Map<Long, MenuItem> menuItems = menuItemRepository.findAllById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(MenuItem::getId, Function.identity()));
+        for (Long menuItemId : quantities.keySet()) {
+            if (!menuItems.containsKey(menuItemId)) {
+                throw new IllegalArgumentException("MenuItem not found: " + menuItemId);
+            }
+        }
+
+        Optional<Long> shortItem = stockLedger.tryReserveAll(quantities);
+        if (shortItem.isPresent()) {
+            throw new IllegalArgumentException("Not enough stock available for " + menuItems.get(shortItem.get()).getName());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderHistory> orders = new ArrayList<>();
+        quantities.forEach((menuItemId, quantity) -> {
+            MenuItem menuItem = menuItems.get(menuItemId);
+            OrderHistory order = new OrderHistory();
+            order.setMenuItemName(menuItem.getName());
+            order.setMenuItemId(menuItemId);
+            order.setPrice(menuItem.getPrice() * quantity);
+            order.setQuantity(quantity);
+            order.setOrderTime(now);
+            order.setParent(parent);
+            order.setStudent(student);
+            orders.add(order);
+        });
+
+        double total = orders.stream().mapToDouble(OrderHistory::getPrice).sum();
+        stockLedger.commitOrRelease(quantities, () -> {
+            orderHistoryRepository.insertAll(orders);
+            walletService.charge(parent.getId(), total, "Checkout: " + orders.size() + " items");
+        });
+        eventPublisher.publishEvent(new OrdersPlacedEvent(orders, true));
+        return new CheckoutResult(orders.size(), total);
+    }
+
+    public record CheckoutResult(int lines, double total) {
     }
 
     // ✅ Generează o factură pentru un elev
@@ -160,148 +305,61 @@ public class MenuItemService {
      * Get most popular menu items based on order count
      */
     public List<Map<String, Object>> getMostPopularItems(int limit) {
-        return orderHistoryRepository.findMostOrderedItems(limit);
+        return getMostPopularItems(PopularityTracker.Window.ALL_TIME, limit);
+    }
+
+    /**
+     * Get most popular menu items for today, this week, this month or all time, from memory
+     */
+    public List<Map<String, Object>> getMostPopularItems(PopularityTracker.Window window, int limit) {
+        return popularityTracker.topItems(window, limit);
     }
 
     /**
      * Get total revenue for a specific time period
      */
     public double getTotalRevenueForPeriod(int month, int year) {
-        LocalDateTime start = LocalDateTime.of(year, month, 1, 0, 0);
-        LocalDateTime end = start.plusMonths(1).minusSeconds(1);
-        return orderHistoryRepository.sumOrderPricesBetween(start, end);
+        LocalDate start = LocalDate.of(year, month, 1);
+        return salesRollupService.getRevenueBetween(start, start.plusMonths(1).minusDays(1));
     }
 
     /**
      * Get daily sales for a specific month
      */
     public List<Map<String, Object>> getDailySalesForMonth(int month, int year) {
-        LocalDateTime start = LocalDateTime.of(year, month, 1, 0, 0);
-        LocalDateTime end = start.plusMonths(1).minusSeconds(1);
-        return orderHistoryRepository.findDailySalesBetween(start, end);
+        LocalDate start = LocalDate.of(year, month, 1);
+        return salesRollupService.getDailySalesBetween(start, start.plusMonths(1).minusDays(1));
     }
 
     /**
      * Get students with the most orders
      */
     public List<Map<String, Object>> getTopStudentsByOrderCount(int limit) {
-        return orderHistoryRepository.findStudentsWithMostOrders(limit);
+        return getTopStudentsByOrderCount(PopularityTracker.Window.ALL_TIME, limit);
     }
 
     /**
-     * Get current inventory status
+     * Get students with the most orders in a window, from memory
      */
-    public List<Map<String, Object>> getInventoryStatus() {
-        List<MenuItem> items = menuItemRepository.findAll();
-        return items.stream()
-                .map(item -> {
-                    Map<String, Object> status = new HashMap<>();
-                    status.put("id", item.getId());
-                    status.put("name", item.getName());
-                    status.put("quantity", item.getQuantity());
-                    status.put("status", item.getQuantity() > 10 ? "In Stock" :
-                            (item.getQuantity() > 0 ? "Low Stock" : "Out of Stock"));
-                    return status;
-                })
-                .collect(Collectors.toList());
+    public List<Map<String, Object>> getTopStudentsByOrderCount(PopularityTracker.Window window, int limit) {
+        return popularityTracker.topStudents(window, limit);
     }
 
     /**
-     * Get orders count by allergen
+     * Get current inventory status, from the monitor's in-memory view (no table scan)
      */
-    public Map<String, Long> getOrderCountByAllergen() {
-        List<OrderHistory> allOrders = orderHistoryRepository.findAll();
-        return allOrders.stream()
-                .flatMap(order -> {
-                    Optional<MenuItem> menuItem = menuItemRepository.findByName(order.getMenuItemName());
-                    if (menuItem.isPresent() && menuItem.get().getAllergens() != null) {
-                        return menuItem.get().getAllergens().stream();
-                    }
-                    return Stream.empty();
-                })
-                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+    public List<Map<String, Object>> getInventoryStatus() {
+        return inventoryMonitor.getStatus();
     }
 
     /**
-     * Generate a PDF invoice for a student
+     * Get orders count by allergen
      */
-    public byte[] generateInvoicePDF(Long studentId, int month, int year) {
-        try {
-            List<OrderHistory> orders = getOrderHistoryForStudent(studentId, month, year);
-            double total = orders.stream().mapToDouble(OrderHistory::getPrice).sum();
-
-            // Get student details
-            Student student = studentRepository.findById(studentId)
-                    .orElseThrow(() -> new IllegalArgumentException("Student not found"));
-
-            // Create PDF document
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            Document document = new Document(PageSize.A4);
-            PdfWriter.getInstance(document, outputStream);
-
-            // Open document
-            document.open();
-
-            // Add title
-            Font titleFont = new Font(Font.FontFamily.HELVETICA, 18, Font.BOLD);
-            Paragraph title = new Paragraph("INVOICE", titleFont);
-            title.setAlignment(Element.ALIGN_CENTER);
-            document.add(title);
-            document.add(new Paragraph(" ")); // Add space
-
-            // Add invoice details
-            Font normalFont = new Font(Font.FontFamily.HELVETICA, 12);
-            Font boldFont = new Font(Font.FontFamily.HELVETICA, 12, Font.BOLD);
-
-            document.add(new Paragraph("Invoice for: " + student.getName(), boldFont));
-            document.add(new Paragraph("Month: " + month + "/" + year, normalFont));
-            document.add(new Paragraph("Date Generated: " + LocalDateTime.now().format(
-                    DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm")), normalFont));
-            document.add(new Paragraph(" ")); // Add space
-
-            // Create table for order items
-            PdfPTable table = new PdfPTable(4); // 4 columns
-            table.setWidthPercentage(100);
-
-            // Add table headers
-            Stream.of("Item", "Quantity", "Price", "Date")
-                    .forEach(columnTitle -> {
-                        PdfPCell header = new PdfPCell();
-                        header.setBackgroundColor(BaseColor.LIGHT_GRAY);
-                        header.setBorderWidth(2);
-                        header.setPhrase(new Phrase(columnTitle, boldFont));
-                        table.addCell(header);
-                    });
-
-            // Add data rows
-            DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
-            for (OrderHistory order : orders) {
-                table.addCell(new Phrase(order.getMenuItemName(), normalFont));
-                table.addCell(new Phrase(String.valueOf(order.getQuantity()), normalFont));
-                table.addCell(new Phrase("$" + order.getPrice(), normalFont));
-                table.addCell(new Phrase(order.getOrderTime().format(dateTimeFormatter), normalFont));
-            }
-
-            document.add(table);
-            document.add(new Paragraph(" ")); // Add space
-
-            // Add total
-            Paragraph totalParagraph = new Paragraph("Total: $" + total, boldFont);
-            totalParagraph.setAlignment(Element.ALIGN_RIGHT);
-            document.add(totalParagraph);
-
-            // Add footer
-            Paragraph footer = new Paragraph("Thank you for your order!", normalFont);
-            footer.setAlignment(Element.ALIGN_CENTER);
-            document.add(footer);
-
-            // Close document
-            document.close();
-
-            return outputStream.toByteArray();
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new RuntimeException("Failed to generate PDF invoice: " + e.getMessage());
+    public Map<String, Long> getOrderCountByAllergen() {
+        Map<String, Long> counts = new HashMap<>();
+        for (Object[] row : orderHistoryRepository.countOrdersByAllergen()) {
+            counts.put((String) row[0], ((Number) row[1]).longValue());
         }
+        return counts;
     }
 }
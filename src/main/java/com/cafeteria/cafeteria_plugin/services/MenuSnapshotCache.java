@@ -0,0 +1,268 @@
+package com.cafeteria.cafeteria_plugin.services;
+
+import com.cafeteria.cafeteria_plugin.models.MenuItem;
+import com.cafeteria.cafeteria_plugin.repositories.MenuItemRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ready-to-send JSON for {@code /menu/all} and {@code /menu/{id}}. The menu is loaded with its
+ * allergens in one query, serialized once and kept together with a strong ETag per body, so reads
+ * (and conditional reads answered with 304) touch neither the database nor Jackson.
+ * <p>
+ * Admin edits call {@link #invalidate()} and the next read rebuilds everything. Stock is not
+ * invalidated: on each read the cached quantities are compared with {@link MenuStockLedger}, and
+ * only items whose stock moved are serialized again.
+ * <p>
+ * The safe menu of a child is the same item bodies filtered by one AND of the item's allergen mask
+ * with the child's allergy mask. Filtered lists are kept per mask inside the snapshot, so they go
+ * away with it.
+ */
+@Component
+public class MenuSnapshotCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(MenuSnapshotCache.class);
+
+    // Câte meniuri filtrate păstrăm pe snapshot; un profil rar peste limită se filtrează la fiecare cerere
+    private static final int MAX_SAFE_MENUS = 256;
+
+    private final MenuItemRepository menuItemRepository;
+    private final MenuStockLedger stockLedger;
+    private final ObjectMapper objectMapper;
+
+    private volatile Snapshot snapshot;
+    // Crește la fiecare invalidare: o reconstrucție pornită înainte nu își mai publică rezultatul.
+    // Invalidarea și publicarea se fac sub publishLock, care nu e ținut în timpul citirii din DB
+    private final Object publishLock = new Object();
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+    private final LongAdder stockRefreshes = new LongAdder();
+    private final LongAdder safeMenuHits = new LongAdder();
+    private final LongAdder safeMenuBuilds = new LongAdder();
+
+    public MenuSnapshotCache(MenuItemRepository menuItemRepository, MenuStockLedger stockLedger, ObjectMapper objectMapper) {
+        this.menuItemRepository = menuItemRepository;
+        this.stockLedger = stockLedger;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * The whole menu, in id order.
+     */
+    public CachedJson all() {
+        return current().all();
+    }
+
+    /**
+     * The menu without the items that contain any allergen set in {@code allergyMask}, in id order.
+     * Items whose allergen mask is not known yet are left out unless the mask is empty.
+     */
+    public CachedJson safeFor(long allergyMask) {
+        Snapshot current = current();
+        if (allergyMask == 0) {
+            return current.all();
+        }
+        CachedJson cached = current.safeMenus().get(allergyMask);
+        if (cached != null) {
+            safeMenuHits.increment();
+            return cached;
+        }
+        List<Entry> safe = new ArrayList<>();
+        for (Entry entry : current.items().values()) {
+            Long itemMask = entry.item().getAllergenMask();
+            if (itemMask != null && (itemMask & allergyMask) == 0) {
+                safe.add(entry);
+            }
+        }
+        CachedJson built = concatenate(safe);
+        if (current.safeMenus().size() < MAX_SAFE_MENUS) {
+            current.safeMenus().putIfAbsent(allergyMask, built);
+        }
+        safeMenuBuilds.increment();
+        return built;
+    }
+
+    public Optional<CachedJson> item(Long id) {
+        Entry entry = current().items().get(id);
+        return entry == null ? Optional.empty() : Optional.of(entry.json());
+    }
+
+    /**
+     * Drops the snapshot after an admin change; the next read loads the menu again.
+     */
+    public void invalidate() {
+        synchronized (publishLock) {
+            generation++;
+            snapshot = null;
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        Snapshot current = snapshot;
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("cachedItems", current == null ? 0 : current.items().size());
+        metrics.put("etag", current == null ? null : current.all().etag());
+        metrics.put("hits", hits.sum());
+        metrics.put("rebuilds", rebuilds.sum());
+        metrics.put("stockRefreshes", stockRefreshes.sum());
+        metrics.put("cachedSafeMenus", current == null ? 0 : current.safeMenus().size());
+        metrics.put("safeMenuHits", safeMenuHits.sum());
+        metrics.put("safeMenuBuilds", safeMenuBuilds.sum());
+        return metrics;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return rebuild();
+        }
+        if (stockMoved(current)) {
+            return refreshStock();
+        }
+        hits.increment();
+        return current;
+    }
+
+    private synchronized Snapshot rebuild() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        long startedAt = generationNow();
+        Map<Long, Entry> items = new LinkedHashMap<>();
+        for (MenuItem item : menuItemRepository.findAllWithAllergens()) {
+            MenuItem copy = copyOf(item);
+            copy.setQuantity(stockLedger.available(item.getId()));
+            items.put(copy.getId(), entryFor(copy));
+        }
+        Snapshot built = new Snapshot(items, concatenate(items.values()), new ConcurrentHashMap<>());
+        publish(startedAt, null, built);
+        rebuilds.increment();
+        logger.debug("Menu snapshot rebuilt with {} items", items.size());
+        return built;
+    }
+
+    private synchronized Snapshot refreshStock() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return rebuild();
+        }
+        long startedAt = generationNow();
+        Map<Long, Entry> items = new LinkedHashMap<>(current.items());
+        boolean changed = false;
+        for (Map.Entry<Long, Entry> e : items.entrySet()) {
+            int available = stockLedger.available(e.getKey());
+            MenuItem item = e.getValue().item();
+            if (item.getQuantity() == null || item.getQuantity() != available) {
+                MenuItem copy = copyOf(item);
+                copy.setQuantity(available);
+                e.setValue(entryFor(copy));
+                changed = true;
+            }
+        }
+        if (!changed) {
+            return current;
+        }
+        Snapshot refreshed = new Snapshot(items, concatenate(items.values()), new ConcurrentHashMap<>());
+        publish(startedAt, current, refreshed);
+        stockRefreshes.increment();
+        return refreshed;
+    }
+
+    private long generationNow() {
+        synchronized (publishLock) {
+            return generation;
+        }
+    }
+
+    // Publică doar dacă nu a existat nicio invalidare de la începutul construcției; altfel rezultatul
+    // servește doar cererea curentă, iar următoarea citire reconstruiește
+    private void publish(long startedAt, Snapshot expected, Snapshot built) {
+        synchronized (publishLock) {
+            if (generation == startedAt && snapshot == expected) {
+                snapshot = built;
+            }
+        }
+    }
+
+    private boolean stockMoved(Snapshot current) {
+        for (Map.Entry<Long, Entry> e : current.items().entrySet()) {
+            Integer cached = e.getValue().item().getQuantity();
+            if (cached == null || cached != stockLedger.available(e.getKey())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Entry entryFor(MenuItem item) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(item);
+            return new Entry(item, new CachedJson(body, etagOf(body)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize menu item " + item.getId(), e);
+        }
+    }
+
+    // Lista e concatenarea corpurilor deja serializate: același JSON pe care l-ar produce Jackson
+    private static CachedJson concatenate(Collection<Entry> items) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write('[');
+        boolean first = true;
+        for (Entry entry : items) {
+            if (!first) {
+                out.write(',');
+            }
+            out.writeBytes(entry.json().body());
+            first = false;
+        }
+        out.write(']');
+        byte[] body = out.toByteArray();
+        return new CachedJson(body, etagOf(body));
+    }
+
+    private static String etagOf(byte[] body) {
+        return "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+    }
+
+    private static MenuItem copyOf(MenuItem item) {
+        MenuItem copy = new MenuItem();
+        copy.setId(item.getId());
+        copy.setName(item.getName());
+        copy.setDescription(item.getDescription());
+        copy.setPrice(item.getPrice());
+        copy.setImageUrl(item.getImageUrl());
+        copy.setQuantity(item.getQuantity());
+        copy.setAllergens(item.getAllergens() == null ? null : new ArrayList<>(item.getAllergens()));
+        copy.setAllergenMask(item.getAllergenMask());
+        return copy;
+    }
+
+    /**
+     * A serialized body and its strong ETag (already quoted).
+     */
+    public record CachedJson(byte[] body, String etag) {
+    }
+
+    private record Entry(MenuItem item, CachedJson json) {
+    }
+
+    private record Snapshot(Map<Long, Entry> items, CachedJson all, Map<Long, CachedJson> safeMenus) {
+    }
+}
@@ -0,0 +1,219 @@
+package com.cafeteria.cafeteria_plugin.services;
+
+import com.cafeteria.cafeteria_plugin.models.MenuItem;
+import com.cafeteria.cafeteria_plugin.repositories.MenuItemRepository;
+import com.cafeteria.cafeteria_plugin.util.TransactionCallbacks;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory source of truth for {@link MenuItem} stock. Purchases reserve units with a CAS on a
+ * per-item counter, so concurrent orders can neither oversell nor queue on the same row lock.
+ * Changed counters are written back in one batched {@code UPDATE} on a fixed delay; the ledger is
+ * loaded from {@link MenuItemRepository} at startup and reset whenever an admin edits an item.
+ * It assumes a single application instance owns the stock.
+ */
+@Component
+public class MenuStockLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(MenuStockLedger.class);
+
+    private static final String UPDATE_QUANTITY = "UPDATE menu_item SET quantity = ? WHERE id = ?";
+
+    private final MenuItemRepository menuItemRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, AtomicInteger> stock = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder reservations = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder flushedRows = new LongAdder();
+
+    public MenuStockLedger(MenuItemRepository menuItemRepository, JdbcTemplate jdbcTemplate) {
+        this.menuItemRepository = menuItemRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Reloads every counter from the database. Runs after the seeders, before traffic is served.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        stock.clear();
+        dirty.clear();
+        for (MenuItem item : menuItemRepository.findAll()) {
+            stock.put(item.getId(), new AtomicInteger(quantityOf(item)));
+        }
+        logger.info("Stock ledger loaded for {} menu items", stock.size());
+    }
+
+    /**
+     * Takes {@code quantity} units if that many are available; never lets the counter go negative.
+     */
+    public boolean tryReserve(Long menuItemId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        AtomicInteger counter = counterFor(menuItemId);
+        if (counter == null) {
+            return false;
+        }
+        while (true) {
+            int available = counter.get();
+            if (available < quantity) {
+                rejections.increment();
+                return false;
+            }
+            if (counter.compareAndSet(available, available - quantity)) {
+                dirty.add(menuItemId);
+                reservations.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Reserves every line or none: lines taken before a shortage are released again.
+     *
+     * @return the id of the first item without enough stock, or empty when everything was reserved
+     */
+    public Optional<Long> tryReserveAll(Map<Long, Integer> quantities) {
+        List<Map.Entry<Long, Integer>> reserved = new ArrayList<>();
+        try {
+            for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+                if (!tryReserve(line.getKey(), line.getValue())) {
+                    reserved.forEach(r -> release(r.getKey(), r.getValue()));
+                    return Optional.of(line.getKey());
+                }
+                reserved.add(line);
+            }
+        } catch (RuntimeException e) {
+            // Ex. citirea unui produs nou din DB a eșuat: nu lăsăm rezervate liniile deja luate
+            reserved.forEach(r -> release(r.getKey(), r.getValue()));
+            throw e;
+        }
+        return Optional.empty();
+    }
+
+    public void releaseAll(Map<Long, Integer> quantities) {
+        quantities.forEach(this::release);
+    }
+
+    /**
+     * Runs the work that saves an order for units already reserved, and gives the units back if
+     * the order does not persist. Inside a transaction the release happens on rollback, including a
+     * rollback that only occurs at commit time; outside one, as soon as {@code work} throws.
+     */
+    public void commitOrRelease(Map<Long, Integer> quantities, Runnable work) {
+        TransactionCallbacks.runOrUndo(work, () -> releaseAll(quantities));
+    }
+
+    /**
+     * Gives back units of a reservation whose order could not be saved.
+     */
+    public void release(Long menuItemId, int quantity) {
+        AtomicInteger counter = stock.get(menuItemId);
+        if (counter != null) {
+            counter.addAndGet(quantity);
+            dirty.add(menuItemId);
+        }
+    }
+
+    public int available(Long menuItemId) {
+        AtomicInteger counter = counterFor(menuItemId);
+        return counter == null ? 0 : counter.get();
+    }
+
+    /**
+     * Sets the counter to the quantity an admin just saved. The item is marked dirty so that a
+     * flush racing with the admin's save cannot leave the older value in the database.
+     */
+    public synchronized void reset(Long menuItemId, Integer quantity) {
+        stock.computeIfAbsent(menuItemId, id -> new AtomicInteger()).set(quantity == null ? 0 : quantity);
+        dirty.add(menuItemId);
+    }
+
+    public synchronized void remove(Long menuItemId) {
+        stock.remove(menuItemId);
+        dirty.remove(menuItemId);
+    }
+
+    /**
+     * Writes every changed counter in a single JDBC batch.
+     */
+    @Scheduled(fixedDelayString = "${menu.stock.flush-interval-ms:500}")
+    public synchronized int flush() {
+        if (dirty.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (Iterator<Long> it = dirty.iterator(); it.hasNext(); ) {
+            Long id = it.next();
+            // Scoatem id-ul înainte de a citi contorul: o rezervare ulterioară îl marchează din nou
+            it.remove();
+            AtomicInteger counter = stock.get(id);
+            if (counter != null) {
+                ids.add(id);
+                rows.add(new Object[]{counter.get(), id});
+            }
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_QUANTITY, rows);
+        } catch (RuntimeException e) {
+            dirty.addAll(ids);
+            logger.error("Failed to write back stock for {} menu items", ids.size(), e);
+            return 0;
+        }
+        flushedRows.add(rows.size());
+        return rows.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("trackedItems", stock.size());
+        metrics.put("pendingWrites", dirty.size());
+        metrics.put("reservations", reservations.sum());
+        metrics.put("rejectedReservations", rejections.sum());
+        metrics.put("flushedRows", flushedRows.sum());
+        return metrics;
+    }
+
+    private AtomicInteger counterFor(Long menuItemId) {
+        AtomicInteger counter = stock.get(menuItemId);
+        if (counter != null) {
+            return counter;
+        }
+        // Produs adăugat după încărcare (ex. de seeder): îl citim o singură dată din DB
+        return menuItemRepository.findById(menuItemId)
+                .map(item -> stock.computeIfAbsent(menuItemId, id -> new AtomicInteger(quantityOf(item))))
+                .orElse(null);
+    }
+
+    private static int quantityOf(MenuItem item) {
+        return item.getQuantity() == null ? 0 : item.getQuantity();
+    }
+}
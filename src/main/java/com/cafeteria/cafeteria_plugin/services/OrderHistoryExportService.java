@@ -0,0 +1,108 @@
+package com.cafeteria.cafeteria_plugin.services;
+
+import com.cafeteria.cafeteria_plugin.repositories.OrderExportRow;
+import com.cafeteria.cafeteria_plugin.repositories.OrderHistoryRepository;
+import com.cafeteria.cafeteria_plugin.util.Csv;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * CSV export of the order history for accounting. Rows come from a forward-only cursor and are
+ * written to the response as they are read, so memory use does not depend on the size of the
+ * export.
+ */
+@Service
+public class OrderHistoryExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderHistoryExportService.class);
+
+    static final String HEADER = "order_id,order_time,parent_id,parent_username,mother_name,father_name,"
+            + "student_id,student_name,menu_item,quantity,price\n";
+
+    private static final DateTimeFormatter ORDER_TIME = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final OrderHistoryRepository orderHistoryRepository;
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final LongAdder exports = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final AtomicLong lastExportMillis = new AtomicLong();
+
+    public OrderHistoryExportService(OrderHistoryRepository orderHistoryRepository) {
+        this.orderHistoryRepository = orderHistoryRepository;
+    }
+
+    /**
+     * Writes every order placed from {@code from} through {@code to} (both inclusive) to
+     * {@code out}, oldest first. The stream is flushed but not closed.
+     *
+     * @return the number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long writeCsv(LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        running.incrementAndGet();
+        long written = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        try (Stream<OrderExportRow> orders = orderHistoryRepository.streamForExport(
+                from.atStartOfDay(), to.plusDays(1).atStartOfDay())) {
+            writer.write(HEADER);
+            StringBuilder line = new StringBuilder(160);
+            for (OrderExportRow order : (Iterable<OrderExportRow>) orders::iterator) {
+                line.setLength(0);
+                appendRow(line, order);
+                writer.write(line.toString());
+                written++;
+            }
+            writer.flush();
+        } finally {
+            running.decrementAndGet();
+            rows.add(written);
+        }
+        exports.increment();
+        lastExportMillis.set(System.currentTimeMillis() - start);
+        logger.info("Exported {} order rows ({} to {}) in {} ms", written, from, to, lastExportMillis.get());
+        return written;
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("running", running.get());
+        metrics.put("completedExports", exports.sum());
+        metrics.put("rowsExported", rows.sum());
+        metrics.put("lastExportMs", lastExportMillis.get());
+        return metrics;
+    }
+
+    private static void appendRow(StringBuilder line, OrderExportRow order) {
+        line.append(order.getId()).append(',')
+                .append(order.getOrderTime() == null ? "" : ORDER_TIME.format(order.getOrderTime())).append(',')
+                .append(order.getParentId()).append(',')
+                .append(Csv.field(order.getParentUsername())).append(',')
+                .append(Csv.field(order.getMotherName())).append(',')
+                .append(Csv.field(order.getFatherName())).append(',')
+                .append(order.getStudentId()).append(',')
+                .append(Csv.field(order.getStudentName())).append(',')
+                .append(Csv.field(order.getMenuItemName())).append(',')
+                .append(order.getQuantity() == null ? "" : order.getQuantity()).append(',')
+                .append(order.getPrice() == null ? "" : order.getPrice()).append('\n');
+    }
+}
@@ -0,0 +1,15 @@
+package com.cafeteria.cafeteria_plugin.services;
+
+import com.cafeteria.cafeteria_plugin.models.OrderHistory;
+
+import java.util.List;
+
+/**
+ * Order lines just saved to {@code order_history}. Listeners take it with
+ * {@code @TransactionalEventListener(phase = AFTER_COMMIT, fallbackExecution = true)}, so an order
+ * that rolls back is never counted, shown or forecast. {@code live} is false for pre-orders moved
+ * into the history by the morning transfer: they count in the statistics but are not new work for
+ * the kitchen and were not taken from the live stock.
+ */
+public record OrdersPlacedEvent(List<OrderHistory> orders, boolean live) {
+}
@@ -6,6 +6,7 @@ import com.cafeteria.cafeteria_plugin.models.Student;
 import com.cafeteria.cafeteria_plugin.repositories.ParentRepository;
 import com.cafeteria.cafeteria_plugin.repositories.StudentRepository;
 import com.cafeteria.cafeteria_plugin.repositories.UserRepository;
+import com.cafeteria.cafeteria_plugin.security.TokenRevocationRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -29,6 +30,9 @@ public class ParentService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
     // ✅ Obține toți părinții
     public List<Parent> getAllParents() {
         return parentRepository.findAll();
@@ -56,6 +60,8 @@ public class ParentService {
         parentRepository.delete(parent);
 
         userRepository.deleteById(parent.getId());
+
+        tokenRevocationRegistry.revokeUser(parent.getId());
     }
 
 
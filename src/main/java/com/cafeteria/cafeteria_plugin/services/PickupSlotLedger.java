@@ -0,0 +1,234 @@
+package com.cafeteria.cafeteria_plugin.services;
+
+import com.cafeteria.cafeteria_plugin.repositories.PreOrderRepository;
+import com.cafeteria.cafeteria_plugin.util.TransactionCallbacks;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Capacity of the pickup slots for pre-orders, counted in portions. Each slot of each day has an
+ * in-memory counter taken with a CAS, so concurrent pre-orders can neither overbook a slot nor
+ * queue on one row lock; changed counters are written to {@code pickup_slots} in one batch on a
+ * fixed delay. At startup the counters are rebuilt from {@code pre_orders}, so a crash between
+ * two writes loses nothing. Like {@link MenuStockLedger}, it assumes a single application instance.
+ */
+@Component
+public class PickupSlotLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(PickupSlotLedger.class);
+
+    private static final String UPDATE_RESERVED =
+            "UPDATE pickup_slots SET reserved = ? WHERE pickup_date = ? AND slot_start = ?";
+    private static final String INSERT_RESERVED =
+            "INSERT INTO pickup_slots (pickup_date, slot_start, reserved) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PreOrderRepository preOrderRepository;
+    private final List<LocalTime> slots;
+    private final int capacity;
+    private final Clock clock;
+
+    private final Map<SlotKey, AtomicInteger> reserved = new ConcurrentHashMap<>();
+    private final Set<SlotKey> dirty = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder reservations = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder flushedRows = new LongAdder();
+
+    @Autowired
+    public PickupSlotLedger(JdbcTemplate jdbcTemplate,
+                            PreOrderRepository preOrderRepository,
+                            @Value("${preorder.slots:11:30,11:50,12:10,12:30,12:50}") String slots,
+                            @Value("${preorder.slot-capacity:80}") int capacity) {
+        this(jdbcTemplate, preOrderRepository, parseSlots(slots), capacity, Clock.systemDefaultZone());
+    }
+
+    PickupSlotLedger(JdbcTemplate jdbcTemplate, PreOrderRepository preOrderRepository,
+                     List<LocalTime> slots, int capacity, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.preOrderRepository = preOrderRepository;
+        this.slots = List.copyOf(slots);
+        this.capacity = capacity;
+        this.clock = clock;
+    }
+
+    /**
+     * Rebuilds the counters of today and later days from the saved pre-orders.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        reserved.clear();
+        for (Object[] row : preOrderRepository.sumQuantitiesBySlotFrom(LocalDate.now(clock))) {
+            SlotKey key = new SlotKey((LocalDate) row[0], (LocalTime) row[1]);
+            reserved.put(key, new AtomicInteger(((Number) row[2]).intValue()));
+            dirty.add(key);
+        }
+        logger.info("Pickup slot ledger loaded for {} slots", reserved.size());
+    }
+
+    public List<LocalTime> getSlots() {
+        return slots;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Books {@code portions} in the slot if that many are still free.
+     *
+     * @throws IllegalArgumentException if {@code slot} is not one of the configured pickup slots
+     */
+    public boolean tryReserve(LocalDate day, LocalTime slot, int portions) {
+        if (portions <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        if (!slots.contains(slot)) {
+            throw new IllegalArgumentException("Unknown pickup slot " + slot);
+        }
+        SlotKey key = new SlotKey(day, slot);
+        AtomicInteger counter = reserved.computeIfAbsent(key, k -> new AtomicInteger());
+        while (true) {
+            int taken = counter.get();
+            // Scris ca diferență: taken + portions ar putea depăși un int
+            if (portions > capacity - taken) {
+                rejections.increment();
+                return false;
+            }
+            if (counter.compareAndSet(taken, taken + portions)) {
+                dirty.add(key);
+                reservations.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Frees portions of a booking whose pre-order could not be saved.
+     */
+    public void release(LocalDate day, LocalTime slot, int portions) {
+        SlotKey key = new SlotKey(day, slot);
+        AtomicInteger counter = reserved.get(key);
+        if (counter != null) {
+            counter.addAndGet(-portions);
+            dirty.add(key);
+        }
+    }
+
+    /**
+     * Runs the work that saves a pre-order for portions already booked, and frees them if the
+     * pre-order does not persist. Inside a transaction the release happens on rollback, including a
+     * rollback that only occurs at commit time; outside one, as soon as {@code work} throws.
+     */
+    public void commitOrRelease(LocalDate day, LocalTime slot, int portions, Runnable work) {
+        TransactionCallbacks.runOrUndo(work, () -> release(day, slot, portions));
+    }
+
+    /**
+     * Free portions in every slot of {@code day}, in slot order.
+     */
+    public Map<LocalTime, Integer> remaining(LocalDate day) {
+        Map<LocalTime, Integer> remaining = new LinkedHashMap<>();
+        for (LocalTime slot : slots) {
+            AtomicInteger counter = reserved.get(new SlotKey(day, slot));
+            remaining.put(slot, capacity - (counter == null ? 0 : counter.get()));
+        }
+        return remaining;
+    }
+
+    /**
+     * Writes every changed counter in one batch and forgets the days that have passed.
+     */
+    @Scheduled(fixedDelayString = "${preorder.slot-flush-interval-ms:1000}")
+    public synchronized int flush() {
+        LocalDate today = LocalDate.now(clock);
+        reserved.keySet().removeIf(key -> key.day().isBefore(today) && !dirty.contains(key));
+        if (dirty.isEmpty()) {
+            return 0;
+        }
+        List<SlotKey> keys = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (Iterator<SlotKey> it = dirty.iterator(); it.hasNext(); ) {
+            SlotKey key = it.next();
+            // Scoatem cheia înainte de a citi contorul: o rezervare ulterioară o marchează din nou
+            it.remove();
+            AtomicInteger counter = reserved.get(key);
+            if (counter != null) {
+                keys.add(key);
+                rows.add(new Object[]{counter.get(), Date.valueOf(key.day()), Time.valueOf(key.slot())});
+            }
+        }
+        try {
+            int[] updated = jdbcTemplate.batchUpdate(UPDATE_RESERVED, rows);
+            List<Object[]> inserts = new ArrayList<>();
+            for (int i = 0; i < rows.size(); i++) {
+                if (updated[i] == 0) {
+                    Object[] row = rows.get(i);
+                    inserts.add(new Object[]{row[1], row[2], row[0]});
+                }
+            }
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_RESERVED, inserts);
+            }
+        } catch (RuntimeException e) {
+            dirty.addAll(keys);
+            logger.error("Failed to write pickup slot counters for {} slots", keys.size(), e);
+            return 0;
+        }
+        flushedRows.add(rows.size());
+        return rows.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("slotsPerDay", slots.size());
+        metrics.put("slotCapacity", capacity);
+        metrics.put("trackedSlots", reserved.size());
+        metrics.put("pendingWrites", dirty.size());
+        metrics.put("reservations", reservations.sum());
+        metrics.put("rejectedReservations", rejections.sum());
+        metrics.put("flushedRows", flushedRows.sum());
+        return metrics;
+    }
+
+    private static List<LocalTime> parseSlots(String slots) {
+        return Arrays.stream(slots.split(","))
+                .map(String::trim)
+                .filter(slot -> !slot.isEmpty())
+                .map(LocalTime::parse)
+                .sorted()
+                .toList();
+    }
+
+    private record SlotKey(LocalDate day, LocalTime slot) {
+    }
+}
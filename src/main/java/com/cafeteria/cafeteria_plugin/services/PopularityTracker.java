@@ -0,0 +1,247 @@
+package com.cafeteria.cafeteria_plugin.services;
+
+import com.cafeteria.cafeteria_plugin.models.OrderHistory;
+import com.cafeteria.cafeteria_plugin.util.SpaceSavingSketch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+/**
+ * Live top-K of menu items and students by number of order lines, for today, this week (from
+ * Monday), this month and all time. Each window is a {@link SpaceSavingSketch} fed from the
+ * purchase path after commit and started afresh when its calendar period rolls over, so dashboard
+ * reads never touch the database. The sketches are seeded from {@code order_history} at startup.
+ */
+@Component
+public class PopularityTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(PopularityTracker.class);
+
+    public enum Window { TODAY, WEEK, MONTH, ALL_TIME }
+
+    private static final String ITEMS_ALL_TIME =
+            "SELECT menu_item_name AS name, COUNT(*) AS orders FROM order_history GROUP BY menu_item_name";
+    private static final String ITEMS_BY_DAY_SINCE =
+            "SELECT CAST(order_time AS DATE) AS order_day, menu_item_name AS name, COUNT(*) AS orders "
+                    + "FROM order_history WHERE order_time >= ? GROUP BY CAST(order_time AS DATE), menu_item_name";
+    private static final String STUDENTS_ALL_TIME =
+            "SELECT oh.student_id AS id, s.name AS name, COUNT(*) AS orders "
+                    + "FROM order_history oh JOIN students s ON s.id = oh.student_id GROUP BY oh.student_id, s.name";
+    private static final String STUDENTS_BY_DAY_SINCE =
+            "SELECT CAST(order_time AS DATE) AS order_day, student_id AS id, COUNT(*) AS orders "
+                    + "FROM order_history WHERE order_time >= ? GROUP BY CAST(order_time AS DATE), student_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+
+    private final Dimension<String> items;
+    private final Dimension<Long> students;
+    private final Map<Long, String> studentNames = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PopularityTracker(JdbcTemplate jdbcTemplate,
+                             @Value("${analytics.popularity.items-capacity:256}") int itemsCapacity,
+                             @Value("${analytics.popularity.students-capacity:1024}") int studentsCapacity) {
+        this(jdbcTemplate, itemsCapacity, studentsCapacity, Clock.systemDefaultZone());
+    }
+
+    PopularityTracker(JdbcTemplate jdbcTemplate, int itemsCapacity, int studentsCapacity, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+        this.items = new Dimension<>(SpaceSavingSketch::new, itemsCapacity);
+        this.students = new Dimension<>(SpaceSavingSketch::new, studentsCapacity);
+    }
+
+    /**
+     * Counts saved order lines once they commit.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrdersPlaced(OrdersPlacedEvent event) {
+        if (event.orders().isEmpty()) {
+            return;
+        }
+        List<Hit> hits = new ArrayList<>(event.orders().size());
+        for (OrderHistory order : event.orders()) {
+            Long studentId = order.getStudent() == null ? null : order.getStudent().getId();
+            if (studentId != null && order.getStudent().getName() != null) {
+                studentNames.put(studentId, order.getStudent().getName());
+            }
+            hits.add(new Hit(order.getOrderTime().toLocalDate(), order.getMenuItemName(), studentId));
+        }
+        add(hits);
+    }
+
+    /**
+     * Most ordered items in the window, as {@code name}, {@code count} and {@code error} (the
+     * most the count can overstate).
+     */
+    public List<Map<String, Object>> topItems(Window window, int limit) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (SpaceSavingSketch.Estimate<String> estimate : items.sketch(window, today()).top(limit)) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("name", estimate.key());
+            row.put("count", estimate.count());
+            row.put("error", estimate.error());
+            result.add(row);
+        }
+        return result;
+    }
+
+    /**
+     * Students with the most order lines in the window, as {@code name}, {@code orderCount} and
+     * {@code error}.
+     */
+    public List<Map<String, Object>> topStudents(Window window, int limit) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (SpaceSavingSketch.Estimate<Long> estimate : students.sketch(window, today()).top(limit)) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("name", studentNames.getOrDefault(estimate.key(), "#" + estimate.key()));
+            row.put("orderCount", estimate.count());
+            row.put("error", estimate.error());
+            result.add(row);
+        }
+        return result;
+    }
+
+    /**
+     * Seeds every window from the order history; the only time this component reads the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+        LocalDate today = today();
+        LocalDate since = windowStart(Window.WEEK, today).isBefore(windowStart(Window.MONTH, today))
+                ? windowStart(Window.WEEK, today)
+                : windowStart(Window.MONTH, today);
+        Timestamp sinceTimestamp = Timestamp.valueOf(since.atStartOfDay());
+
+        synchronized (this) {
+            items.reset(today);
+            students.reset(today);
+            jdbcTemplate.query(ITEMS_ALL_TIME, rs -> {
+                items.offerAllTime(rs.getString("name"), rs.getLong("orders"));
+            });
+            jdbcTemplate.query(ITEMS_BY_DAY_SINCE, rs -> {
+                items.offerDated(rs.getDate("order_day").toLocalDate(), rs.getString("name"), rs.getLong("orders"), today);
+            }, sinceTimestamp);
+            jdbcTemplate.query(STUDENTS_ALL_TIME, rs -> {
+                studentNames.put(rs.getLong("id"), rs.getString("name"));
+                students.offerAllTime(rs.getLong("id"), rs.getLong("orders"));
+            });
+            jdbcTemplate.query(STUDENTS_BY_DAY_SINCE, rs -> {
+                students.offerDated(rs.getDate("order_day").toLocalDate(), rs.getLong("id"), rs.getLong("orders"), today);
+            }, sinceTimestamp);
+        }
+        logger.info("Popularity sketches loaded in {} ms", System.currentTimeMillis() - start);
+    }
+
+    public Map<String, Object> getMetrics() {
+        LocalDate today = today();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        for (Window window : Window.values()) {
+            SpaceSavingSketch<String> itemSketch = items.sketch(window, today);
+            SpaceSavingSketch<Long> studentSketch = students.sketch(window, today);
+            Map<String, Object> windowMetrics = new LinkedHashMap<>();
+            windowMetrics.put("orderLines", itemSketch.total());
+            windowMetrics.put("trackedItems", itemSketch.size());
+            windowMetrics.put("trackedStudents", studentSketch.size());
+            metrics.put(window.name().toLowerCase(), windowMetrics);
+        }
+        return metrics;
+    }
+
+    private synchronized void add(List<Hit> hits) {
+        LocalDate today = today();
+        for (Hit hit : hits) {
+            items.offerAllTime(hit.menuItemName(), 1);
+            items.offerDated(hit.day(), hit.menuItemName(), 1, today);
+            if (hit.studentId() != null) {
+                students.offerAllTime(hit.studentId(), 1);
+                students.offerDated(hit.day(), hit.studentId(), 1, today);
+            }
+        }
+    }
+
+    private LocalDate today() {
+        return LocalDate.now(clock);
+    }
+
+    private static LocalDate windowStart(Window window, LocalDate today) {
+        return switch (window) {
+            case TODAY -> today;
+            case WEEK -> today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> today.withDayOfMonth(1);
+            case ALL_TIME -> LocalDate.MIN;
+        };
+    }
+
+    private record Hit(LocalDate day, String menuItemName, Long studentId) {
+    }
+
+    private record Period<K>(LocalDate start, SpaceSavingSketch<K> sketch) {
+    }
+
+    /**
+     * One sketch per window for one kind of key; a window whose period has passed is replaced
+     * with an empty sketch the next time it is touched.
+     */
+    private static final class Dimension<K> {
+        private final IntFunction<SpaceSavingSketch<K>> factory;
+        private final int capacity;
+        private final Map<Window, Period<K>> periods = new EnumMap<>(Window.class);
+
+        private Dimension(IntFunction<SpaceSavingSketch<K>> factory, int capacity) {
+            this.factory = factory;
+            this.capacity = capacity;
+        }
+
+        synchronized void reset(LocalDate today) {
+            for (Window window : Window.values()) {
+                periods.put(window, new Period<>(windowStart(window, today), factory.apply(capacity)));
+            }
+        }
+
+        synchronized SpaceSavingSketch<K> sketch(Window window, LocalDate today) {
+            LocalDate start = windowStart(window, today);
+            Period<K> period = periods.get(window);
+            if (period == null || !period.start().equals(start)) {
+                period = new Period<>(start, factory.apply(capacity));
+                periods.put(window, period);
+            }
+            return period.sketch();
+        }
+
+        void offerAllTime(K key, long weight) {
+            sketch(Window.ALL_TIME, LocalDate.MIN).offer(key, weight);
+        }
+
+        // O comandă intră în fiecare fereastră calendaristică ce conține ziua ei
+        void offerDated(LocalDate day, K key, long weight, LocalDate today) {
+            for (Window window : new Window[]{Window.TODAY, Window.WEEK, Window.MONTH}) {
+                if (!day.isBefore(windowStart(window, today))) {
+                    sketch(window, today).offer(key, weight);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.cafeteria.cafeteria_plugin.services;
+
+import com.cafeteria.cafeteria_plugin.dtos.CartLineDTO;
+import com.cafeteria.cafeteria_plugin.models.MenuItem;
+import com.cafeteria.cafeteria_plugin.models.OrderHistory;
+import com.cafeteria.cafeteria_plugin.models.Parent;
+import com.cafeteria.cafeteria_plugin.models.PreOrder;
+import com.cafeteria.cafeteria_plugin.models.Student;
+import com.cafeteria.cafeteria_plugin.repositories.MenuItemRepository;
+import com.cafeteria.cafeteria_plugin.repositories.OrderHistoryRepository;
+import com.cafeteria.cafeteria_plugin.repositories.PreOrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Orders placed ahead for a later day and a pickup slot. Pre-orders do not touch the live stock
+ * counters; the kitchen cooks them from the prep sheet, and on the pickup day they are copied into
+ * the order history so invoices and sales reports include them.
+ */
+@Service
+public class PreOrderService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PreOrderService.class);
+
+    private final PreOrderRepository preOrderRepository;
+    private final MenuItemRepository menuItemRepository;
+    private final OrderHistoryRepository orderHistoryRepository;
+    private final PickupSlotLedger slotLedger;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WalletService walletService;
+    private final int maxDaysAhead;
+    private final LocalTime cutoff;
+    private final Clock clock;
+
+    @Autowired
+    public PreOrderService(PreOrderRepository preOrderRepository,
+                           MenuItemRepository menuItemRepository,
+                           OrderHistoryRepository orderHistoryRepository,
+                           PickupSlotLedger slotLedger,
+                           ApplicationEventPublisher eventPublisher,
+                           WalletService walletService,
+                           @Value("${preorder.max-days-ahead:7}") int maxDaysAhead,
+                           @Value("${preorder.cutoff:20:00}") String cutoff) {
+        this(preOrderRepository, menuItemRepository, orderHistoryRepository, slotLedger, eventPublisher,
+                walletService, maxDaysAhead, LocalTime.parse(cutoff), Clock.systemDefaultZone());
+    }
+
+    PreOrderService(PreOrderRepository preOrderRepository, MenuItemRepository menuItemRepository,
+                    OrderHistoryRepository orderHistoryRepository, PickupSlotLedger slotLedger,
+                    ApplicationEventPublisher eventPublisher, WalletService walletService, int maxDaysAhead, LocalTime cutoff, Clock clock) {
+        this.preOrderRepository = preOrderRepository;
+        this.menuItemRepository = menuItemRepository;
+        this.orderHistoryRepository = orderHistoryRepository;
+        this.slotLedger = slotLedger;
+        this.eventPublisher = eventPublisher;
+        this.walletService = walletService;
+        this.maxDaysAhead = maxDaysAhead;
+        this.cutoff = cutoff;
+        this.clock = clock;
+    }
+
+    // ✅ Precomandă pentru o zi viitoare: toate liniile intră în același slot de ridicare
+    @Transactional
+    public PreOrderResult placePreOrder(Parent parent, Student student, LocalDate pickupDate, LocalTime slot,
+                                        List<CartLineDTO> lines) {
+        if (parent == null) {
+            throw new IllegalArgumentException("Parent not found");
+        }
+        if (pickupDate == null || slot == null) {
+            throw new IllegalArgumentException("Pickup date and slot are required");
+        }
+        if (lines == null || lines.isEmpty()) {
+            throw new IllegalArgumentException("Cart is empty");
+        }
+        checkOrderable(pickupDate);
+
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (CartLineDTO line : lines) {
+            if (line.getMenuItemId() == null || line.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Each line needs a menu item and a positive quantity");
+            }
+            // Aceeași limită pe produs ca la comenzile din ziua curentă; sumele rămân mult sub un int
+            if (line.getQuantity() > MenuItemService.MAX_QUANTITY_PER_ITEM
+                    || quantities.merge(line.getMenuItemId(), line.getQuantity(), Math::addExact)
+                    > MenuItemService.MAX_QUANTITY_PER_ITEM) {
+                throw new IllegalArgumentException(
+                        "At most " + MenuItemService.MAX_QUANTITY_PER_ITEM + " of each menu item per order");
+            }
+        }
+        Map<Long, MenuItem> menuItems = menuItemRepository.findAllById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(MenuItem::getId, Function.identity()));
+        for (Long menuItemId : quantities.keySet()) {
+            if (!menuItems.containsKey(menuItemId)) {
+                throw new IllegalArgumentException("MenuItem not found: " + menuItemId);
+            }
+        }
+
+        // Capacitatea slotului se ia atomic în memorie; ajunge în DB la următoarea scriere în lot
+        int portions = quantities.values().stream().reduce(0, Math::addExact);
+        if (!slotLedger.tryReserve(pickupDate, slot, portions)) {
+            throw new IllegalArgumentException("Pickup slot " + slot + " on " + pickupDate + " is full");
+        }
+
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<PreOrder> preOrders = new ArrayList<>();
+        quantities.forEach((menuItemId, quantity) -> {
+            MenuItem menuItem = menuItems.get(menuItemId);
+            PreOrder preOrder = new PreOrder();
+            preOrder.setPickupDate(pickupDate);
+            preOrder.setSlotStart(slot);
+            preOrder.setMenuItemId(menuItemId);
+            preOrder.setMenuItemName(menuItem.getName());
+            preOrder.setPrice(menuItem.getPrice() * quantity);
+            preOrder.setQuantity(quantity);
+            preOrder.setCreatedAt(now);
+            preOrder.setParent(parent);
+            preOrder.setStudent(student);
+            preOrders.add(preOrder);
+        });
+
+        double total = preOrders.stream().mapToDouble(PreOrder::getPrice).sum();
+        // Locurile revin în slot dacă tranzacția face rollback, chiar și la commit
+        slotLedger.commitOrRelease(pickupDate, slot, portions, () -> {
+            preOrderRepository.saveAll(preOrders);
+            // Precomanda se plătește când e plasată; transferul în istoric nu mai taxează
+            walletService.charge(parent.getId(), total, "Pre-order for " + pickupDate + " " + slot);
+        });
+        return new PreOrderResult(preOrders.size(), portions, total);
+    }
+
+    public record PreOrderResult(int lines, int portions, double total) {
+    }
+
+    // ✅ Locurile libere pe fiecare slot al unei zile
+    public List<Map<String, Object>> getSlotAvailability(LocalDate day) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        slotLedger.remaining(day).forEach((slot, remaining) -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("slot", slot);
+            row.put("capacity", slotLedger.getCapacity());
+            row.put("remaining", Math.max(0, remaining));
+            result.add(row);
+        });
+        return result;
+    }
+
+    // ✅ Fișa de preparare pentru bucătari: cantitatea totală pe slot și produs
+    public List<Map<String, Object>> getPrepSheet(LocalDate day) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Object[] row : preOrderRepository.sumQuantitiesBySlotAndItem(day)) {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("slot", row[0]);
+            line.put("menuItemId", row[1]);
+            line.put("menuItemName", row[2]);
+            line.put("quantity", ((Number) row[3]).longValue());
+            result.add(line);
+        }
+        return result;
+    }
+
+    // ✅ Precomenzile încă neridicate ale unui elev
+    public List<Map<String, Object>> getUpcomingPreOrders(Student student) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (PreOrder preOrder : preOrderRepository
+                .findAllByStudentAndPickupDateGreaterThanEqualOrderByPickupDateAscSlotStartAsc(student, LocalDate.now(clock))) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", preOrder.getId());
+            row.put("pickupDate", preOrder.getPickupDate());
+            row.put("slot", preOrder.getSlotStart());
+            row.put("menuItemName", preOrder.getMenuItemName());
+            row.put("quantity", preOrder.getQuantity());
+            row.put("price", preOrder.getPrice());
+            result.add(row);
+        }
+        return result;
+    }
+
+    /**
+     * Copies the pre-orders due today (and any missed earlier) into the order history, timed at
+     * their pickup slot, in one batch.
+     */
+    @Scheduled(cron = "${preorder.transfer-cron:0 0 6 * * *}")
+    @Transactional
+    public int transferDuePreOrders() {
+        List<PreOrder> due = preOrderRepository.findDueForTransfer(LocalDate.now(clock));
+        if (due.isEmpty()) {
+            return 0;
+        }
+        List<OrderHistory> orders = new ArrayList<>(due.size());
+        for (PreOrder preOrder : due) {
+            OrderHistory order = new OrderHistory();
+            order.setMenuItemName(preOrder.getMenuItemName());
+            order.setMenuItemId(preOrder.getMenuItemId());
+            order.setPrice(preOrder.getPrice());
+            order.setQuantity(preOrder.getQuantity());
+            order.setOrderTime(preOrder.getPickupDate().atTime(preOrder.getSlotStart()));
+            order.setParent(preOrder.getParent());
+            order.setStudent(preOrder.getStudent());
+            orders.add(order);
+        }
+        orderHistoryRepository.insertAll(orders);
+        preOrderRepository.markTransferred(due.stream().map(PreOrder::getId).toList());
+        // Precomenzile intră în statistici; nu sunt comenzi noi pentru ecranele bucătăriei
+        eventPublisher.publishEvent(new OrdersPlacedEvent(orders, false));
+        logger.info("Moved {} pre-order lines into the order history", orders.size());
+        return orders.size();
+    }
+
+    private void checkOrderable(LocalDate pickupDate) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDate today = now.toLocalDate();
+        // Ziua următoare se închide la ora limită, ca bucătăria să poată planifica
+        LocalDate earliest = now.toLocalTime().isBefore(cutoff) ? today.plusDays(1) : today.plusDays(2);
+        if (pickupDate.isBefore(earliest)) {
+            throw new IllegalArgumentException("Pre-orders for " + pickupDate + " are closed");
+        }
+        if (pickupDate.isAfter(today.plusDays(maxDaysAhead))) {
+            throw new IllegalArgumentException("Pre-orders open at most " + maxDaysAhead + " days ahead");
+        }
+    }
+}
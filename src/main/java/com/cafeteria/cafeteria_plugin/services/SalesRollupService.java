@@ -0,0 +1,348 @@
+package com.cafeteria.cafeteria_plugin.services;
+
+import com.cafeteria.cafeteria_plugin.models.DailyItemSales;
+import com.cafeteria.cafeteria_plugin.models.MonthlyStudentSales;
+import com.cafeteria.cafeteria_plugin.models.OrderHistory;
+import com.cafeteria.cafeteria_plugin.repositories.DailyItemSalesRepository;
+import com.cafeteria.cafeteria_plugin.repositories.MonthlyStudentSalesRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps {@link DailyItemSales} and {@link MonthlyStudentSales} in step with {@link OrderHistory}
+ * and answers the sales reports from them. Committed orders are summed in memory and written as
+ * one batch of increments on a fixed delay, so a burst of purchases on the same item does not
+ * queue on one rollup row. Totals are rebuilt from the order history at startup, which also covers
+ * increments lost on a crash, and every night for closed days and months.
+ */
+@Service
+public class SalesRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesRollupService.class);
+
+    private static final String UPDATE_DAILY =
+            "UPDATE daily_item_sales SET order_count = order_count + ?, quantity = quantity + ?, revenue = revenue + ? "
+                    + "WHERE sales_day = ? AND menu_item_name = ?";
+    private static final String INSERT_DAILY =
+            "INSERT INTO daily_item_sales (sales_day, menu_item_name, order_count, quantity, revenue) VALUES (?, ?, ?, ?, ?)";
+    private static final String UPDATE_MONTHLY =
+            "UPDATE monthly_student_sales SET order_count = order_count + ?, revenue = revenue + ? "
+                    + "WHERE sales_month = ? AND student_id = ?";
+    private static final String INSERT_MONTHLY =
+            "INSERT INTO monthly_student_sales (sales_month, student_id, order_count, revenue) VALUES (?, ?, ?, ?)";
+
+    private static final String REBUILD_DAILY =
+            "INSERT INTO daily_item_sales (sales_day, menu_item_name, order_count, quantity, revenue) "
+                    + "SELECT CAST(order_time AS DATE), menu_item_name, COUNT(*), COALESCE(SUM(quantity), 0), COALESCE(SUM(price), 0) "
+                    + "FROM order_history WHERE order_time < ? AND id <= ? "
+                    + "GROUP BY CAST(order_time AS DATE), menu_item_name";
+    private static final String REBUILD_MONTHLY =
+            "INSERT INTO monthly_student_sales (sales_month, student_id, order_count, revenue) "
+                    + "SELECT CAST(DATE_TRUNC('MONTH', order_time) AS DATE), student_id, COUNT(*), COALESCE(SUM(price), 0) "
+                    + "FROM order_history WHERE order_time < ? AND id <= ? "
+                    + "GROUP BY CAST(DATE_TRUNC('MONTH', order_time) AS DATE), student_id";
+    private static final String MAX_ORDER_ID = "SELECT COALESCE(MAX(id), 0) FROM order_history";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DailyItemSalesRepository dailyItemSalesRepository;
+    private final MonthlyStudentSalesRepository monthlyStudentSalesRepository;
+
+    // Incrementele încă nescrise; protejate de pendingLock, care nu e ținut niciodată în timpul unui acces la DB
+    private final Object pendingLock = new Object();
+    private Map<DayItem, Totals> pendingDaily = new HashMap<>();
+    private Map<MonthStudent, Totals> pendingMonthly = new HashMap<>();
+    // Cât timp rulează rebuildAll, comenzile confirmate se țin aici, nesumate, cu id-ul lor
+    private List<Delta> heldDuringRebuild;
+
+    // Scrierile în lot și reconstrucțiile nu se suprapun
+    private final Object writeLock = new Object();
+
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushedRows = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+    private volatile long lastRebuildMillis;
+
+    public SalesRollupService(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              DailyItemSalesRepository dailyItemSalesRepository,
+                              MonthlyStudentSalesRepository monthlyStudentSalesRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dailyItemSalesRepository = dailyItemSalesRepository;
+        this.monthlyStudentSalesRepository = monthlyStudentSalesRepository;
+    }
+
+    /**
+     * Adds saved orders to the rollups once they commit.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrdersPlaced(OrdersPlacedEvent event) {
+        if (event.orders().isEmpty()) {
+            return;
+        }
+        add(event.orders().stream().map(Delta::of).toList());
+    }
+
+    /**
+     * Writes the pending increments in one transaction: an UPDATE batch, then an INSERT batch for
+     * the rows that did not exist yet.
+     */
+    @Scheduled(fixedDelayString = "${analytics.rollup.flush-interval-ms:1000}")
+    public int flush() {
+        synchronized (writeLock) {
+            Map<DayItem, Totals> daily;
+            Map<MonthStudent, Totals> monthly;
+            synchronized (pendingLock) {
+                if (pendingDaily.isEmpty() && pendingMonthly.isEmpty()) {
+                    return 0;
+                }
+                daily = pendingDaily;
+                monthly = pendingMonthly;
+                pendingDaily = new HashMap<>();
+                pendingMonthly = new HashMap<>();
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    upsertDaily(daily);
+                    upsertMonthly(monthly);
+                });
+            } catch (RuntimeException e) {
+                // Incrementele se păstrează pentru următoarea încercare
+                synchronized (pendingLock) {
+                    daily.forEach((key, totals) -> pendingDaily.computeIfAbsent(key, k -> new Totals()).add(totals));
+                    monthly.forEach((key, totals) -> pendingMonthly.computeIfAbsent(key, k -> new Totals()).add(totals));
+                }
+                logger.error("Failed to write sales rollups for {} days/items and {} months/students",
+                        daily.size(), monthly.size(), e);
+                return 0;
+            }
+            int rows = daily.size() + monthly.size();
+            flushes.increment();
+            flushedRows.add(rows);
+            return rows;
+        }
+    }
+
+    /**
+     * Recomputes every rollup row from the order history. The rebuild sums the orders up to the
+     * highest order id it sees (its watermark); increments pending before it are dropped, and those
+     * committed while it runs are kept only for orders above the watermark, so no order is counted twice.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildAll() {
+        synchronized (writeLock) {
+            Map<DayItem, Totals> daily;
+            Map<MonthStudent, Totals> monthly;
+            synchronized (pendingLock) {
+                daily = pendingDaily;
+                monthly = pendingMonthly;
+                pendingDaily = new HashMap<>();
+                pendingMonthly = new HashMap<>();
+                heldDuringRebuild = new ArrayList<>();
+            }
+            Long watermark = null;
+            try {
+                // Limitele sunt mâine și luna viitoare: sunt incluse toate comenzile de până acum
+                LocalDate today = LocalDate.now();
+                watermark = rebuild(today.plusDays(1), today.withDayOfMonth(1).plusMonths(1));
+            } finally {
+                synchronized (pendingLock) {
+                    if (watermark == null) {
+                        // Reconstrucția a eșuat: incrementele vechi rămân de scris
+                        daily.forEach((key, totals) -> pendingDaily.computeIfAbsent(key, k -> new Totals()).add(totals));
+                        monthly.forEach((key, totals) -> pendingMonthly.computeIfAbsent(key, k -> new Totals()).add(totals));
+                    }
+                    for (Delta delta : heldDuringRebuild) {
+                        if (watermark == null || delta.orderId() == null || delta.orderId() > watermark) {
+                            addPending(delta);
+                        }
+                    }
+                    heldDuringRebuild = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Recomputes the days before today and the months before the current one. Live increments only
+     * touch today and the current month, so this never races with purchases.
+     */
+    @Scheduled(cron = "${analytics.rollup.rebuild-cron:0 30 3 * * *}")
+    public void rebuildClosedPeriods() {
+        flush();
+        synchronized (writeLock) {
+            LocalDate today = LocalDate.now();
+            rebuild(today, today.withDayOfMonth(1));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public List<Map<String, Object>> getMostOrderedItems(int limit) {
+        return dailyItemSalesRepository.findMostOrderedItems(limit);
+    }
+
+    public double getRevenueBetween(LocalDate start, LocalDate end) {
+        return dailyItemSalesRepository.sumRevenueBetween(start, end);
+    }
+
+    public List<Map<String, Object>> getDailySalesBetween(LocalDate start, LocalDate end) {
+        return dailyItemSalesRepository.findDailySalesBetween(start, end);
+    }
+
+    public List<Map<String, Object>> getStudentsWithMostOrders(int limit) {
+        return monthlyStudentSalesRepository.findStudentsWithMostOrders(limit);
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        synchronized (pendingLock) {
+            metrics.put("pendingDailyRows", pendingDaily.size());
+            metrics.put("pendingMonthlyRows", pendingMonthly.size());
+        }
+        metrics.put("flushes", flushes.sum());
+        metrics.put("flushedRows", flushedRows.sum());
+        metrics.put("rebuilds", rebuilds.sum());
+        metrics.put("lastRebuildMillis", lastRebuildMillis);
+        return metrics;
+    }
+
+    // Înlocuiește zilele dinaintea lui dayCutoff și lunile dinaintea lui monthCutoff cu totalurile din istoric;
+    // întoarce cel mai mare id de comandă inclus
+    private long rebuild(LocalDate dayCutoff, LocalDate monthCutoff) {
+        long start = System.currentTimeMillis();
+        Long watermark = transactionTemplate.execute(status -> {
+            long maxId = jdbcTemplate.queryForObject(MAX_ORDER_ID, Long.class);
+            jdbcTemplate.update("DELETE FROM daily_item_sales WHERE sales_day < ?", Date.valueOf(dayCutoff));
+            jdbcTemplate.update("DELETE FROM monthly_student_sales WHERE sales_month < ?", Date.valueOf(monthCutoff));
+            jdbcTemplate.update(REBUILD_DAILY, Timestamp.valueOf(dayCutoff.atStartOfDay()), maxId);
+            jdbcTemplate.update(REBUILD_MONTHLY, Timestamp.valueOf(monthCutoff.atStartOfDay()), maxId);
+            return maxId;
+        });
+        lastRebuildMillis = System.currentTimeMillis() - start;
+        rebuilds.increment();
+        logger.info("Sales rollups rebuilt up to order {} in {} ms", watermark, lastRebuildMillis);
+        return watermark;
+    }
+
+    private void add(List<Delta> deltas) {
+        synchronized (pendingLock) {
+            if (heldDuringRebuild != null) {
+                heldDuringRebuild.addAll(deltas);
+                return;
+            }
+            deltas.forEach(this::addPending);
+        }
+    }
+
+    // Apelat cu pendingLock ținut
+    private void addPending(Delta delta) {
+        pendingDaily.computeIfAbsent(delta.dayItem(), k -> new Totals()).add(delta);
+        if (delta.monthStudent() != null) {
+            pendingMonthly.computeIfAbsent(delta.monthStudent(), k -> new Totals()).add(delta);
+        }
+    }
+
+    private void upsertDaily(Map<DayItem, Totals> daily) {
+        if (daily.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<DayItem, Totals>> rows = new ArrayList<>(daily.entrySet());
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_DAILY, rows.stream()
+                .map(row -> new Object[]{row.getValue().orders, row.getValue().quantity, row.getValue().revenue,
+                        Date.valueOf(row.getKey().day()), row.getKey().menuItemName()})
+                .toList());
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (updated[i] == 0) {
+                Map.Entry<DayItem, Totals> row = rows.get(i);
+                inserts.add(new Object[]{Date.valueOf(row.getKey().day()), row.getKey().menuItemName(),
+                        row.getValue().orders, row.getValue().quantity, row.getValue().revenue});
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_DAILY, inserts);
+        }
+    }
+
+    private void upsertMonthly(Map<MonthStudent, Totals> monthly) {
+        if (monthly.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<MonthStudent, Totals>> rows = new ArrayList<>(monthly.entrySet());
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_MONTHLY, rows.stream()
+                .map(row -> new Object[]{row.getValue().orders, row.getValue().revenue,
+                        Date.valueOf(row.getKey().month()), row.getKey().studentId()})
+                .toList());
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (updated[i] == 0) {
+                Map.Entry<MonthStudent, Totals> row = rows.get(i);
+                inserts.add(new Object[]{Date.valueOf(row.getKey().month()), row.getKey().studentId(),
+                        row.getValue().orders, row.getValue().revenue});
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_MONTHLY, inserts);
+        }
+    }
+
+    private record DayItem(LocalDate day, String menuItemName) {
+    }
+
+    private record MonthStudent(LocalDate month, Long studentId) {
+    }
+
+    private record Delta(Long orderId, DayItem dayItem, MonthStudent monthStudent, int quantity, double price) {
+        static Delta of(OrderHistory order) {
+            LocalDate day = order.getOrderTime().toLocalDate();
+            Long studentId = order.getStudent() == null ? null : order.getStudent().getId();
+            return new Delta(order.getId(), new DayItem(day, order.getMenuItemName()),
+                    studentId == null ? null : new MonthStudent(day.withDayOfMonth(1), studentId),
+                    order.getQuantity() == null ? 0 : order.getQuantity(),
+                    order.getPrice() == null ? 0 : order.getPrice());
+        }
+    }
+
+    private static final class Totals {
+        private long orders;
+        private long quantity;
+        private double revenue;
+
+        void add(Delta delta) {
+            orders++;
+            quantity += delta.quantity();
+            revenue += delta.price();
+        }
+
+        void add(Totals other) {
+            orders += other.orders;
+            quantity += other.quantity;
+            revenue += other.revenue;
+        }
+    }
+}
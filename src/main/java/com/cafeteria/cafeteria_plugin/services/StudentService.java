@@ -5,6 +5,7 @@ import com.cafeteria.cafeteria_plugin.email.PasswordResetTokenRepository;
 import com.cafeteria.cafeteria_plugin.models.*;
 import com.cafeteria.cafeteria_plugin.models.Class;
 import com.cafeteria.cafeteria_plugin.repositories.*;
+import com.cafeteria.cafeteria_plugin.security.TokenRevocationRegistry;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -51,6 +52,12 @@ public class StudentService {
     @Autowired
     private ScheduleRepository scheduleRepository;
 
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    @Autowired
+    private AllergenDictionary allergenDictionary;
+
 
     @Transactional
     public Student saveStudentWithClass(Student studentDetails, Long classId) {
@@ -74,7 +81,10 @@ public class StudentService {
     public List<Schedule> getUpcomingSchedules(Long studentId) {
         Student student = studentRepository.findById(studentId)
                 .orElseThrow(() -> new IllegalArgumentException("Student not found"));
+        return getUpcomingSchedules(student);
+    }
 
+    public List<Schedule> getUpcomingSchedules(Student student) {
         Class studentClass = student.getStudentClass();
         List<Schedule> allSchedules = scheduleRepository.findByStudentClassId(studentClass.getId());
 
@@ -161,6 +171,9 @@ public class StudentService {
 
         // 4. Șterge User-ul
         userRepository.deleteById(student.getId());
+
+        // 5. Invalidează tokenurile emise deja
+        tokenRevocationRegistry.revokeUser(student.getId());
     }
 
 
@@ -191,6 +204,7 @@ public class StudentService {
 
             pastStudentRepository.save(pastStudent);
             studentRepository.delete(student);
+            tokenRevocationRegistry.revokeUser(student.getId());
         }
     }
 
@@ -237,4 +251,19 @@ public class StudentService {
         return studentRepository.save(student);
     }
 
+    // ✅ Alergiile elevului, ca nume din dicționar
+    public List<String> getAllergies(Student student) {
+        Long mask = student.getAllergyMask();
+        return mask == null ? List.of() : allergenDictionary.namesOf(mask);
+    }
+
+    // ✅ Înlocuiește profilul de alergii; se acceptă doar alergeni deja prezenți în dicționar
+    @Transactional
+    public List<String> updateAllergies(Student student, List<String> allergies) {
+        long mask = allergenDictionary.knownMaskOf(allergies);
+        studentRepository.updateAllergyMask(student.getId(), mask == 0 ? null : mask);
+        student.setAllergyMask(mask == 0 ? null : mask);
+        return getAllergies(student);
+    }
+
 }
@@ -4,6 +4,7 @@ import com.cafeteria.cafeteria_plugin.email.PasswordResetTokenRepository;
 import com.cafeteria.cafeteria_plugin.models.*;
 import com.cafeteria.cafeteria_plugin.models.Class;
 import com.cafeteria.cafeteria_plugin.repositories.*;
+import com.cafeteria.cafeteria_plugin.security.TokenRevocationRegistry;
 import org.springframework.stereotype.Service;
 
 import java.util.Collection;
@@ -38,6 +39,9 @@ public class TeacherService {
     @Autowired
     private ClassRepository classRepository;
 
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
 
     @Transactional
     public Teacher addTeacher(Teacher teacher) {
@@ -83,6 +87,7 @@ public class TeacherService {
         tokenRepository.deleteAllByUser_Id(id);
         teacherRepository.deleteById(id);
         userRepository.deleteById(id);
+        tokenRevocationRegistry.revokeUser(id);
     }
 
     public List<Student> getStudentsForTeacher(Long teacherId) {
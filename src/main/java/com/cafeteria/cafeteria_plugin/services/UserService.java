@@ -2,6 +2,7 @@ package com.cafeteria.cafeteria_plugin.services;
 
 import com.cafeteria.cafeteria_plugin.models.*;
 import com.cafeteria.cafeteria_plugin.repositories.*;
+import com.cafeteria.cafeteria_plugin.security.AuthUserLookup;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -33,6 +34,9 @@ public class UserService {
     @Lazy
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private AuthUserLookup authUserLookup;
+
     public User createUser(User user) {
         // Validări de bază
         if (user == null || user.getUsername() == null || user.getPassword() == null || user.getEmail() == null) {
@@ -90,6 +94,7 @@ public class UserService {
 
     public void forceUpdatePassword(User user) {
         userRepository.save(user);
+        authUserLookup.evict(user.getUsername());
     }
 
 }
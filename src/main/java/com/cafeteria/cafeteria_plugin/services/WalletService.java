@@ -0,0 +1,307 @@
+package com.cafeteria.cafeteria_plugin.services;
+
+import com.cafeteria.cafeteria_plugin.models.WalletCheckpoint;
+import com.cafeteria.cafeteria_plugin.models.WalletEntry;
+import com.cafeteria.cafeteria_plugin.repositories.WalletCheckpointRepository;
+import com.cafeteria.cafeteria_plugin.repositories.WalletEntryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prepaid wallet of each parent: an append-only list of entries plus one balance row per parent.
+ * Every entry changes the balance row with a single conditional {@code UPDATE} in the same
+ * transaction, so the balance is always the sum of the entries, reading it is one row, and two
+ * concurrent charges can never both spend the same money. Closed months are summarised into
+ * {@code wallet_checkpoints} so past statements read one row of totals.
+ */
+@Service
+public class WalletService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalletService.class);
+
+    private static final String ADD_TO_BALANCE =
+            "UPDATE wallet_balances SET balance = balance + ?, entry_count = entry_count + 1, updated_at = ? "
+                    + "WHERE parent_id = ?";
+    private static final String COVERED = " AND balance + ? >= 0";
+    // Creează rândul doar dacă lipsește, fără excepție de cheie duplicată în tranzacția apelantului
+    private static final String CREATE_BALANCE =
+            "MERGE INTO wallet_balances b USING (SELECT CAST(? AS BIGINT) AS parent_id, CAST(? AS TIMESTAMP) AS updated_at) s "
+                    + "ON b.parent_id = s.parent_id "
+                    + "WHEN NOT MATCHED THEN INSERT (parent_id, balance, entry_count, updated_at) VALUES (s.parent_id, 0, 0, s.updated_at)";
+    private static final String READ_BALANCE = "SELECT balance FROM wallet_balances WHERE parent_id = ?";
+    private static final String INSERT_ENTRY =
+            "INSERT INTO wallet_entries (parent_id, type, amount, balance_after, description, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String CHECKPOINT_MONTH =
+            "INSERT INTO wallet_checkpoints (parent_id, period_start, opening_balance, credits, debits, closing_balance, "
+                    + "entry_count, last_entry_id) "
+                    + "SELECT a.parent_id, ?, l.balance_after - a.net, a.credits, a.debits, l.balance_after, a.entries, a.last_id "
+                    + "FROM (SELECT parent_id, SUM(CASE WHEN amount > 0 THEN amount ELSE 0 END) AS credits, "
+                    + "SUM(CASE WHEN amount < 0 THEN -amount ELSE 0 END) AS debits, SUM(amount) AS net, "
+                    + "COUNT(*) AS entries, MAX(id) AS last_id "
+                    + "FROM wallet_entries WHERE created_at >= ? AND created_at < ? GROUP BY parent_id) a "
+                    + "JOIN wallet_entries l ON l.id = a.last_id "
+                    + "WHERE NOT EXISTS (SELECT 1 FROM wallet_checkpoints c "
+                    + "WHERE c.parent_id = a.parent_id AND c.period_start = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final WalletEntryRepository walletEntryRepository;
+    private final WalletCheckpointRepository walletCheckpointRepository;
+    private final boolean requireBalance;
+    private final Clock clock;
+
+    private final Map<WalletEntry.Type, LongAdder> appended = new EnumMap<>(WalletEntry.Type.class);
+    private final LongAdder rejectedCharges = new LongAdder();
+    private final LongAdder checkpointRows = new LongAdder();
+    private volatile long lastCheckpointMillis;
+
+    @Autowired
+    public WalletService(JdbcTemplate jdbcTemplate,
+                         WalletEntryRepository walletEntryRepository,
+                         WalletCheckpointRepository walletCheckpointRepository,
+                         @Value("${wallet.require-balance:false}") boolean requireBalance) {
+        this(jdbcTemplate, walletEntryRepository, walletCheckpointRepository, requireBalance, Clock.systemDefaultZone());
+    }
+
+    WalletService(JdbcTemplate jdbcTemplate, WalletEntryRepository walletEntryRepository,
+                  WalletCheckpointRepository walletCheckpointRepository, boolean requireBalance, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.walletEntryRepository = walletEntryRepository;
+        this.walletCheckpointRepository = walletCheckpointRepository;
+        this.requireBalance = requireBalance;
+        this.clock = clock;
+        for (WalletEntry.Type type : WalletEntry.Type.values()) {
+            appended.put(type, new LongAdder());
+        }
+    }
+
+    public double getBalance(Long parentId) {
+        List<Double> balance = jdbcTemplate.queryForList(READ_BALANCE, Double.class, parentId);
+        return balance.isEmpty() ? 0 : balance.get(0);
+    }
+
+    @Transactional
+    public WalletEntry topUp(Long parentId, double amount, String description) {
+        return append(parentId, WalletEntry.Type.TOP_UP, positive(amount), description, false);
+    }
+
+    @Transactional
+    public WalletEntry refund(Long parentId, double amount, String description) {
+        return append(parentId, WalletEntry.Type.REFUND, positive(amount), description, false);
+    }
+
+    /**
+     * Takes {@code amount} from the wallet. With {@code wallet.require-balance} the charge is
+     * refused when the balance does not cover it; otherwise the balance may go negative and is
+     * settled by the monthly invoice.
+     *
+     * @throws IllegalArgumentException if the balance is required and too low; inside a purchase
+     *                                  this rolls the order back
+     */
+    @Transactional
+    public WalletEntry charge(Long parentId, double amount, String description) {
+        return append(parentId, WalletEntry.Type.CHARGE, -positive(amount), description, requireBalance);
+    }
+
+    // ✅ Extrasul unei luni: sold inițial, total intrări/ieșiri, sold final și mișcările de după checkpoint
+    public Map<String, Object> getStatement(Long parentId, YearMonth period) {
+        LocalDate periodStart = period.atDay(1);
+        LocalDateTime from = periodStart.atStartOfDay();
+        LocalDateTime to = period.plusMonths(1).atDay(1).atStartOfDay();
+
+        List<WalletEntry> entries;
+        double opening;
+        double credits = 0;
+        double debits = 0;
+        double closing;
+        boolean closedMonth = false;
+        Optional<WalletCheckpoint> checkpoint = walletCheckpointRepository
+                .findFirstByParentIdAndPeriodStartLessThanEqualOrderByPeriodStartDesc(parentId, periodStart);
+        if (checkpoint.isPresent()) {
+            WalletCheckpoint summary = checkpoint.get();
+            entries = walletEntryRepository
+                    .findAllByParentIdAndIdGreaterThanAndCreatedAtLessThanOrderByIdAsc(parentId, summary.getLastEntryId(), to);
+            closedMonth = summary.getPeriodStart().equals(periodStart);
+            if (closedMonth) {
+                opening = summary.getOpeningBalance();
+                credits = summary.getCredits();
+                debits = summary.getDebits();
+                closing = summary.getClosingBalance();
+            } else {
+                opening = summary.getClosingBalance();
+                closing = opening;
+            }
+        } else {
+            entries = walletEntryRepository
+                    .findAllByParentIdAndCreatedAtGreaterThanEqualAndCreatedAtLessThanOrderByIdAsc(parentId, from, to);
+            opening = walletEntryRepository.findFirstByParentIdAndCreatedAtLessThanOrderByCreatedAtDescIdDesc(parentId, from)
+                    .map(WalletEntry::getBalanceAfter)
+                    .orElse(0.0);
+            closing = opening;
+        }
+
+        List<Map<String, Object>> lines = new ArrayList<>(entries.size());
+        for (WalletEntry entry : entries) {
+            if (entry.getCreatedAt().isBefore(from)) {
+                // Intrare din lunile dintre checkpoint și perioada cerută: intră doar în soldul inițial
+                if (!closedMonth) {
+                    opening = entry.getBalanceAfter();
+                    closing = opening;
+                }
+                continue;
+            }
+            if (entry.getAmount() > 0) {
+                credits += entry.getAmount();
+            } else {
+                debits -= entry.getAmount();
+            }
+            closing = entry.getBalanceAfter();
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("id", entry.getId());
+            line.put("type", entry.getType());
+            line.put("amount", entry.getAmount());
+            line.put("balanceAfter", entry.getBalanceAfter());
+            line.put("description", entry.getDescription());
+            line.put("createdAt", entry.getCreatedAt());
+            lines.add(line);
+        }
+        Map<String, Object> statement = new LinkedHashMap<>();
+        statement.put("month", period.toString());
+        statement.put("openingBalance", opening);
+        statement.put("credits", cents(credits));
+        statement.put("debits", cents(debits));
+        statement.put("closingBalance", closing);
+        statement.put("entries", lines);
+        return statement;
+    }
+
+    /**
+     * Writes the checkpoints of every closed month not summarised yet, one set-based INSERT per
+     * month. Safe to run again: existing checkpoints are left alone.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${wallet.checkpoint-cron:0 15 2 1 * *}")
+    public int checkpointClosedMonths() {
+        long start = System.currentTimeMillis();
+        YearMonth lastClosed = YearMonth.now(clock).minusMonths(1);
+        Date lastCheckpoint = jdbcTemplate.queryForObject("SELECT MAX(period_start) FROM wallet_checkpoints", Date.class);
+        YearMonth month;
+        if (lastCheckpoint != null) {
+            month = YearMonth.from(lastCheckpoint.toLocalDate()).plusMonths(1);
+        } else {
+            Timestamp firstEntry = jdbcTemplate.queryForObject("SELECT MIN(created_at) FROM wallet_entries", Timestamp.class);
+            if (firstEntry == null) {
+                return 0;
+            }
+            month = YearMonth.from(firstEntry.toLocalDateTime());
+        }
+        int rows = 0;
+        for (; !month.isAfter(lastClosed); month = month.plusMonths(1)) {
+            LocalDate periodStart = month.atDay(1);
+            rows += jdbcTemplate.update(CHECKPOINT_MONTH, Date.valueOf(periodStart),
+                    Timestamp.valueOf(periodStart.atStartOfDay()),
+                    Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay()),
+                    Date.valueOf(periodStart));
+        }
+        checkpointRows.add(rows);
+        lastCheckpointMillis = System.currentTimeMillis() - start;
+        if (rows > 0) {
+            logger.info("Wrote {} wallet checkpoints up to {} in {} ms", rows, lastClosed, lastCheckpointMillis);
+        }
+        return rows;
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        appended.forEach((type, count) -> metrics.put(type.name().toLowerCase(), count.sum()));
+        metrics.put("rejectedCharges", rejectedCharges.sum());
+        metrics.put("requireBalance", requireBalance);
+        metrics.put("checkpointRows", checkpointRows.sum());
+        metrics.put("lastCheckpointMs", lastCheckpointMillis);
+        return metrics;
+    }
+
+    private WalletEntry append(Long parentId, WalletEntry.Type type, double amount, String description, boolean mustCover) {
+        if (parentId == null) {
+            throw new IllegalArgumentException("Parent not found");
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        if (!addToBalance(parentId, amount, now, mustCover)) {
+            jdbcTemplate.update(CREATE_BALANCE, parentId, Timestamp.valueOf(now));
+            if (!addToBalance(parentId, amount, now, mustCover)) {
+                rejectedCharges.increment();
+                throw new IllegalArgumentException("Insufficient wallet balance");
+            }
+        }
+        // Rândul soldului e blocat de UPDATE până la commit: valoarea citită e exact soldul după această intrare
+        Double balanceAfter = jdbcTemplate.queryForObject(READ_BALANCE, Double.class, parentId);
+
+        WalletEntry entry = new WalletEntry();
+        entry.setParentId(parentId);
+        entry.setType(type);
+        entry.setAmount(amount);
+        entry.setBalanceAfter(balanceAfter == null ? amount : balanceAfter);
+        entry.setDescription(description);
+        entry.setCreatedAt(now);
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_ENTRY, new String[]{"id"});
+            statement.setLong(1, parentId);
+            statement.setString(2, type.name());
+            statement.setDouble(3, entry.getAmount());
+            statement.setDouble(4, entry.getBalanceAfter());
+            statement.setString(5, description);
+            statement.setTimestamp(6, Timestamp.valueOf(now));
+            return statement;
+        }, keyHolder);
+        Number id = keyHolder.getKey();
+        entry.setId(id == null ? null : id.longValue());
+        appended.get(type).increment();
+        return entry;
+    }
+
+    private boolean addToBalance(Long parentId, double amount, LocalDateTime now, boolean mustCover) {
+        Timestamp updatedAt = Timestamp.valueOf(now);
+        int rows = mustCover
+                ? jdbcTemplate.update(ADD_TO_BALANCE + COVERED, amount, updatedAt, parentId, amount)
+                : jdbcTemplate.update(ADD_TO_BALANCE, amount, updatedAt, parentId);
+        return rows == 1;
+    }
+
+    private static double positive(double amount) {
+        double rounded = cents(amount);
+        if (rounded <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        return rounded;
+    }
+
+    private static double cents(double amount) {
+        return Math.round(amount * 100) / 100.0;
+    }
+}
@@ -0,0 +1,146 @@
+package com.cafeteria.cafeteria_plugin.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread-safe in-memory cache with a hard size bound and a per-entry expiry instant.
+ * Expired entries are never returned; when the bound is reached, expired entries are
+ * purged first and then arbitrary entries are dropped until there is room again.
+ */
+public class BoundedExpiringCache<K, V> {
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean(false);
+    private final Object insertLock = new Object();
+    private final int maxSize;
+    private final LongSupplier clock;
+
+    public BoundedExpiringCache(int maxSize) {
+        this(maxSize, System::currentTimeMillis);
+    }
+
+    public BoundedExpiringCache(int maxSize, LongSupplier clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtMillis <= clock.getAsLong()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    public void put(K key, V value, long expiresAtMillis) {
+        if (expiresAtMillis <= clock.getAsLong()) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+        entries.put(key, new Entry<>(value, expiresAtMillis));
+    }
+
+    /**
+     * Stores the value unless a live entry exists for the key.
+     *
+     * @return the existing live value, or {@code null} if this call stored {@code value}
+     */
+    public V putIfAbsent(K key, V value, long expiresAtMillis) {
+        long now = clock.getAsLong();
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+        Entry<V> fresh = new Entry<>(value, expiresAtMillis);
+        Entry<V> current = entries.compute(key,
+                (k, existing) -> existing != null && existing.expiresAtMillis > now ? existing : fresh);
+        return current == fresh ? null : current.value;
+    }
+
+    /**
+     * Stores the value only if that does not push out a live entry: expired entries are purged
+     * first, and if the cache is still full nothing is stored. The size check and the insert run
+     * under one lock, so concurrent callers cannot overshoot the bound. Meant for caches where an
+     * eviction would be wrong (e.g. a denylist); do not mix with {@link #put} on the same instance.
+     *
+     * @return {@code false} if the cache is full of live entries and the value was not stored
+     */
+    public boolean tryPut(K key, V value, long expiresAtMillis) {
+        if (expiresAtMillis <= clock.getAsLong()) {
+            return true;
+        }
+        synchronized (insertLock) {
+            if (entries.size() >= maxSize && !entries.containsKey(key)) {
+                purgeExpired();
+                if (entries.size() >= maxSize) {
+                    return false;
+                }
+            }
+            entries.put(key, new Entry<>(value, expiresAtMillis));
+            return true;
+        }
+    }
+
+    public boolean remove(K key, V value) {
+        Entry<V> entry = entries.get(key);
+        return entry != null && entry.value == value && entries.remove(key, entry);
+    }
+
+    public V remove(K key) {
+        Entry<V> entry = entries.remove(key);
+        return entry == null ? null : entry.value;
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Drops every entry whose expiry instant has passed.
+     */
+    public void purgeExpired() {
+        long now = clock.getAsLong();
+        entries.entrySet().removeIf(e -> e.getValue().expiresAtMillis <= now);
+    }
+
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            purgeExpired();
+            // Keep ~10% headroom so a full cache does not evict on every single put
+            int target = maxSize - Math.max(1, maxSize / 10);
+            Iterator<K> keys = entries.keySet().iterator();
+            while (entries.size() > target && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAtMillis) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.cafeteria.cafeteria_plugin.util;
+
+/**
+ * Minimal RFC 4180 field quoting for the CSV files the application writes.
+ */
+public final class Csv {
+
+    private Csv() {
+    }
+
+    /**
+     * Returns the value as a CSV field: empty for {@code null}, quoted (with doubled quotes) when
+     * it contains a comma, quote or line break, unchanged otherwise.
+     */
+    public static String field(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
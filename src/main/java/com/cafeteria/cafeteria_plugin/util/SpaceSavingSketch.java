@@ -0,0 +1,89 @@
+package com.cafeteria.cafeteria_plugin.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Weighted Space-Saving counter (Metwally et al.) for the most frequent keys of a stream, in
+ * memory bounded by {@code capacity}. While fewer than {@code capacity} distinct keys have been seen
+ * every count is exact; after that a new key takes over the smallest counter and inherits its value
+ * as the error bound. Any key whose true count is above {@code total / capacity} is guaranteed to
+ * be tracked. Thread-safe.
+ */
+public class SpaceSavingSketch<K> {
+
+    private final int capacity;
+    private final Map<K, Counter> counters;
+    private long total;
+
+    public SpaceSavingSketch(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public synchronized void offer(K key, long weight) {
+        if (weight <= 0) {
+            return;
+        }
+        total += weight;
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            counter.count += weight;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(key, new Counter(weight, 0));
+            return;
+        }
+        // Cheia nouă preia cel mai mic contor; căutarea e liniară, dar are loc doar la înlocuire
+        Map.Entry<K, Counter> smallest = null;
+        for (Map.Entry<K, Counter> entry : counters.entrySet()) {
+            if (smallest == null || entry.getValue().count < smallest.getValue().count) {
+                smallest = entry;
+            }
+        }
+        long floor = smallest.getValue().count;
+        counters.remove(smallest.getKey());
+        counters.put(key, new Counter(floor + weight, floor));
+    }
+
+    /**
+     * The {@code limit} keys with the highest estimated counts, highest first.
+     */
+    public synchronized List<Estimate<K>> top(int limit) {
+        List<Estimate<K>> estimates = new ArrayList<>(counters.size());
+        counters.forEach((key, counter) -> estimates.add(new Estimate<>(key, counter.count, counter.error)));
+        estimates.sort(Comparator.comparingLong(Estimate<K>::count).reversed());
+        return estimates.size() > limit ? new ArrayList<>(estimates.subList(0, limit)) : estimates;
+    }
+
+    public synchronized long total() {
+        return total;
+    }
+
+    public synchronized int size() {
+        return counters.size();
+    }
+
+    /**
+     * An estimated count; the true count lies in {@code [count - error, count]}.
+     */
+    public record Estimate<K>(K key, long count, long error) {
+    }
+
+    private static final class Counter {
+        private long count;
+        private final long error;
+
+        private Counter(long count, long error) {
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
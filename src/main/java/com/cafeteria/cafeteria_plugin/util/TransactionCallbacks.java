@@ -0,0 +1,39 @@
+package com.cafeteria.cafeteria_plugin.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Undo hooks for in-memory reservations taken before the rows that use them are written.
+ */
+public final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    /**
+     * Runs {@code work} and calls {@code undo} if what it wrote does not persist. Inside a
+     * transaction that is on rollback, including a rollback that only occurs at commit time;
+     * outside one, as soon as {@code work} throws.
+     */
+    public static void runOrUndo(Runnable work, Runnable undo) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        undo.run();
+                    }
+                }
+            });
+            work.run();
+            return;
+        }
+        try {
+            work.run();
+        } catch (RuntimeException e) {
+            undo.run();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.cafeteria.cafeteria_plugin.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the backfill and the allergen aggregate from {@code OrderHistoryRepository} against an H2
+ * schema shaped like the one Hibernate generates.
+ */
+public class OrderHistoryMenuItemBackfillTest {
+
+    private static final String COUNT_BY_ALLERGEN =
+            "SELECT a.allergens AS allergen, COUNT(*) AS orderCount "
+                    + "FROM order_history oh JOIN menu_item_allergens a ON a.menu_item_id = oh.menu_item_id "
+                    + "GROUP BY a.allergens";
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void createSchema() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:allergen_backfill;DB_CLOSE_DELAY=-1", "sa", "", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE menu_item (id BIGINT PRIMARY KEY, name VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE menu_item_allergens (menu_item_id BIGINT NOT NULL, allergens VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE order_history (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "menu_item_name VARCHAR(255), menu_item_id BIGINT, quantity INT)");
+
+        jdbcTemplate.update("INSERT INTO menu_item VALUES (1, 'Sandwich'), (2, 'Juice'), (3, 'Cake')");
+        jdbcTemplate.update("INSERT INTO menu_item_allergens VALUES (1, 'gluten'), (1, 'milk'), (3, 'gluten'), (3, 'eggs')");
+        jdbcTemplate.update("INSERT INTO order_history (menu_item_name, quantity) VALUES "
+                + "('Sandwich', 1), ('Sandwich', 2), ('Juice', 1), ('Cake', 1), ('Removed item', 1)");
+    }
+
+    @AfterEach
+    public void dropSchema() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        dataSource.destroy();
+    }
+
+    @Test
+    public void testBackfillLinksOrdersByName() {
+        new OrderHistoryMenuItemBackfill(jdbcTemplate).run();
+
+        assertEquals(2, count("SELECT COUNT(*) FROM order_history WHERE menu_item_id = 1"));
+        assertEquals(1, count("SELECT COUNT(*) FROM order_history WHERE menu_item_id = 2"));
+        assertEquals(1, count("SELECT COUNT(*) FROM order_history WHERE menu_item_id IS NULL"));
+    }
+
+    @Test
+    public void testBackfillIsIdempotent() {
+        new OrderHistoryMenuItemBackfill(jdbcTemplate).run();
+        jdbcTemplate.update("UPDATE order_history SET menu_item_id = 3 WHERE menu_item_name = 'Juice'");
+
+        new OrderHistoryMenuItemBackfill(jdbcTemplate).run();
+
+        assertEquals(3L, jdbcTemplate.queryForObject(
+                "SELECT menu_item_id FROM order_history WHERE menu_item_name = 'Juice'", Long.class));
+    }
+
+    @Test
+    public void testAllergenCountsMatchPerOrderLookup() {
+        new OrderHistoryMenuItemBackfill(jdbcTemplate).run();
+
+        Map<String, Long> counts = new HashMap<>();
+        jdbcTemplate.query(COUNT_BY_ALLERGEN, rs -> {
+            counts.put(rs.getString("allergen"), rs.getLong("orderCount"));
+        });
+
+        // Două sandvișuri și o prăjitură cu gluten; lapte doar în sandvișuri; ouă doar în prăjitură
+        assertEquals(Map.of("gluten", 3L, "milk", 2L, "eggs", 1L), counts);
+    }
+
+    private int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+}
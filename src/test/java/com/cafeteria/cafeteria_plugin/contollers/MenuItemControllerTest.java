@@ -1,14 +1,18 @@
 package com.cafeteria.cafeteria_plugin.contollers;
 import com.cafeteria.cafeteria_plugin.models.MenuItem;
 import com.cafeteria.cafeteria_plugin.services.MenuItemService;
+import com.cafeteria.cafeteria_plugin.services.MenuSnapshotCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
 import com.cafeteria.cafeteria_plugin.controllers.MenuItemController;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -19,6 +23,9 @@ public class MenuItemControllerTest {
     @Mock
     private MenuItemService menuItemService;
 
+    @Mock
+    private MenuSnapshotCache menuSnapshotCache;
+
     @InjectMocks
     private MenuItemController menuItemController;
 
@@ -48,11 +55,33 @@ public class MenuItemControllerTest {
 
     @Test
     public void testGetMenuItemById() {
-        when(menuItemService.getMenuItemById(1L)).thenReturn(Optional.of(menuItem));
+        byte[] json = "{\"id\":1,\"name\":\"Pizza\"}".getBytes(StandardCharsets.UTF_8);
+        when(menuSnapshotCache.item(1L)).thenReturn(Optional.of(new MenuSnapshotCache.CachedJson(json, "\"abc\"")));
 
-        ResponseEntity<MenuItem> response = menuItemController.getMenuItemById(1L);
+        ResponseEntity<byte[]> response = menuItemController.getMenuItemById(1L, new ServletWebRequest(new MockHttpServletRequest()));
         assertEquals(200, response.getStatusCodeValue());
-        assertEquals(menuItem, response.getBody());
+        assertArrayEquals(json, response.getBody());
+        assertEquals("\"abc\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    public void testGetMenuItemByIdNotModified() {
+        byte[] json = "{\"id\":1,\"name\":\"Pizza\"}".getBytes(StandardCharsets.UTF_8);
+        when(menuSnapshotCache.item(1L)).thenReturn(Optional.of(new MenuSnapshotCache.CachedJson(json, "\"abc\"")));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/menu/1");
+        request.addHeader("If-None-Match", "\"abc\"");
+
+        ResponseEntity<byte[]> response = menuItemController.getMenuItemById(1L, new ServletWebRequest(request));
+        assertEquals(304, response.getStatusCodeValue());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    public void testGetMenuItemByIdNotFound() {
+        when(menuSnapshotCache.item(2L)).thenReturn(Optional.empty());
+
+        ResponseEntity<byte[]> response = menuItemController.getMenuItemById(2L, new ServletWebRequest(new MockHttpServletRequest()));
+        assertEquals(404, response.getStatusCodeValue());
     }
 
     @Test
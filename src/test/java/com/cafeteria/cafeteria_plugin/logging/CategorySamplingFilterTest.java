@@ -0,0 +1,49 @@
+package com.cafeteria.cafeteria_plugin.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CategorySamplingFilterTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final CategorySamplingFilter filter = new CategorySamplingFilter();
+
+    @BeforeEach
+    public void setUp() {
+        filter.setContext(context);
+        filter.setRates("org.hibernate=10, org.hibernate.SQL=100, malformed");
+        filter.start();
+    }
+
+    @Test
+    public void testLongestPrefixRateIsApplied() {
+        assertEquals(10, kept("org.hibernate.SQL", Level.DEBUG, 1000));
+        assertEquals(100, kept("org.hibernate.stat", Level.DEBUG, 1000));
+        assertEquals(1000, kept("com.cafeteria.cafeteria_plugin.controllers.MenuItemController", Level.INFO, 1000));
+    }
+
+    @Test
+    public void testWarningsAreNeverSampledOut() {
+        assertEquals(1000, kept("org.hibernate.SQL", Level.WARN, 1000));
+        assertEquals(1000, kept("org.hibernate.SQL", Level.ERROR, 1000));
+    }
+
+    private int kept(String loggerName, Level level, int events) {
+        Logger logger = context.getLogger(loggerName);
+        int kept = 0;
+        for (int i = 0; i < events; i++) {
+            LoggingEvent event = new LoggingEvent(Logger.class.getName(), logger, level, "statement {}", null, new Object[]{i});
+            if (filter.decide(event) != FilterReply.DENY) {
+                kept++;
+            }
+        }
+        return kept;
+    }
+}
@@ -0,0 +1,124 @@
+package com.cafeteria.cafeteria_plugin.security;
+
+import com.cafeteria.cafeteria_plugin.models.Admin;
+import com.cafeteria.cafeteria_plugin.models.Chef;
+import com.cafeteria.cafeteria_plugin.models.Class;
+import com.cafeteria.cafeteria_plugin.models.EducationLevel;
+import com.cafeteria.cafeteria_plugin.models.Parent;
+import com.cafeteria.cafeteria_plugin.models.Student;
+import com.cafeteria.cafeteria_plugin.models.Teacher;
+import com.cafeteria.cafeteria_plugin.models.User;
+import com.cafeteria.cafeteria_plugin.repositories.UserRepository;
+import com.cafeteria.cafeteria_plugin.util.MicroBenchmark;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Micro-benchmark (run with {@code -Pbenchmarks}) on the real JPA mapping, with {@value #USERS_PER_TYPE}
+ * users per subtype. Compares {@link UserRepository#findByUsername}, which outer-joins every subclass
+ * table and loads the eager associations, with the narrow {@link UserRepository#findCredentialsByUsername}
+ * used by {@link AuthUserLookup}. The persistence context is cleared before every lookup, as each login
+ * runs in its own request.
+ */
+@DataJpaTest
+@Tag(MicroBenchmark.TAG)
+public class AuthLookupBenchmarkTest {
+
+    private static final int USERS_PER_TYPE = 2_000;
+    private static final User.UserType[] USER_TYPES = User.UserType.values();
+
+    private static final int OPS_PER_ITERATION = 2_000;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    public void populate() {
+        Class studentClass = new Class();
+        studentClass.setName("5A");
+        studentClass.setEducationLevel(EducationLevel.MIDDLE);
+        entityManager.persist(studentClass);
+
+        for (int i = 0; i < USERS_PER_TYPE; i++) {
+            for (User.UserType type : USER_TYPES) {
+                entityManager.persist(newUser(type, i, studentClass));
+            }
+            if (i % 200 == 199) {
+                entityManager.flush();
+                entityManager.clear();
+                studentClass = entityManager.find(Class.class, studentClass.getId());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    public void credentialsLookupVersusFindByUsername() throws Exception {
+        String probe = username(User.UserType.TEACHER, 42);
+        assertEquals(userRepository.findByUsername(probe).orElseThrow().getId(),
+                userRepository.findCredentialsByUsername(probe).orElseThrow().getId());
+
+        MicroBenchmark.nanosPerOp("UserRepository.findByUsername", OPS_PER_ITERATION, i -> {
+            entityManager.clear();
+            return userRepository.findByUsername(nextUsername(i)).orElseThrow().getId();
+        });
+        MicroBenchmark.nanosPerOp("UserRepository.findCredentialsByUsername", OPS_PER_ITERATION, i -> {
+            entityManager.clear();
+            return userRepository.findCredentialsByUsername(nextUsername(i)).orElseThrow().getId();
+        });
+    }
+
+    private static User newUser(User.UserType type, int i, Class studentClass) {
+        User user = switch (type) {
+            case STUDENT -> {
+                Student student = new Student();
+                student.setName("Elev " + i);
+                student.setStudentClass(studentClass);
+                yield student;
+            }
+            case PARENT -> {
+                Parent parent = new Parent();
+                parent.setMotherName("Mama " + i);
+                yield parent;
+            }
+            case TEACHER -> {
+                Teacher teacher = new Teacher();
+                teacher.setName("Profesor " + i);
+                teacher.setSubject("Matematică");
+                yield teacher;
+            }
+            case CHEF -> {
+                Chef chef = new Chef();
+                chef.setName("Bucătar " + i);
+                yield chef;
+            }
+            case ADMIN -> new Admin();
+        };
+        String username = username(type, i);
+        user.setUsername(username);
+        user.setPassword("$2a$10$abcdefghijklmnopqrstuuJ0Zr3dDkqPzW3zV5cWq4nXwS6nX0y1e");
+        user.setEmail(username + "@school.ro");
+        user.setUserType(type);
+        return user;
+    }
+
+    private static String nextUsername(int i) {
+        return username(USER_TYPES[i % USER_TYPES.length], i * 7 % USERS_PER_TYPE);
+    }
+
+    private static String username(User.UserType type, int i) {
+        return "user" + i + "." + type.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,66 @@
+package com.cafeteria.cafeteria_plugin.security;
+
+import com.cafeteria.cafeteria_plugin.models.User;
+import com.cafeteria.cafeteria_plugin.repositories.UserCredentials;
+import com.cafeteria.cafeteria_plugin.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class AuthUserLookupTest {
+
+    private UserRepository userRepository;
+    private TokenRevocationRegistry tokenRevocationRegistry;
+    private AuthUserLookup lookup;
+
+    @BeforeEach
+    public void setUp() {
+        userRepository = mock(UserRepository.class);
+        tokenRevocationRegistry = new TokenRevocationRegistry(10, 7);
+        lookup = new AuthUserLookup(userRepository, tokenRevocationRegistry, 10, 60);
+
+        UserCredentials credentials = mock(UserCredentials.class);
+        when(credentials.getId()).thenReturn(42L);
+        when(credentials.getUsername()).thenReturn("ana.prof");
+        when(credentials.getUserType()).thenReturn(User.UserType.TEACHER);
+        when(userRepository.findCredentialsByUsername("ana.prof")).thenReturn(Optional.of(credentials));
+    }
+
+    @Test
+    public void testRepeatedLookupsHitTheCache() {
+        assertTrue(lookup.findByUsername("ana.prof").isPresent());
+        assertTrue(lookup.findByUsername("ana.prof").isPresent());
+
+        verify(userRepository, times(1)).findCredentialsByUsername("ana.prof");
+        verify(userRepository, never()).findByUsername(any());
+        assertEquals(1L, lookup.getMetrics().get("hits"));
+    }
+
+    @Test
+    public void testUnknownUsersAreNotCached() {
+        when(userRepository.findCredentialsByUsername("ghost")).thenReturn(Optional.empty());
+
+        assertTrue(lookup.findByUsername("ghost").isEmpty());
+        assertTrue(lookup.findByUsername("ghost").isEmpty());
+
+        verify(userRepository, times(2)).findCredentialsByUsername("ghost");
+    }
+
+    @Test
+    public void testEvictAndRevocationBypassTheCache() {
+        lookup.findByUsername("ana.prof");
+
+        lookup.evict("ana.prof");
+        lookup.findByUsername("ana.prof");
+        verify(userRepository, times(2)).findCredentialsByUsername("ana.prof");
+
+        // Utilizator șters sau delogat forțat după ce intrarea a fost pusă în cache
+        tokenRevocationRegistry.revokeUser(42L);
+        when(userRepository.findCredentialsByUsername("ana.prof")).thenReturn(Optional.empty());
+        assertTrue(lookup.findByUsername("ana.prof").isEmpty());
+    }
+}
@@ -0,0 +1,59 @@
+package com.cafeteria.cafeteria_plugin.security;
+
+import com.cafeteria.cafeteria_plugin.repositories.UserCredentials;
+import com.cafeteria.cafeteria_plugin.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CredentialVerificationServiceTest {
+
+    private final PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 10);
+    private UserRepository userRepository;
+    private AuthUserLookup authUserLookup;
+    private PasswordEncoder passwordEncoder;
+    private CredentialVerificationService service;
+
+    @BeforeEach
+    public void setUp() {
+        userRepository = mock(UserRepository.class);
+        authUserLookup = mock(AuthUserLookup.class);
+        passwordEncoder = spy(new BCryptPasswordEncoder(4));
+        service = new CredentialVerificationService(userRepository, authUserLookup, passwordEncoder, executor);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testUnknownUsernameStillRunsBcrypt() throws Exception {
+        when(authUserLookup.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        assertTrue(service.verify("ghost", "parola").get(5, TimeUnit.SECONDS).isEmpty());
+
+        // Hash-ul fictiv are același cost ca cele reale, deci comparația durează la fel
+        verify(passwordEncoder).matches(eq("parola"), argThat(hash -> hash.startsWith("$2a$04$")));
+    }
+
+    @Test
+    public void testKnownUsernameWithRightPassword() throws Exception {
+        String hash = passwordEncoder.encode("parola");
+        UserCredentials credentials = mock(UserCredentials.class);
+        when(credentials.getPassword()).thenReturn(hash);
+        when(authUserLookup.findByUsername("ana.prof")).thenReturn(Optional.of(credentials));
+
+        assertTrue(service.verify("ana.prof", "parola").get(5, TimeUnit.SECONDS).isPresent());
+        assertTrue(service.verify("ana.prof", "gresit").get(5, TimeUnit.SECONDS).isEmpty());
+        verify(userRepository, never()).updatePassword(any(), any());
+    }
+}
@@ -0,0 +1,92 @@
+package com.cafeteria.cafeteria_plugin.security;
+
+import com.cafeteria.cafeteria_plugin.models.Parent;
+import com.cafeteria.cafeteria_plugin.models.Student;
+import com.cafeteria.cafeteria_plugin.models.User.UserType;
+import com.cafeteria.cafeteria_plugin.repositories.ChefRepository;
+import com.cafeteria.cafeteria_plugin.repositories.ParentRepository;
+import com.cafeteria.cafeteria_plugin.repositories.StudentRepository;
+import com.cafeteria.cafeteria_plugin.repositories.TeacherRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CurrentUserContextTest {
+
+    @Mock
+    private ParentRepository parentRepository;
+
+    @Mock
+    private StudentRepository studentRepository;
+
+    @Mock
+    private TeacherRepository teacherRepository;
+
+    @Mock
+    private ChefRepository chefRepository;
+
+    private CurrentUserContext context;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        context = new CurrentUserContext(parentRepository, studentRepository, teacherRepository, chefRepository);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testChildIsLoadedOncePerRequestWithoutLoadingParent() {
+        authenticate(new AuthenticatedUser(7L, "ana.parent", UserType.PARENT));
+        Student child = new Student();
+        when(studentRepository.findByParentId(7L)).thenReturn(Optional.of(child));
+
+        assertSame(child, context.getChild());
+        assertSame(child, context.getChild());
+
+        verify(studentRepository, times(1)).findByParentId(7L);
+        verifyNoInteractions(parentRepository);
+    }
+
+    @Test
+    public void testParentIsLoadedByUsernameInDatabaseMode() {
+        authenticate(org.springframework.security.core.userdetails.User
+                .withUsername("ana.parent").password("x").authorities("ROLE_PARENT").build());
+        Parent parent = new Parent();
+        parent.setId(7L);
+        when(parentRepository.findByUsername("ana.parent")).thenReturn(parent);
+
+        assertSame(parent, context.getParent());
+        assertSame(parent, context.getParent());
+        context.getChild();
+
+        verify(parentRepository, times(1)).findByUsername("ana.parent");
+        verify(studentRepository, times(1)).findByParentId(7L);
+    }
+
+    @Test
+    public void testWrongUserTypeResolvesToNull() {
+        authenticate(new AuthenticatedUser(3L, "ion.prof", UserType.TEACHER));
+
+        assertNull(context.getParent());
+        assertNull(context.getStudent());
+        verifyNoInteractions(parentRepository, studentRepository);
+    }
+
+    private static void authenticate(org.springframework.security.core.userdetails.UserDetails principal) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
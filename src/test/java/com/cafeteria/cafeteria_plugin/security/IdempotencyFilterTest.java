@@ -0,0 +1,161 @@
+package com.cafeteria.cafeteria_plugin.security;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotencyFilterTest {
+
+    private final IdempotencyFilter filter = new IdempotencyFilter(100, 60, 5_000);
+    private final AtomicInteger purchases = new AtomicInteger();
+
+    private final FilterChain purchase = (request, response) -> {
+        int n = purchases.incrementAndGet();
+        response.setContentType("text/plain");
+        response.getWriter().write("Purchase successful! #" + n);
+    };
+
+    @Test
+    public void testRetryIsAnsweredFromMemory() throws Exception {
+        MockHttpServletResponse first = send("key-1", "10.0.0.1", purchase);
+        MockHttpServletResponse retry = send("key-1", "10.0.0.1", purchase);
+
+        assertEquals(1, purchases.get());
+        assertEquals("Purchase successful! #1", retry.getContentAsString());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    public void testKeysAreScopedPerClient() throws Exception {
+        send("key-1", "10.0.0.1", purchase);
+        send("key-1", "10.0.0.2", purchase);
+
+        assertEquals(2, purchases.get());
+    }
+
+    @Test
+    public void testRequestsWithoutKeyAreNotTracked() throws Exception {
+        send(null, "10.0.0.1", purchase);
+        send(null, "10.0.0.1", purchase);
+
+        assertEquals(2, purchases.get());
+    }
+
+    @Test
+    public void testReusedKeyOnDifferentRequestIsRejected() throws Exception {
+        send("key-1", "10.0.0.1", purchase);
+
+        MockHttpServletRequest other = request("key-1", "10.0.0.1");
+        other.setRequestURI("/menu/me/purchase/8");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(other, response, purchase);
+
+        assertEquals(422, response.getStatus());
+        assertEquals(1, purchases.get());
+    }
+
+    @Test
+    public void testReusedKeyWithDifferentBodyIsRejected() throws Exception {
+        FilterChain checkout = (request, response) -> {
+            purchases.incrementAndGet();
+            response.setContentType("application/json");
+            response.getOutputStream().write(request.getInputStream().readAllBytes());
+        };
+
+        MockHttpServletResponse first = sendBody("key-1", "[{\"menuItemId\":1,\"quantity\":1}]", checkout);
+        MockHttpServletResponse retry = sendBody("key-1", "[{\"menuItemId\":1,\"quantity\":1}]", checkout);
+        MockHttpServletResponse otherCart = sendBody("key-1", "[{\"menuItemId\":1,\"quantity\":9}]", checkout);
+
+        // Controller-ul primește corpul deja citit de filtru
+        assertEquals("[{\"menuItemId\":1,\"quantity\":1}]", first.getContentAsString());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(422, otherCart.getStatus());
+        assertEquals(1, purchases.get());
+    }
+
+    @Test
+    public void testServerErrorsAreNotStored() throws Exception {
+        FilterChain failing = (request, response) -> {
+            purchases.incrementAndGet();
+            ((jakarta.servlet.http.HttpServletResponse) response).setStatus(500);
+        };
+
+        send("key-1", "10.0.0.1", failing);
+        send("key-1", "10.0.0.1", purchase);
+
+        assertEquals(2, purchases.get());
+    }
+
+    @Test
+    public void testConcurrentDuplicatesShareOneExecution() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slowPurchase = (request, response) -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            purchase.doFilter(request, response);
+        };
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Future<MockHttpServletResponse> original = pool.submit(() -> send("key-1", "10.0.0.1", slowPurchase));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<MockHttpServletResponse> duplicate1 = pool.submit(() -> send("key-1", "10.0.0.1", slowPurchase));
+            Future<MockHttpServletResponse> duplicate2 = pool.submit(() -> send("key-1", "10.0.0.1", slowPurchase));
+            release.countDown();
+
+            assertEquals("Purchase successful! #1", original.get(5, TimeUnit.SECONDS).getContentAsString());
+            assertEquals("Purchase successful! #1", duplicate1.get(5, TimeUnit.SECONDS).getContentAsString());
+            assertEquals("Purchase successful! #1", duplicate2.get(5, TimeUnit.SECONDS).getContentAsString());
+            assertEquals(1, purchases.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private MockHttpServletResponse send(String key, String address, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(key, address), response, chain);
+        return response;
+    }
+
+    private MockHttpServletResponse sendBody(String key, String json, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/menu/me/checkout");
+        // Ca sub DispatcherServlet mapat pe "/": AntPathRequestMatcher potrivește pe servletPath
+        request.setServletPath("/menu/me/checkout");
+        request.setRemoteAddr("10.0.0.1");
+        request.addHeader(IdempotencyFilter.HEADER, key);
+        request.setContentType("application/json");
+        request.setContent(json.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String key, String address) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/menu/me/purchase/7");
+        request.setServletPath("/menu/me/purchase/7");
+        request.setQueryString("quantity=1");
+        request.setRemoteAddr(address);
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.HEADER, key);
+        }
+        return request;
+    }
+}
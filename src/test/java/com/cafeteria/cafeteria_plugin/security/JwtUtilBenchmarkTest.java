@@ -0,0 +1,73 @@
+package com.cafeteria.cafeteria_plugin.security;
+
+import com.cafeteria.cafeteria_plugin.models.User.UserType;
+import com.cafeteria.cafeteria_plugin.util.MicroBenchmark;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.security.Key;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Micro-benchmark (run with {@code -Pbenchmarks}) comparing the per-request
+ * token work before and after the claims cache:
+ * <ul>
+ *     <li>before: filter extractUsername + isTokenValid (2 parses) + one controller extractUsername,
+ *     each with a freshly built parser</li>
+ *     <li>after: one {@link JwtUtil#parseClaims} in the filter plus one in the controller, both cache hits</li>
+ * </ul>
+ * The correctness tests of the claims cache run in the normal suite.
+ */
+public class JwtUtilBenchmarkTest {
+
+    private static final int OPS_PER_ITERATION = 2_000;
+
+    private static final Key KEY = Keys.hmacShaKeyFor("MySuperSecretKeyForJwtMySuperSecretKeyForJwt".getBytes());
+
+    private final JwtUtil jwtUtil = new JwtUtil(10_000);
+
+    @Test
+    @Tag(MicroBenchmark.TAG)
+    public void cachedClaimsVersusRepeatedVerification() throws Exception {
+        String token = jwtUtil.generateToken(1L, "ana.parent", UserType.PARENT);
+
+        MicroBenchmark.nanosPerOp("JwtUtil before (4x parse)", OPS_PER_ITERATION, i -> {
+            String username = legacyParse(token).getSubject();
+            boolean valid = username.equals(legacyParse(token).getSubject())
+                    && legacyParse(token).getExpiration().getTime() > System.currentTimeMillis();
+            return valid ? legacyParse(token).getSubject().length() : 0;
+        });
+        MicroBenchmark.nanosPerOp("JwtUtil after (parse once + cache)", OPS_PER_ITERATION, i -> {
+            JwtClaims claims = jwtUtil.parseClaims(token);
+            return claims.isExpired() ? 0 : jwtUtil.extractUsername(token).length();
+        });
+    }
+
+    @Test
+    public void parseClaimsReturnsVerifiedClaims() {
+        String token = jwtUtil.generateToken(2L, "ion.prof", UserType.TEACHER);
+
+        JwtClaims claims = jwtUtil.parseClaims(token);
+
+        assertEquals("ion.prof", claims.getUsername());
+        assertEquals(UserType.TEACHER, claims.getUserType());
+        assertSame(claims, jwtUtil.parseClaims(token));
+        assertTrue(jwtUtil.isTokenValid(token, "ion.prof"));
+    }
+
+    @Test
+    public void tamperedTokenIsRejected() {
+        String token = jwtUtil.generateToken(2L, "ion.prof", UserType.TEACHER);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(io.jsonwebtoken.JwtException.class, () -> jwtUtil.parseClaims(tampered));
+    }
+
+    private static Claims legacyParse(String token) {
+        return Jwts.parserBuilder().setSigningKey(KEY).build().parseClaimsJws(token).getBody();
+    }
+}
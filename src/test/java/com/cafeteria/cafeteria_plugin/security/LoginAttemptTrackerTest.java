@@ -0,0 +1,99 @@
+package com.cafeteria.cafeteria_plugin.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoginAttemptTrackerTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.DAYS.toMillis(1));
+
+    // 3 eșecuri pe utilizator, 10 pe adresă, fereastră de 60s în 6 bucket-uri, întârziere 1s..8s
+    private final LoginAttemptTracker tracker = new LoginAttemptTracker(3, 10, 60, 6, 1000, 8000, 100, clock::get);
+
+    @Test
+    public void testUsernameIsBlockedAfterThreshold() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, tracker.blockedForMillis("ana.prof", "10.0.0.1"));
+            tracker.recordFailure("ana.prof", "10.0.0.1");
+        }
+
+        assertEquals(1000, tracker.blockedForMillis("ana.prof", "10.0.0.2"));
+        assertEquals(1000, tracker.blockedForMillis("ANA.prof", "10.0.0.3"));
+        assertEquals(0, tracker.blockedForMillis("ion.chef", "10.0.0.2"));
+    }
+
+    @Test
+    public void testDelayDoublesWithEveryExtraFailureAndIsCapped() {
+        for (int i = 0; i < 4; i++) {
+            tracker.recordFailure("ana.prof", "10.0.0.1");
+        }
+        assertEquals(2000, tracker.blockedForMillis("ana.prof", "10.0.0.1"));
+
+        for (int i = 0; i < 5; i++) {
+            tracker.recordFailure("ana.prof", "10.0.0.1");
+        }
+        assertEquals(8000, tracker.blockedForMillis("ana.prof", "10.0.0.1"));
+    }
+
+    @Test
+    public void testFailuresLeaveTheWindow() {
+        for (int i = 0; i < 3; i++) {
+            tracker.recordFailure("ana.prof", "10.0.0.1");
+        }
+        clock.addAndGet(TimeUnit.SECONDS.toMillis(2));
+        assertEquals(0, tracker.blockedForMillis("ana.prof", "10.0.0.1"));
+
+        tracker.recordFailure("ana.prof", "10.0.0.1");
+        assertTrue(tracker.blockedForMillis("ana.prof", "10.0.0.1") > 0);
+
+        clock.addAndGet(TimeUnit.SECONDS.toMillis(61));
+        tracker.recordFailure("ana.prof", "10.0.0.1");
+        assertEquals(0, tracker.blockedForMillis("ana.prof", "10.0.0.1"));
+    }
+
+    @Test
+    public void testSprayingFromOneAddressBlocksTheAddress() {
+        for (int i = 0; i < 10; i++) {
+            tracker.recordFailure("user" + i + ".student", "10.0.0.9");
+        }
+
+        assertTrue(tracker.blockedForMillis("new.student", "10.0.0.9") > 0);
+        assertEquals(0, tracker.blockedForMillis("new.student", "10.0.0.10"));
+    }
+
+    @Test
+    public void testRepeatedTyposOfOneAccountDoNotBlockTheAddress() {
+        for (int i = 0; i < 12; i++) {
+            tracker.recordFailure("ana.prof", "10.0.0.1");
+        }
+
+        assertTrue(tracker.blockedForMillis("ana.prof", "10.0.0.1") > 0);
+        assertEquals(0, tracker.blockedForMillis("ion.chef", "10.0.0.1"));
+    }
+
+    @Test
+    public void testSuccessClearsTheUsernameAndEasesTheAddress() {
+        for (int i = 0; i < 3; i++) {
+            tracker.recordFailure("ana.prof", "10.0.0.1");
+        }
+        tracker.recordSuccess("ana.prof", "10.0.0.1");
+
+        assertEquals(0, tracker.blockedForMillis("ana.prof", "10.0.0.1"));
+        assertEquals(3L, tracker.getMetrics().get("failures"));
+    }
+
+    @Test
+    public void testSuccessfulLoginsKeepASharedAddressOpen() {
+        // O școală în spatele unui singur NAT: mulți elevi greșesc o dată, apoi se autentifică
+        for (int i = 0; i < 30; i++) {
+            tracker.recordFailure("user" + i + ".student", "10.0.0.9");
+            tracker.recordSuccess("user" + i + ".student", "10.0.0.9");
+        }
+
+        assertEquals(0, tracker.blockedForMillis("new.student", "10.0.0.9"));
+    }
+}
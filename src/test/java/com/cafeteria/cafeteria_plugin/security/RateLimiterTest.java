@@ -0,0 +1,88 @@
+package com.cafeteria.cafeteria_plugin.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    private RateLimiter limiter(int maxKeys) {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setMaxKeys(maxKeys);
+        properties.setOrdering(new RateLimitProperties.Limit(3, 60));
+        return new RateLimiter(properties, clock::get);
+    }
+
+    @Test
+    public void testBurstUpToCapacityThenReject() {
+        RateLimiter limiter = limiter(100);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire(RateLimiter.Group.ORDERING, "user:ana"));
+        }
+        long retryAfter = limiter.tryAcquire(RateLimiter.Group.ORDERING, "user:ana");
+
+        // 60 pe minut = un token pe secundă
+        assertTrue(retryAfter > 0 && retryAfter <= 1000);
+        assertEquals(0, limiter.tryAcquire(RateLimiter.Group.ORDERING, "user:ion"));
+    }
+
+    @Test
+    public void testRefreshIsLimitedPerFamily() {
+        RateLimiter limiter = limiter(100);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire(RateLimiter.Group.REFRESH, "family:a"));
+        }
+        assertTrue(limiter.tryAcquire(RateLimiter.Group.REFRESH, "family:a") > 0);
+        assertEquals(0, limiter.tryAcquire(RateLimiter.Group.REFRESH, "family:b"));
+    }
+
+    @Test
+    public void testTokensRefillOverTime() {
+        RateLimiter limiter = limiter(100);
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire(RateLimiter.Group.ORDERING, "user:ana");
+        }
+        assertTrue(limiter.tryAcquire(RateLimiter.Group.ORDERING, "user:ana") > 0);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        assertEquals(0, limiter.tryAcquire(RateLimiter.Group.ORDERING, "user:ana"));
+        assertTrue(limiter.tryAcquire(RateLimiter.Group.ORDERING, "user:ana") > 0);
+    }
+
+    @Test
+    public void testRefilledBucketsAreEvictedWhenMapIsFull() {
+        RateLimiter limiter = limiter(10);
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire(RateLimiter.Group.ORDERING, "ip:10.0.0." + i);
+        }
+
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        limiter.tryAcquire(RateLimiter.Group.ORDERING, "ip:10.0.0.99");
+
+        Map<String, Object> metrics = limiter.getMetrics();
+        assertEquals(1, metrics.get("trackedClients"));
+        assertEquals(10L, metrics.get("evictions"));
+    }
+
+    @Test
+    public void testRejectionsAreCountedPerGroup() {
+        RateLimiter limiter = limiter(100);
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire(RateLimiter.Group.ORDERING, "user:ana");
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> ordering = (Map<String, Object>) limiter.getMetrics().get("ordering");
+        assertEquals(3L, ordering.get("allowed"));
+        assertEquals(2L, ordering.get("rejected"));
+    }
+}
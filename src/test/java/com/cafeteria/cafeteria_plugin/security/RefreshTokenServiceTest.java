@@ -0,0 +1,89 @@
+package com.cafeteria.cafeteria_plugin.security;
+
+import com.cafeteria.cafeteria_plugin.models.RefreshToken;
+import com.cafeteria.cafeteria_plugin.models.User;
+import com.cafeteria.cafeteria_plugin.repositories.RefreshTokenRepository;
+import com.cafeteria.cafeteria_plugin.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class RefreshTokenServiceTest {
+
+    private RefreshTokenRepository refreshTokenRepository;
+    private UserRepository userRepository;
+    private RefreshTokenService refreshTokenService;
+    private String lastRawToken;
+
+    @BeforeEach
+    public void setUp() {
+        refreshTokenRepository = mock(RefreshTokenRepository.class);
+        userRepository = mock(UserRepository.class);
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, userRepository,
+                new JwtUtil(100), new TokenRevocationRegistry(100, 7), 7);
+        when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(userRepository.existsById(42L)).thenReturn(true);
+    }
+
+    @Test
+    public void testRotateIssuesNewTokenInSameFamily() {
+        RefreshToken stored = issueFor(42L);
+        when(refreshTokenRepository.markUsed(stored.getId())).thenReturn(1);
+
+        Optional<RefreshTokenService.TokenPair> pair = refreshTokenService.rotate(rawTokenOf(stored));
+
+        assertTrue(pair.isPresent());
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository, times(2)).save(saved.capture());
+        assertEquals(stored.getFamilyId(), saved.getValue().getFamilyId());
+        verify(refreshTokenRepository, never()).deleteByFamilyId(any());
+    }
+
+    @Test
+    public void testReusedTokenRevokesWholeFamily() {
+        RefreshToken stored = issueFor(42L);
+        stored.setUsed(true);
+
+        assertTrue(refreshTokenService.rotate(rawTokenOf(stored)).isEmpty());
+        verify(refreshTokenRepository).deleteByFamilyId(stored.getFamilyId());
+        verify(refreshTokenRepository, never()).markUsed(any());
+    }
+
+    @Test
+    public void testRefreshFailsForDeletedUser() {
+        RefreshToken stored = issueFor(7L);
+
+        assertTrue(refreshTokenService.rotate(rawTokenOf(stored)).isEmpty());
+        verify(refreshTokenRepository).deleteByFamilyId(stored.getFamilyId());
+    }
+
+    @Test
+    public void testRawTokenCarriesItsFamily() {
+        RefreshToken stored = issueFor(42L);
+
+        assertEquals(stored.getFamilyId(), RefreshTokenService.familyOf(rawTokenOf(stored)));
+        assertEquals(JwtUtil.digest("legacyToken"), RefreshTokenService.familyOf("legacyToken"));
+    }
+
+    private RefreshToken issueFor(Long userId) {
+        lastRawToken = refreshTokenService.issue(userId, "ana.admin", User.UserType.ADMIN);
+
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        RefreshToken stored = saved.getValue();
+        stored.setId(1L);
+        when(refreshTokenRepository.findByTokenHash(stored.getTokenHash())).thenReturn(Optional.of(stored));
+        return stored;
+    }
+
+    private String rawTokenOf(RefreshToken stored) {
+        assertEquals(JwtUtil.digest(lastRawToken), stored.getTokenHash());
+        return lastRawToken;
+    }
+}
@@ -0,0 +1,112 @@
+package com.cafeteria.cafeteria_plugin.security;
+
+import com.cafeteria.cafeteria_plugin.models.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenRevocationRegistryTest {
+
+    private final JwtUtil jwtUtil = new JwtUtil(100);
+
+    @Test
+    public void testLogoutRevokesOnlyThatToken() {
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(10, 7);
+        JwtClaims loggedOut = jwtUtil.parseClaims(jwtUtil.generateToken(1L, "ana.prof", User.UserType.TEACHER));
+        JwtClaims otherDevice = jwtUtil.parseClaims(jwtUtil.generateToken(1L, "ana.prof", User.UserType.TEACHER));
+
+        registry.revokeToken(loggedOut);
+
+        assertTrue(registry.isRevoked(loggedOut));
+        assertFalse(registry.isRevoked(otherDevice));
+    }
+
+    @Test
+    public void testForcedSignOutRevokesEveryTokenOfTheUser() {
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(10, 7);
+        JwtClaims first = jwtUtil.parseClaims(jwtUtil.generateToken(1L, "ana.prof", User.UserType.TEACHER));
+        JwtClaims otherUser = jwtUtil.parseClaims(jwtUtil.generateToken(2L, "ion.chef", User.UserType.CHEF));
+
+        registry.revokeUser(1L);
+
+        assertTrue(registry.isRevoked(first));
+        assertFalse(registry.isRevoked(otherUser));
+    }
+
+    @Test
+    public void testLoginInTheSameSecondAsRevocationIsAccepted() {
+        AtomicLong clock = new AtomicLong(TimeUnit.DAYS.toMillis(1) + 100);
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(10, 7, clock::get);
+
+        registry.revokeUser(1L);
+
+        // Aceeași secundă, dar emis după revocare
+        assertTrue(registry.isRevoked(1L, clock.get() - 50));
+        assertFalse(registry.isRevoked(1L, clock.get() + 50));
+    }
+
+    @Test
+    public void testWatermarkOutlivesAccessTokensUntilRefreshTokensExpire() {
+        AtomicLong clock = new AtomicLong(TimeUnit.DAYS.toMillis(1));
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(10, 7, clock::get);
+        long issuedBefore = clock.get() - 1;
+
+        registry.revokeUser(1L);
+        clock.addAndGet(TimeUnit.DAYS.toMillis(6));
+        registry.revokeUser(2L);
+        assertTrue(registry.isRevoked(1L, issuedBefore));
+
+        clock.addAndGet(TimeUnit.DAYS.toMillis(2));
+        registry.revokeUser(3L);
+        assertFalse(registry.isRevoked(1L, issuedBefore));
+        assertEquals(2, registry.getMetrics().get("revokedUsers"));
+    }
+
+    @Test
+    public void testFullDenylistFallsBackToUserWatermark() {
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(1, 7);
+        JwtClaims first = jwtUtil.parseClaims(jwtUtil.generateToken(1L, "ana.prof", User.UserType.TEACHER));
+        JwtClaims second = jwtUtil.parseClaims(jwtUtil.generateToken(2L, "ion.chef", User.UserType.CHEF));
+
+        registry.revokeToken(first);
+        registry.revokeToken(second);
+
+        // Prima intrare nu este evacuată, iar a doua este acoperită de watermark
+        assertTrue(registry.isRevoked(first));
+        assertTrue(registry.isRevoked(second));
+        assertEquals(1L, registry.getMetrics().get("denylistOverflows"));
+    }
+
+    @Test
+    public void testConcurrentRevocationsNeverOvershootOrDropEntries() throws Exception {
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(50, 7);
+        List<JwtClaims> tokens = new ArrayList<>();
+        for (long userId = 1; userId <= 200; userId++) {
+            tokens.add(jwtUtil.parseClaims(jwtUtil.generateToken(userId, "user" + userId, User.UserType.STUDENT)));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        for (JwtClaims token : tokens) {
+            pool.submit(() -> {
+                start.await();
+                registry.revokeToken(token);
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(50, registry.getMetrics().get("revokedTokens"));
+        assertEquals(150L, registry.getMetrics().get("denylistOverflows"));
+        assertTrue(tokens.stream().allMatch(registry::isRevoked));
+    }
+}
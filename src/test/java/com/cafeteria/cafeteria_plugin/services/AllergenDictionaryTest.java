@@ -0,0 +1,85 @@
+package com.cafeteria.cafeteria_plugin.services;
+
+import com.cafeteria.cafeteria_plugin.models.Allergen;
+import com.cafeteria.cafeteria_plugin.repositories.AllergenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class AllergenDictionaryTest {
+
+    private AllergenRepository allergenRepository;
+    private PlatformTransactionManager transactionManager;
+    private AllergenDictionary dictionary;
+
+    @BeforeEach
+    public void setUp() {
+        allergenRepository = mock(AllergenRepository.class);
+        Allergen gluten = new Allergen();
+        gluten.setBit(0);
+        gluten.setName("gluten");
+        when(allergenRepository.findAll()).thenReturn(List.of(gluten));
+        transactionManager = mock(PlatformTransactionManager.class);
+        dictionary = new AllergenDictionary(allergenRepository, transactionManager);
+    }
+
+    @Test
+    public void testKnownNamesMapToStoredBitsIgnoringCase() {
+        assertEquals(1L, dictionary.maskOf(List.of(" Gluten ", "GLUTEN")));
+        assertEquals(0L, dictionary.maskOf(List.of()));
+        assertEquals(0L, dictionary.maskOf(null));
+        verify(allergenRepository, never()).save(any());
+    }
+
+    @Test
+    public void testNewNameGetsNextBitOnce() {
+        long mask = dictionary.maskOf(List.of("peanuts", "gluten"));
+        long again = dictionary.maskOf(List.of("Peanuts"));
+
+        assertEquals(0b11L, mask);
+        assertEquals(0b10L, again);
+        assertEquals(List.of("gluten", "peanuts"), dictionary.namesOf(mask));
+        assertEquals(List.of("gluten", "peanuts"), dictionary.getAllergens());
+        verify(allergenRepository, times(1)).save(any());
+        verify(allergenRepository, times(1)).findAll();
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    public void testKnownMaskListsUnknownNamesAndRegistersNothing() {
+        assertEquals(1L, dictionary.knownMaskOf(List.of(" Gluten ")));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> dictionary.knownMaskOf(List.of("gluten", "Peanuts", "sesame", "peanuts")));
+        assertEquals("Unknown allergens: peanuts, sesame", e.getMessage());
+        assertEquals(List.of("gluten"), dictionary.getAllergens());
+        verify(allergenRepository, never()).save(any());
+    }
+
+    @Test
+    public void testFailedSaveLeavesDictionaryUnchanged() {
+        when(allergenRepository.save(any())).thenThrow(new IllegalStateException("constraint"));
+
+        assertThrows(IllegalStateException.class, () -> dictionary.maskOf(List.of("peanuts")));
+        assertEquals(List.of("gluten"), dictionary.getAllergens());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    public void testDictionaryRefusesSixtyFifthAllergen() {
+        List<String> names = new ArrayList<>();
+        for (int i = 1; i < AllergenDictionary.MAX_ALLERGENS; i++) {
+            names.add("allergen-" + i);
+        }
+        assertEquals(-1L, dictionary.maskOf(names) | 1L);
+
+        assertThrows(IllegalArgumentException.class, () -> dictionary.maskOf(List.of("one too many")));
+    }
+}
@@ -0,0 +1,194 @@
+package com.cafeteria.cafeteria_plugin.services;
+
+import com.cafeteria.cafeteria_plugin.models.MenuItem;
+import com.cafeteria.cafeteria_plugin.models.OrderHistory;
+import com.cafeteria.cafeteria_plugin.repositories.MenuItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class InventoryMonitorTest {
+
+    private MenuStockLedger stockLedger;
+    private KitchenOrderBus kitchenOrderBus;
+    private MutableClock clock;
+    private InventoryMonitor monitor;
+
+    @BeforeEach
+    public void setUp() {
+        MenuItemRepository menuItemRepository = mock(MenuItemRepository.class);
+        when(menuItemRepository.findAll()).thenReturn(List.of(item(1L, "Sandwich", 40), item(2L, "Juice", 100)));
+        stockLedger = new MenuStockLedger(menuItemRepository, mock(JdbcTemplate.class));
+        stockLedger.reload();
+        kitchenOrderBus = mock(KitchenOrderBus.class);
+        clock = new MutableClock(Instant.parse("2024-05-15T11:00:00Z"));
+        monitor = new InventoryMonitor(menuItemRepository, stockLedger, kitchenOrderBus, 15, 20, 2, clock);
+        monitor.reload();
+    }
+
+    @Test
+    public void testFastConsumptionRaisesRunsOutAlert() {
+        sell(1L, "Sandwich", 10);
+        verify(kitchenOrderBus, never()).publishEvent(any(), any());
+
+        clock.advance(Duration.ofMinutes(1));
+        sell(1L, "Sandwich", 15);
+
+        InventoryMonitor.StockAlert alert = lastAlert();
+        assertEquals(1L, alert.menuItemId());
+        assertEquals("Low Stock", alert.level());
+        assertEquals(15, alert.available());
+        assertEquals(9L, alert.minutesLeft());
+        assertEquals("Sandwich runs out in about 9 minutes", alert.message());
+    }
+
+    @Test
+    public void testStatusComesFromMemory() {
+        clock.advance(Duration.ofMinutes(1));
+        sell(1L, "Sandwich", 30);
+
+        List<Map<String, Object>> status = monitor.getStatus();
+
+        assertEquals(2, status.size());
+        assertEquals("Sandwich", status.get(0).get("name"));
+        assertEquals(10, status.get(0).get("quantity"));
+        assertEquals("Low Stock", status.get(0).get("status"));
+        assertEquals(5L, status.get(0).get("minutesLeft"));
+        assertEquals("In Stock", status.get(1).get("status"));
+        assertNull(status.get(1).get("minutesLeft"));
+    }
+
+    @Test
+    public void testAlertClearsWhenRateCoolsDown() {
+        sell(1L, "Sandwich", 30);
+        assertEquals("Low Stock", lastAlert().level());
+
+        clock.advance(Duration.ofHours(2));
+        monitor.check();
+
+        InventoryMonitor.StockAlert alert = lastAlert();
+        assertEquals("In Stock", alert.level());
+        assertEquals("Sandwich is back in stock", alert.message());
+        assertEquals(2L, monitor.getMetrics().get("alerts"));
+    }
+
+    @Test
+    public void testLowStockClearsOnlyWellAboveThreshold() {
+        sell(1L, "Sandwich", 30);
+        assertEquals("Low Stock", lastAlert().level());
+
+        // 26 de minute rămase: peste prag, dar sub 1,5 × prag
+        clock.advance(Duration.ofMinutes(25));
+        monitor.check();
+        assertEquals(26L, monitor.getStatus().get(0).get("minutesLeft"));
+        assertEquals("Low Stock", monitor.getStatus().get(0).get("status"));
+        assertEquals(1L, monitor.getMetrics().get("alerts"));
+
+        clock.advance(Duration.ofMinutes(5));
+        monitor.check();
+        assertEquals("In Stock", lastAlert().level());
+        assertEquals(2L, monitor.getMetrics().get("alerts"));
+    }
+
+    @Test
+    public void testSalesOfUntrackedItemsAreIgnored() {
+        monitor.untrack(1L);
+        OrderHistory order = new OrderHistory();
+        order.setMenuItemId(1L);
+        order.setMenuItemName("Sandwich");
+        order.setQuantity(30);
+
+        monitor.onOrdersPlaced(new OrdersPlacedEvent(List.of(order), true));
+
+        assertEquals(1, monitor.getStatus().size());
+        assertEquals(0L, monitor.getMetrics().get("recordedUnits"));
+        verify(kitchenOrderBus, never()).publishEvent(any(), any());
+    }
+
+    @Test
+    public void testSellingOutRaisesOutOfStock() {
+        sell(2L, "Juice", 100);
+
+        InventoryMonitor.StockAlert alert = lastAlert();
+        assertEquals("Out of Stock", alert.level());
+        assertEquals("Juice is out of stock", alert.message());
+    }
+
+    @Test
+    public void testRestockIsCheckedOnTrack() {
+        sell(2L, "Juice", 100);
+        stockLedger.reset(2L, 50);
+
+        monitor.track(item(2L, "Juice", 50));
+
+        // Ritmul rămâne cel de dinainte: 50 de porții ajung doar câteva minute
+        InventoryMonitor.StockAlert alert = lastAlert();
+        assertEquals("Low Stock", alert.level());
+        assertEquals(7L, alert.minutesLeft());
+    }
+
+    private void sell(Long menuItemId, String name, int quantity) {
+        assertTrue(stockLedger.tryReserve(menuItemId, quantity));
+        OrderHistory order = new OrderHistory();
+        order.setMenuItemId(menuItemId);
+        order.setMenuItemName(name);
+        order.setQuantity(quantity);
+        monitor.onOrdersPlaced(new OrdersPlacedEvent(List.of(order), true));
+    }
+
+    private InventoryMonitor.StockAlert lastAlert() {
+        ArgumentCaptor<Object> alerts = ArgumentCaptor.forClass(Object.class);
+        verify(kitchenOrderBus, atLeastOnce()).publishEvent(eq(InventoryMonitor.ALERT_EVENT), alerts.capture());
+        return (InventoryMonitor.StockAlert) alerts.getValue();
+    }
+
+    private static MenuItem item(Long id, String name, int quantity) {
+        MenuItem item = new MenuItem();
+        item.setId(id);
+        item.setName(name);
+        item.setPrice(5.0);
+        item.setQuantity(quantity);
+        return item;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
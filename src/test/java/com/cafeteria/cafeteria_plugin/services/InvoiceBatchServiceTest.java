@@ -0,0 +1,131 @@
+package com.cafeteria.cafeteria_plugin.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the month query against H2 and checks the archive: one PDF per student in student order,
+ * nothing from other months, and a manifest whose totals match the order history.
+ */
+public class InvoiceBatchServiceTest {
+
+    private static final YearMonth APRIL = YearMonth.of(2024, 4);
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private ExecutorService renderPool;
+    private InvoiceBatchService invoiceBatchService;
+
+    @BeforeEach
+    public void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:invoice_batch;DB_CLOSE_DELAY=-1", "sa", "", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE students (id BIGINT PRIMARY KEY, name VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE order_history (id BIGINT AUTO_INCREMENT PRIMARY KEY, menu_item_name VARCHAR(255), "
+                + "price DOUBLE, quantity INT, order_time TIMESTAMP, parent_id BIGINT, student_id BIGINT)");
+        jdbcTemplate.update("INSERT INTO students (id, name) VALUES (6, 'Ana Pop'), (7, 'Pop, Ion'), (8, 'Dan')");
+        renderPool = Executors.newFixedThreadPool(3);
+        // Fereastra mică forțează scrierea în timp ce citirea continuă
+        invoiceBatchService = new InvoiceBatchService(jdbcTemplate, new InvoicePdfRenderer(), renderPool, 1,
+                Clock.systemDefaultZone());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        renderPool.shutdownNow();
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        dataSource.destroy();
+    }
+
+    @Test
+    public void testArchiveHasOneInvoicePerStudentAndManifest() throws Exception {
+        LocalDateTime april = APRIL.atDay(10).atTime(12, 0);
+        insertOrder("Sandwich", 8.0, april, 7L);
+        insertOrder("Sandwich", 8.0, april, 6L);
+        insertOrder("Juice", 4.5, april.plusDays(1), 6L);
+        insertOrder("Juice", 4.0, april.plusDays(2), 7L);
+        insertOrder("Soup", 6.0, april.plusMonths(1), 8L);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        invoiceBatchService.writeMonthArchive(APRIL, out);
+
+        List<String> names = new ArrayList<>();
+        String manifest = null;
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                names.add(entry.getName());
+                byte[] content = zip.readAllBytes();
+                if (entry.getName().equals("manifest.csv")) {
+                    manifest = new String(content, StandardCharsets.UTF_8);
+                } else {
+                    assertEquals("%PDF", new String(content, 0, 4, StandardCharsets.US_ASCII));
+                }
+            }
+        }
+
+        assertEquals(List.of("invoice_6.pdf", "invoice_7.pdf", "manifest.csv"), names);
+        assertEquals("student_id,student_name,orders,total,file\n"
+                + "6,Ana Pop,2,12.50,invoice_6.pdf\n"
+                + "7,\"Pop, Ion\",2,12.00,invoice_7.pdf\n", manifest);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> lastRun = (Map<String, Object>) invoiceBatchService.getMetrics().get("lastRun");
+        assertEquals("completed", lastRun.get("status"));
+        assertEquals(4L, lastRun.get("ordersRead"));
+        assertEquals(2L, lastRun.get("invoicesWritten"));
+        assertFalse(invoiceBatchService.isRunning());
+    }
+
+    @Test
+    public void testSecondCallerIsRefusedUntilTheClaimedRunIsWritten() throws Exception {
+        InvoiceBatchService.Run run = invoiceBatchService.tryStart(APRIL).orElseThrow();
+
+        assertTrue(invoiceBatchService.tryStart(APRIL).isEmpty());
+        assertThrows(IllegalStateException.class,
+                () -> invoiceBatchService.writeMonthArchive(APRIL, new ByteArrayOutputStream()));
+
+        invoiceBatchService.writeMonthArchive(run, new ByteArrayOutputStream());
+
+        assertFalse(invoiceBatchService.isRunning());
+        assertThrows(IllegalStateException.class,
+                () -> invoiceBatchService.writeMonthArchive(run, new ByteArrayOutputStream()));
+        assertTrue(invoiceBatchService.tryStart(APRIL).isPresent());
+    }
+
+    @Test
+    public void testEmptyMonthGivesManifestOnly() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        invoiceBatchService.writeMonthArchive(APRIL, out);
+
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals("manifest.csv", zip.getNextEntry().getName());
+            assertNull(zip.getNextEntry());
+        }
+    }
+
+    private void insertOrder(String name, double price, LocalDateTime time, Long studentId) {
+        jdbcTemplate.update("INSERT INTO order_history (menu_item_name, price, quantity, order_time, parent_id, student_id) "
+                + "VALUES (?, ?, 1, ?, 1, ?)", name, price, Timestamp.valueOf(time), studentId);
+    }
+}
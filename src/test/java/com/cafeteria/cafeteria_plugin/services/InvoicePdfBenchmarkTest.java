@@ -0,0 +1,161 @@
+package com.cafeteria.cafeteria_plugin.services;
+
+import com.cafeteria.cafeteria_plugin.models.OrderHistory;
+import com.cafeteria.cafeteria_plugin.models.Student;
+import com.cafeteria.cafeteria_plugin.repositories.OrderHistoryRepository;
+import com.cafeteria.cafeteria_plugin.util.MicroBenchmark;
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Micro-benchmark (run with {@code -Pbenchmarks}) for a {@value #LINES}-line invoice:
+ * <ul>
+ *     <li>before: the previous generateInvoicePDF body, new fonts and a whole-document byte array</li>
+ *     <li>streamed: {@link InvoicePdfRenderer} writing into the response stream in table slices</li>
+ *     <li>stored: a closed month served from the content-addressed file</li>
+ * </ul>
+ */
+public class InvoicePdfBenchmarkTest {
+
+    private static final int LINES = 500;
+    private static final int OPS_PER_ITERATION = 10;
+
+    private static final YearMonth APRIL = YearMonth.of(2024, 4);
+
+    @TempDir
+    Path storage;
+
+    @Test
+    @Tag(MicroBenchmark.TAG)
+    public void storedInvoiceVersusRendering() throws Exception {
+        List<OrderHistory> orders = IntStream.rangeClosed(1, LINES).mapToObj(InvoicePdfBenchmarkTest::order).toList();
+        InvoicePdfRenderer renderer = new InvoicePdfRenderer();
+        OrderHistoryRepository repository = mock(OrderHistoryRepository.class);
+        when(repository.findAllByStudentAndOrderTimeBetween(any(), any(), any())).thenReturn(orders);
+        InvoiceService invoiceService = new InvoiceService(repository, renderer, storage, Clock.systemDefaultZone());
+        Student student = new Student();
+        student.setId(6L);
+        student.setName("Ana Pop");
+
+        MicroBenchmark.nanosPerOp("Invoice before (buffered)", OPS_PER_ITERATION,
+                i -> legacyRender("Ana Pop", orders).length);
+        MicroBenchmark.nanosPerOp("Invoice streamed", OPS_PER_ITERATION, i -> {
+            CountingOutputStream out = new CountingOutputStream();
+            renderer.render("Ana Pop", APRIL, orders, LocalDateTime.now(), out);
+            return out.count;
+        });
+        MicroBenchmark.nanosPerOp("Invoice stored (file read)", OPS_PER_ITERATION, i -> {
+            InvoiceService.StoredInvoice invoice = invoiceService.getClosedMonthInvoice(student, APRIL);
+            CountingOutputStream out = new CountingOutputStream();
+            Files.copy(invoice.file(), out);
+            return out.count;
+        });
+    }
+
+    @Test
+    public void slicedTableKeepsEveryLine() throws Exception {
+        List<OrderHistory> orders = IntStream.rangeClosed(1, LINES).mapToObj(InvoicePdfBenchmarkTest::order).toList();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new InvoicePdfRenderer().render("Ana Pop", APRIL, orders, LocalDateTime.now(), out);
+
+        com.itextpdf.text.pdf.PdfReader reader = new com.itextpdf.text.pdf.PdfReader(out.toByteArray());
+        StringBuilder text = new StringBuilder();
+        for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+            text.append(com.itextpdf.text.pdf.parser.PdfTextExtractor.getTextFromPage(reader, page));
+        }
+        assertTrue(text.toString().contains("Item " + LINES));
+        assertTrue(text.toString().contains("Total: $" + orders.stream().mapToDouble(OrderHistory::getPrice).sum()));
+    }
+
+    static OrderHistory order(int line) {
+        OrderHistory order = new OrderHistory();
+        order.setMenuItemName("Item " + line);
+        order.setQuantity(1 + line % 3);
+        order.setPrice(2.5 * (1 + line % 3));
+        order.setOrderTime(LocalDateTime.of(2024, 4, 1 + line % 28, 12, 0));
+        return order;
+    }
+
+    // Corpul vechi al MenuItemService.generateInvoicePDF, fără interogări
+    private static byte[] legacyRender(String studentName, List<OrderHistory> orders) throws Exception {
+        double total = orders.stream().mapToDouble(OrderHistory::getPrice).sum();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Document document = new Document(PageSize.A4);
+        PdfWriter.getInstance(document, outputStream);
+        document.open();
+        Font titleFont = new Font(Font.FontFamily.HELVETICA, 18, Font.BOLD);
+        Paragraph title = new Paragraph("INVOICE", titleFont);
+        title.setAlignment(Element.ALIGN_CENTER);
+        document.add(title);
+        document.add(new Paragraph(" "));
+        Font normalFont = new Font(Font.FontFamily.HELVETICA, 12);
+        Font boldFont = new Font(Font.FontFamily.HELVETICA, 12, Font.BOLD);
+        document.add(new Paragraph("Invoice for: " + studentName, boldFont));
+        document.add(new Paragraph("Month: 4/2024", normalFont));
+        document.add(new Paragraph(" "));
+        PdfPTable table = new PdfPTable(4);
+        table.setWidthPercentage(100);
+        for (String columnTitle : new String[]{"Item", "Quantity", "Price", "Date"}) {
+            PdfPCell header = new PdfPCell();
+            header.setBackgroundColor(BaseColor.LIGHT_GRAY);
+            header.setBorderWidth(2);
+            header.setPhrase(new Phrase(columnTitle, boldFont));
+            table.addCell(header);
+        }
+        DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
+        for (OrderHistory order : orders) {
+            table.addCell(new Phrase(order.getMenuItemName(), normalFont));
+            table.addCell(new Phrase(String.valueOf(order.getQuantity()), normalFont));
+            table.addCell(new Phrase("$" + order.getPrice(), normalFont));
+            table.addCell(new Phrase(order.getOrderTime().format(dateTimeFormatter), normalFont));
+        }
+        document.add(table);
+        Paragraph totalParagraph = new Paragraph("Total: $" + total, boldFont);
+        totalParagraph.setAlignment(Element.ALIGN_RIGHT);
+        document.add(totalParagraph);
+        document.close();
+        return outputStream.toByteArray();
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
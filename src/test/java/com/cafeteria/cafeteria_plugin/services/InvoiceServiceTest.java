@@ -0,0 +1,79 @@
+package com.cafeteria.cafeteria_plugin.services;
+
+import com.cafeteria.cafeteria_plugin.models.Student;
+import com.cafeteria.cafeteria_plugin.repositories.OrderHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class InvoiceServiceTest {
+
+    private static final Clock MAY_2024 = Clock.fixed(Instant.parse("2024-05-15T10:00:00Z"), ZoneOffset.UTC);
+
+    @TempDir
+    Path storage;
+
+    private OrderHistoryRepository orderHistoryRepository;
+    private InvoiceService invoiceService;
+    private final Student student = new Student();
+
+    @BeforeEach
+    public void setUp() {
+        orderHistoryRepository = mock(OrderHistoryRepository.class);
+        when(orderHistoryRepository.findAllByStudentAndOrderTimeBetween(eq(student), any(), any()))
+                .thenReturn(List.of(InvoicePdfBenchmarkTest.order(1), InvoicePdfBenchmarkTest.order(2)));
+        invoiceService = new InvoiceService(orderHistoryRepository, new InvoicePdfRenderer(), storage, MAY_2024);
+        student.setId(6L);
+        student.setName("Ana Pop");
+    }
+
+    @Test
+    public void testClosedMonthIsRenderedOnceAndStoredByHash() throws Exception {
+        InvoiceService.StoredInvoice first = invoiceService.getClosedMonthInvoice(student, YearMonth.of(2024, 4));
+        InvoiceService.StoredInvoice second = invoiceService.getClosedMonthInvoice(student, YearMonth.of(2024, 4));
+
+        assertEquals(first, second);
+        verify(orderHistoryRepository, times(1)).findAllByStudentAndOrderTimeBetween(eq(student), any(), any());
+        byte[] pdf = Files.readAllBytes(first.file());
+        assertEquals("%PDF", new String(pdf, 0, 4, StandardCharsets.US_ASCII));
+        assertEquals(pdf.length, first.size());
+        assertEquals(first.file().getFileName().toString(), first.etag().replace("\"", "") + ".pdf");
+    }
+
+    @Test
+    public void testStoredInvoiceSurvivesRestart() throws Exception {
+        InvoiceService.StoredInvoice stored = invoiceService.getClosedMonthInvoice(student, YearMonth.of(2024, 4));
+
+        InvoiceService restarted = new InvoiceService(orderHistoryRepository, new InvoicePdfRenderer(), storage, MAY_2024);
+        assertEquals(stored, restarted.getClosedMonthInvoice(student, YearMonth.of(2024, 4)));
+        verify(orderHistoryRepository, times(1)).findAllByStudentAndOrderTimeBetween(eq(student), any(), any());
+    }
+
+    @Test
+    public void testOpenMonthIsStreamedNotStored() throws Exception {
+        YearMonth current = YearMonth.of(2024, 5);
+        assertFalse(invoiceService.isClosed(current));
+        assertThrows(IllegalArgumentException.class, () -> invoiceService.getClosedMonthInvoice(student, current));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        invoiceService.writeInvoice(student, current, invoiceService.getOrders(student, current), out);
+
+        assertEquals("%PDF", new String(out.toByteArray(), 0, 4, StandardCharsets.US_ASCII));
+        assertFalse(Files.exists(storage.resolve("objects")));
+    }
+}
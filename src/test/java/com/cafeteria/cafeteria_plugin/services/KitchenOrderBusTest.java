@@ -0,0 +1,154 @@
+package com.cafeteria.cafeteria_plugin.services;
+
+import com.cafeteria.cafeteria_plugin.models.OrderHistory;
+import com.cafeteria.cafeteria_plugin.models.Student;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KitchenOrderBusTest {
+
+    @Test
+    public void testOrdersReachConnectedScreensInSequence() {
+        KitchenOrderBus bus = new KitchenOrderBus(15, 10, 16, 0, Runnable::run);
+        RecordingEmitter screen = new RecordingEmitter();
+        bus.subscribe(null, screen);
+
+        bus.onOrdersPlaced(placed(order("Sandwich", 1), order("Juice", 2)));
+
+        List<KitchenOrderBus.KitchenOrder> received = screen.orders();
+        assertEquals(2, received.size());
+        assertEquals(1L, received.get(0).sequence());
+        assertEquals("Sandwich", received.get(0).menuItemName());
+        assertEquals("Ana", received.get(0).studentName());
+        assertEquals(2L, received.get(1).sequence());
+    }
+
+    @Test
+    public void testReconnectReplaysOnlyMissedOrders() {
+        KitchenOrderBus bus = new KitchenOrderBus(15, 10, 16, 0, Runnable::run);
+        bus.onOrdersPlaced(placed(order("Sandwich", 1), order("Juice", 1), order("Apple", 1)));
+
+        RecordingEmitter screen = new RecordingEmitter();
+        bus.subscribe(1L, screen);
+
+        assertEquals(List.of(2L, 3L), screen.orders().stream().map(KitchenOrderBus.KitchenOrder::sequence).toList());
+        assertFalse(screen.sent.contains("reload"));
+    }
+
+    @Test
+    public void testReconnectBeyondWindowAsksForReload() {
+        KitchenOrderBus bus = new KitchenOrderBus(2, 10, 16, 0, Runnable::run);
+        bus.onOrdersPlaced(placed(order("Sandwich", 1), order("Juice", 1), order("Apple", 1), order("Soup", 1)));
+
+        RecordingEmitter screen = new RecordingEmitter();
+        bus.subscribe(1L, screen);
+
+        assertTrue(screen.orders().isEmpty());
+        assertTrue(screen.sent.contains("reload"));
+        assertEquals(1L, bus.getMetrics().get("resyncs"));
+    }
+
+    @Test
+    public void testReconnectAtTheStartOfAFullWindowGetsEveryOrder() {
+        KitchenOrderBus bus = new KitchenOrderBus(15, 10, 16, 0, Runnable::run);
+        IntStream.range(0, 20).forEach(i -> bus.onOrdersPlaced(placed(order("Sandwich", 1))));
+
+        RecordingEmitter screen = new RecordingEmitter();
+        bus.subscribe(5L, screen);
+
+        assertEquals(15, screen.orders().size());
+        assertEquals(6L, screen.orders().get(0).sequence());
+        assertFalse(screen.sent.contains("reload"));
+    }
+
+    @Test
+    public void testCatchUpWindowLargerThanQueueIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new KitchenOrderBus(16, 10, 16, 0, Runnable::run));
+    }
+
+    @Test
+    public void testSlowScreenIsDisconnectedInsteadOfBuffering() {
+        List<Runnable> neverRun = new ArrayList<>();
+        KitchenOrderBus bus = new KitchenOrderBus(3, 10, 4, 0, neverRun::add);
+        RecordingEmitter slow = new RecordingEmitter();
+        bus.subscribe(null, slow);
+
+        IntStream.range(0, 10).forEach(i -> bus.onOrdersPlaced(placed(order("Sandwich", 1))));
+
+        assertTrue(slow.completed);
+        assertEquals(0, bus.getMetrics().get("connectedScreens"));
+        assertEquals(1L, bus.getMetrics().get("droppedSlowScreens"));
+        assertEquals(10L, bus.getMetrics().get("lastSequence"));
+    }
+
+    @Test
+    public void testNamedEventsAreNotNumberedOrReplayed() {
+        KitchenOrderBus bus = new KitchenOrderBus(15, 10, 16, 0, Runnable::run);
+        RecordingEmitter screen = new RecordingEmitter();
+        bus.subscribe(null, screen);
+
+        bus.publishEvent("stock-alert", "Juice is out of stock");
+        bus.onOrdersPlaced(placed(order("Sandwich", 1)));
+
+        assertTrue(screen.sent.contains("Juice is out of stock"));
+        assertEquals(1L, screen.orders().get(0).sequence());
+        RecordingEmitter late = new RecordingEmitter();
+        bus.subscribe(0L, late);
+        assertFalse(late.sent.contains("Juice is out of stock"));
+    }
+
+    @Test
+    public void testConnectionLimit() {
+        KitchenOrderBus bus = new KitchenOrderBus(15, 1, 16, 0, Runnable::run);
+        bus.subscribe(null, new RecordingEmitter());
+
+        assertThrows(IllegalStateException.class, () -> bus.subscribe(null, new RecordingEmitter()));
+    }
+
+    private static OrdersPlacedEvent placed(OrderHistory... orders) {
+        return new OrdersPlacedEvent(List.of(orders), true);
+    }
+
+    private static OrderHistory order(String name, int quantity) {
+        Student student = new Student();
+        student.setId(6L);
+        student.setName("Ana");
+        OrderHistory order = new OrderHistory();
+        order.setMenuItemName(name);
+        order.setQuantity(quantity);
+        order.setPrice(5.0 * quantity);
+        order.setOrderTime(LocalDateTime.now());
+        order.setStudent(student);
+        return order;
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        final List<Object> sent = new CopyOnWriteArrayList<>();
+        volatile boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            builder.build().forEach(part -> sent.add(part.getData()));
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+        }
+
+        List<KitchenOrderBus.KitchenOrder> orders() {
+            return sent.stream()
+                    .filter(KitchenOrderBus.KitchenOrder.class::isInstance)
+                    .map(KitchenOrderBus.KitchenOrder.class::cast)
+                    .toList();
+        }
+    }
+}
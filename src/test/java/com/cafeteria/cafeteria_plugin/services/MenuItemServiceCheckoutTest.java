@@ -0,0 +1,173 @@
+package com.cafeteria.cafeteria_plugin.services;
+
+import com.cafeteria.cafeteria_plugin.dtos.CartLineDTO;
+import com.cafeteria.cafeteria_plugin.models.MenuItem;
+import com.cafeteria.cafeteria_plugin.models.OrderHistory;
+import com.cafeteria.cafeteria_plugin.models.Parent;
+import com.cafeteria.cafeteria_plugin.models.Student;
+import com.cafeteria.cafeteria_plugin.repositories.MenuItemRepository;
+import com.cafeteria.cafeteria_plugin.repositories.OrderHistoryRepository;
+import com.cafeteria.cafeteria_plugin.repositories.ParentRepository;
+import com.cafeteria.cafeteria_plugin.repositories.StudentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class MenuItemServiceCheckoutTest {
+
+    private MenuItemRepository menuItemRepository;
+    private OrderHistoryRepository orderHistoryRepository;
+    private MenuStockLedger stockLedger;
+    private WalletService walletService;
+    private ApplicationEventPublisher eventPublisher;
+    private MenuItemService menuItemService;
+
+    private final Parent parent = new Parent();
+    private final Student student = new Student();
+
+    @BeforeEach
+    public void setUp() {
+        menuItemRepository = mock(MenuItemRepository.class);
+        orderHistoryRepository = mock(OrderHistoryRepository.class);
+        List<MenuItem> items = List.of(item(1L, "Sandwich", 8.0, 10), item(2L, "Juice", 4.0, 10), item(3L, "Apple", 2.0, 1));
+        when(menuItemRepository.findAll()).thenReturn(items);
+        when(menuItemRepository.findAllById(any())).thenReturn(items);
+
+        stockLedger = new MenuStockLedger(menuItemRepository, mock(JdbcTemplate.class));
+        stockLedger.reload();
+        walletService = mock(WalletService.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        menuItemService = new MenuItemService(menuItemRepository, orderHistoryRepository,
+                mock(ParentRepository.class), mock(StudentRepository.class), stockLedger,
+                eventPublisher, mock(MenuSnapshotCache.class), mock(SalesRollupService.class),
+                mock(PopularityTracker.class), walletService, mock(AllergenDictionary.class),
+                mock(InventoryMonitor.class));
+        parent.setId(5L);
+        student.setId(6L);
+    }
+
+    @Test
+    public void testCheckoutWritesAllLinesInOneBatch() {
+        MenuItemService.CheckoutResult result = menuItemService.checkout(parent, student,
+                List.of(line(1L, 1), line(2L, 2), line(3L, 1)));
+
+        assertEquals(3, result.lines());
+        assertEquals(18.0, result.total());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<OrderHistory>> orders = ArgumentCaptor.forClass(List.class);
+        verify(orderHistoryRepository, times(1)).insertAll(orders.capture());
+        assertEquals(3, orders.getValue().size());
+        verify(menuItemRepository, times(1)).findAllById(any());
+        verify(orderHistoryRepository, never()).save(any());
+        assertEquals(9, stockLedger.available(1L));
+        assertEquals(8, stockLedger.available(2L));
+        verify(walletService).charge(eq(5L), eq(18.0), any());
+        verify(eventPublisher).publishEvent(new OrdersPlacedEvent(orders.getValue(), true));
+    }
+
+    @Test
+    public void testShortageOnOneLineReservesNothing() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () ->
+                menuItemService.checkout(parent, student, List.of(line(1L, 1), line(2L, 1), line(3L, 2))));
+
+        assertTrue(error.getMessage().contains("Apple"));
+        assertEquals(10, stockLedger.available(1L));
+        assertEquals(10, stockLedger.available(2L));
+        assertEquals(1, stockLedger.available(3L));
+        verify(orderHistoryRepository, never()).insertAll(any());
+    }
+
+    @Test
+    public void testFailedInsertReleasesStock() {
+        doThrow(new IllegalStateException("db down")).when(orderHistoryRepository).insertAll(any());
+
+        assertThrows(IllegalStateException.class, () ->
+                menuItemService.checkout(parent, student, List.of(line(1L, 2), line(1L, 3))));
+
+        assertEquals(10, stockLedger.available(1L));
+        verify(eventPublisher, never()).publishEvent(any(OrdersPlacedEvent.class));
+    }
+
+    @Test
+    public void testRefusedWalletChargeReleasesStock() {
+        when(walletService.charge(eq(5L), anyDouble(), any()))
+                .thenThrow(new IllegalArgumentException("Insufficient wallet balance"));
+
+        assertThrows(IllegalArgumentException.class, () ->
+                menuItemService.checkout(parent, student, List.of(line(1L, 2), line(2L, 1))));
+
+        assertEquals(10, stockLedger.available(1L));
+        assertEquals(10, stockLedger.available(2L));
+    }
+
+    @Test
+    public void testQuantityAboveLimitIsRejectedBeforeReserving() {
+        assertThrows(IllegalArgumentException.class, () ->
+                menuItemService.checkout(parent, student, List.of(line(1L, Integer.MAX_VALUE), line(1L, 1))));
+        assertThrows(IllegalArgumentException.class, () -> menuItemService.checkout(parent, student,
+                List.of(line(1L, MenuItemService.MAX_QUANTITY_PER_ITEM), line(1L, 1))));
+
+        assertEquals(10, stockLedger.available(1L));
+        verify(orderHistoryRepository, never()).insertAll(any());
+    }
+
+    @Test
+    public void testRollbackAtCommitReleasesStock() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            menuItemService.checkout(parent, student, List.of(line(1L, 2), line(2L, 1)));
+            assertEquals(8, stockLedger.available(1L));
+
+            // Comanda s-a salvat, dar commit-ul eșuează
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(10, stockLedger.available(1L));
+        assertEquals(10, stockLedger.available(2L));
+    }
+
+    @Test
+    public void testCommittedCheckoutKeepsStock() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            menuItemService.checkout(parent, student, List.of(line(1L, 2)));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(8, stockLedger.available(1L));
+    }
+
+    private static CartLineDTO line(Long menuItemId, int quantity) {
+        CartLineDTO line = new CartLineDTO();
+        line.setMenuItemId(menuItemId);
+        line.setQuantity(quantity);
+        return line;
+    }
+
+    private static MenuItem item(Long id, String name, double price, int quantity) {
+        MenuItem item = new MenuItem();
+        item.setId(id);
+        item.setName(name);
+        item.setPrice(price);
+        item.setQuantity(quantity);
+        return item;
+    }
+}
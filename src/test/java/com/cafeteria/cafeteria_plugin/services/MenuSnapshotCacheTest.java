@@ -0,0 +1,171 @@
+package com.cafeteria.cafeteria_plugin.services;
+
+import com.cafeteria.cafeteria_plugin.models.MenuItem;
+import com.cafeteria.cafeteria_plugin.repositories.MenuItemRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class MenuSnapshotCacheTest {
+
+    private static final long GLUTEN = 1L;
+    private static final long NUTS = 1L << 1;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private MenuItemRepository menuItemRepository;
+    private MenuStockLedger stockLedger;
+    private MenuSnapshotCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        menuItemRepository = mock(MenuItemRepository.class);
+        List<MenuItem> items = List.of(item(1L, "Sandwich", 10, List.of("gluten")), item(2L, "Juice", 5, List.of()));
+        items.get(0).setAllergenMask(GLUTEN);
+        items.get(1).setAllergenMask(0L);
+        when(menuItemRepository.findAll()).thenReturn(items);
+        when(menuItemRepository.findAllWithAllergens()).thenReturn(items);
+        stockLedger = new MenuStockLedger(menuItemRepository, mock(JdbcTemplate.class));
+        stockLedger.reload();
+        cache = new MenuSnapshotCache(menuItemRepository, stockLedger, objectMapper);
+    }
+
+    @Test
+    public void testRepeatedReadsDoNotQueryAgain() throws Exception {
+        MenuSnapshotCache.CachedJson first = cache.all();
+        MenuSnapshotCache.CachedJson second = cache.all();
+
+        assertSame(first, second);
+        verify(menuItemRepository, times(1)).findAllWithAllergens();
+        JsonNode menu = objectMapper.readTree(first.body());
+        assertEquals(2, menu.size());
+        assertEquals("gluten", menu.get(0).get("allergens").get(0).asText());
+        assertTrue(first.etag().startsWith("\"") && first.etag().endsWith("\""));
+    }
+
+    @Test
+    public void testStockChangeReserializesWithoutReload() throws Exception {
+        MenuSnapshotCache.CachedJson before = cache.all();
+        MenuSnapshotCache.CachedJson juiceBefore = cache.item(2L).orElseThrow();
+
+        assertTrue(stockLedger.tryReserve(1L, 3));
+        MenuSnapshotCache.CachedJson after = cache.all();
+
+        assertNotEquals(before.etag(), after.etag());
+        assertEquals(7, objectMapper.readTree(after.body()).get(0).get("quantity").asInt());
+        assertEquals(7, objectMapper.readTree(cache.item(1L).orElseThrow().body()).get("quantity").asInt());
+        assertSame(juiceBefore, cache.item(2L).orElseThrow());
+        verify(menuItemRepository, times(1)).findAllWithAllergens();
+    }
+
+    @Test
+    public void testInvalidateReloadsMenu() {
+        MenuSnapshotCache.CachedJson before = cache.all();
+        when(menuItemRepository.findAllWithAllergens()).thenReturn(List.of(item(1L, "Sandwich", 10, List.of("gluten"))));
+
+        cache.invalidate();
+        MenuSnapshotCache.CachedJson after = cache.all();
+
+        assertNotEquals(before.etag(), after.etag());
+        assertTrue(cache.item(2L).isEmpty());
+        verify(menuItemRepository, times(2)).findAllWithAllergens();
+    }
+
+    @Test
+    public void testInvalidateDuringRebuildIsNotOverwritten() {
+        AtomicInteger loads = new AtomicInteger();
+        when(menuItemRepository.findAllWithAllergens()).thenAnswer(invocation -> {
+            if (loads.incrementAndGet() == 1) {
+                // Adminul salvează în timp ce snapshot-ul vechi se construiește
+                cache.invalidate();
+                return List.of(item(1L, "Sandwich", 10, List.of("gluten")), item(2L, "Juice", 5, List.of()));
+            }
+            return List.of(item(1L, "Sandwich", 10, List.of("gluten")));
+        });
+
+        assertTrue(cache.item(2L).isPresent());
+        assertTrue(cache.item(2L).isEmpty());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testInvalidateDuringStockRefreshIsNotOverwritten() {
+        MenuStockLedger ledger = spy(stockLedger);
+        MenuSnapshotCache racing = new MenuSnapshotCache(menuItemRepository, ledger, objectMapper);
+        racing.all();
+        assertTrue(stockLedger.tryReserve(1L, 3));
+        when(menuItemRepository.findAllWithAllergens()).thenReturn(List.of(item(1L, "Sandwich", 10, List.of("gluten"))));
+
+        // Apelul 1 descoperă stocul schimbat, apelul 2 e deja în refreshStock
+        AtomicInteger calls = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (calls.incrementAndGet() == 2) {
+                racing.invalidate();
+            }
+            return invocation.callRealMethod();
+        }).when(ledger).available(anyLong());
+        racing.all();
+
+        assertTrue(racing.item(2L).isEmpty());
+    }
+
+    @Test
+    public void testSameContentKeepsSameEtag() {
+        String etag = cache.all().etag();
+        cache.invalidate();
+
+        assertEquals(etag, cache.all().etag());
+    }
+
+    @Test
+    public void testSafeMenuLeavesOutItemsWithProfileAllergens() throws Exception {
+        JsonNode safe = objectMapper.readTree(cache.safeFor(GLUTEN | NUTS).body());
+
+        assertEquals(1, safe.size());
+        assertEquals("Juice", safe.get(0).get("name").asText());
+        assertNull(safe.get(0).get("allergenMask"));
+        assertEquals(2, objectMapper.readTree(cache.safeFor(NUTS).body()).size());
+        assertSame(cache.all(), cache.safeFor(0L));
+        verify(menuItemRepository, times(1)).findAllWithAllergens();
+    }
+
+    @Test
+    public void testSafeMenuIsCachedUntilStockMoves() throws Exception {
+        MenuSnapshotCache.CachedJson first = cache.safeFor(GLUTEN);
+        assertSame(first, cache.safeFor(GLUTEN));
+
+        assertTrue(stockLedger.tryReserve(2L, 1));
+        MenuSnapshotCache.CachedJson after = cache.safeFor(GLUTEN);
+
+        assertNotSame(first, after);
+        assertEquals(4, objectMapper.readTree(after.body()).get(0).get("quantity").asInt());
+        assertEquals(1L, cache.getMetrics().get("safeMenuHits"));
+    }
+
+    @Test
+    public void testItemWithUnknownMaskIsNotOfferedAsSafe() throws Exception {
+        MenuItem unmasked = item(3L, "Cake", 4, List.of("eggs"));
+        when(menuItemRepository.findAllWithAllergens()).thenReturn(List.of(unmasked));
+        cache.invalidate();
+
+        assertEquals(0, objectMapper.readTree(cache.safeFor(NUTS).body()).size());
+        assertEquals(1, objectMapper.readTree(cache.safeFor(0L).body()).size());
+    }
+
+    private static MenuItem item(Long id, String name, int quantity, List<String> allergens) {
+        MenuItem item = new MenuItem();
+        item.setId(id);
+        item.setName(name);
+        item.setPrice(5.0);
+        item.setQuantity(quantity);
+        item.setAllergens(allergens);
+        return item;
+    }
+}
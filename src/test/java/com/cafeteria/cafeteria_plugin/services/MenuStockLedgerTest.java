@@ -0,0 +1,135 @@
+package com.cafeteria.cafeteria_plugin.services;
+
+import com.cafeteria.cafeteria_plugin.models.MenuItem;
+import com.cafeteria.cafeteria_plugin.repositories.MenuItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class MenuStockLedgerTest {
+
+    private MenuItemRepository menuItemRepository;
+    private JdbcTemplate jdbcTemplate;
+    private MenuStockLedger ledger;
+
+    @BeforeEach
+    public void setUp() {
+        menuItemRepository = mock(MenuItemRepository.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(menuItemRepository.findAll()).thenReturn(List.of(item(1L, 1_000), item(2L, 5)));
+        ledger = new MenuStockLedger(menuItemRepository, jdbcTemplate);
+        ledger.reload();
+    }
+
+    @Test
+    public void testConcurrentPurchasesNeverOversell() throws Exception {
+        int threads = 16;
+        int attemptsPerThread = 2_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sold = new AtomicInteger();
+
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    int quantity = 1 + i % 3;
+                    if (ledger.tryReserve(1L, quantity)) {
+                        sold.addAndGet(quantity);
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(1_000, sold.get() + ledger.available(1L));
+        assertTrue(ledger.available(1L) < 3, "stock should be drained down to less than one order");
+        assertTrue(ledger.available(1L) >= 0);
+    }
+
+    @Test
+    public void testFlushWritesChangedItemsInOneBatch() {
+        ledger.tryReserve(1L, 3);
+        ledger.tryReserve(2L, 2);
+        ledger.tryReserve(1L, 1);
+
+        assertEquals(2, ledger.flush());
+        assertEquals(0, ledger.flush());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), rows.capture());
+        assertEquals(2, rows.getValue().size());
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    public void testAdminResetOverridesCounterAndIsWrittenBack() {
+        assertFalse(ledger.tryReserve(2L, 6));
+
+        ledger.reset(2L, 50);
+
+        assertTrue(ledger.tryReserve(2L, 6));
+        assertEquals(44, ledger.available(2L));
+        assertEquals(1, ledger.flush());
+    }
+
+    @Test
+    public void testFailedFlushKeepsItemsPending() {
+        ledger.tryReserve(1L, 1);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new IllegalStateException("db down"));
+
+        assertEquals(0, ledger.flush());
+        assertEquals(1, ledger.getMetrics().get("pendingWrites"));
+    }
+
+    @Test
+    public void testItemsAddedAfterStartupAreLoadedOnDemand() {
+        when(menuItemRepository.findById(3L)).thenReturn(Optional.of(item(3L, 2)));
+
+        assertTrue(ledger.tryReserve(3L, 2));
+        assertFalse(ledger.tryReserve(3L, 1));
+        verify(menuItemRepository, times(1)).findById(3L);
+    }
+
+    @Test
+    public void testFailedLookupReleasesLinesAlreadyReserved() {
+        when(menuItemRepository.findById(9L)).thenThrow(new IllegalStateException("db down"));
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        quantities.put(1L, 4);
+        quantities.put(2L, 1);
+        quantities.put(9L, 1);
+
+        assertThrows(IllegalStateException.class, () -> ledger.tryReserveAll(quantities));
+
+        assertEquals(1_000, ledger.available(1L));
+        assertEquals(5, ledger.available(2L));
+    }
+
+    private static MenuItem item(Long id, int quantity) {
+        MenuItem item = new MenuItem();
+        item.setId(id);
+        item.setName("Item " + id);
+        item.setPrice(5.0);
+        item.setQuantity(quantity);
+        return item;
+    }
+}
@@ -0,0 +1,112 @@
+package com.cafeteria.cafeteria_plugin.services;
+
+import com.cafeteria.cafeteria_plugin.repositories.OrderExportRow;
+import com.cafeteria.cafeteria_plugin.repositories.OrderHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class OrderHistoryExportServiceTest {
+
+    private static final LocalDate FROM = LocalDate.of(2024, 9, 1);
+    private static final LocalDate TO = LocalDate.of(2025, 1, 31);
+
+    private OrderHistoryRepository orderHistoryRepository;
+    private OrderHistoryExportService exportService;
+
+    @BeforeEach
+    public void setUp() {
+        orderHistoryRepository = mock(OrderHistoryRepository.class);
+        exportService = new OrderHistoryExportService(orderHistoryRepository);
+    }
+
+    @Test
+    public void testRowsAreWrittenAsCsvAndCursorIsClosed() throws IOException {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(orderHistoryRepository.streamForExport(FROM.atStartOfDay(), TO.plusDays(1).atStartOfDay()))
+                .thenReturn(Stream.of(
+                        row(1L, "Sandwich", "Ana Pop"),
+                        row(2L, "Juice \"fresh\"", "Pop, Ion")).onClose(() -> closed.set(true)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(2, exportService.writeCsv(FROM, TO, out));
+
+        assertEquals(OrderHistoryExportService.HEADER
+                        + "1,2024-10-01T12:30:00,5,parent5,Maria,Ion,6,Ana Pop,Sandwich,2,16.0\n"
+                        + "2,2024-10-01T12:30:00,5,parent5,Maria,Ion,6,\"Pop, Ion\",\"Juice \"\"fresh\"\"\",2,16.0\n",
+                out.toString(StandardCharsets.UTF_8));
+        assertTrue(closed.get());
+        assertEquals(2L, exportService.getMetrics().get("rowsExported"));
+    }
+
+    @Test
+    public void testLargeExportIsWrittenWhileReading() throws IOException {
+        long total = 200_000;
+        when(orderHistoryRepository.streamForExport(any(), any()))
+                .thenReturn(LongStream.rangeClosed(1, total).mapToObj(id -> row(id, "Sandwich", "Ana Pop")));
+        CountingOutputStream out = new CountingOutputStream();
+
+        assertEquals(total, exportService.writeCsv(FROM, TO, out));
+
+        // Fără buffer pentru tot exportul: ieșirea primește date în bucăți, pe parcurs
+        assertTrue(out.writes > total / 1000, "rows should reach the response in chunks as they are read");
+        assertTrue(out.bytes > total * 50);
+    }
+
+    @Test
+    public void testCursorIsClosedWhenTheClientGoesAway() {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(orderHistoryRepository.streamForExport(any(), any()))
+                .thenReturn(LongStream.rangeClosed(1, 100_000).mapToObj(id -> row(id, "Sandwich", "Ana Pop"))
+                        .onClose(() -> closed.set(true)));
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThrows(IOException.class, () -> exportService.writeCsv(FROM, TO, broken));
+        assertTrue(closed.get());
+        assertEquals(0, exportService.getMetrics().get("running"));
+    }
+
+    private static OrderExportRow row(long id, String item, String studentName) {
+        return new Row(id, LocalDateTime.of(2024, 10, 1, 12, 30), 5L, "parent5", "Maria", "Ion",
+                6L, studentName, item, 2, 16.0);
+    }
+
+    private record Row(Long getId, LocalDateTime getOrderTime, Long getParentId, String getParentUsername,
+                       String getMotherName, String getFatherName, Long getStudentId, String getStudentName,
+                       String getMenuItemName, Integer getQuantity, Double getPrice) implements OrderExportRow {
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long writes;
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            writes++;
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            writes++;
+            bytes += len;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.cafeteria.cafeteria_plugin.services;
+
+import com.cafeteria.cafeteria_plugin.repositories.PreOrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PickupSlotLedgerTest {
+
+    private static final LocalDate TOMORROW = LocalDate.of(2024, 5, 16);
+    private static final LocalTime NOON = LocalTime.of(12, 0);
+    private static final LocalTime HALF_PAST = LocalTime.of(12, 30);
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private PreOrderRepository preOrderRepository;
+    private PickupSlotLedger ledger;
+
+    @BeforeEach
+    public void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:pickup_slots;DB_CLOSE_DELAY=-1", "sa", "", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE pickup_slots (id BIGINT AUTO_INCREMENT PRIMARY KEY, pickup_date DATE NOT NULL, "
+                + "slot_start TIME NOT NULL, reserved INT NOT NULL, CONSTRAINT uk_pickup_slots UNIQUE (pickup_date, slot_start))");
+        preOrderRepository = mock(PreOrderRepository.class);
+        ledger = new PickupSlotLedger(jdbcTemplate, preOrderRepository, List.of(NOON, HALF_PAST), 50,
+                Clock.fixed(Instant.parse("2024-05-15T09:00:00Z"), ZoneOffset.UTC));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        dataSource.destroy();
+    }
+
+    @Test
+    public void testConcurrentReservationsNeverOverbookASlot() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return ledger.tryReserve(TOMORROW, NOON, 1);
+            }));
+        }
+        start.countDown();
+        int accepted = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                accepted++;
+            }
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(50, accepted);
+        assertEquals(0, ledger.remaining(TOMORROW).get(NOON));
+        assertEquals(50, ledger.remaining(TOMORROW).get(HALF_PAST));
+    }
+
+    @Test
+    public void testMultiPortionBookingIsAllOrNothing() {
+        assertTrue(ledger.tryReserve(TOMORROW, NOON, 45));
+        assertFalse(ledger.tryReserve(TOMORROW, NOON, 6));
+        assertTrue(ledger.tryReserve(TOMORROW, NOON, 5));
+        ledger.release(TOMORROW, NOON, 5);
+        assertEquals(5, ledger.remaining(TOMORROW).get(NOON));
+        assertThrows(IllegalArgumentException.class, () -> ledger.tryReserve(TOMORROW, LocalTime.of(9, 0), 1));
+    }
+
+    @Test
+    public void testHugeBookingCannotWrapTheCounter() {
+        assertTrue(ledger.tryReserve(TOMORROW, NOON, 10));
+
+        assertFalse(ledger.tryReserve(TOMORROW, NOON, Integer.MAX_VALUE));
+        assertEquals(40, ledger.remaining(TOMORROW).get(NOON));
+    }
+
+    @Test
+    public void testRollbackAtCommitFreesTheBooking() {
+        assertTrue(ledger.tryReserve(TOMORROW, NOON, 4));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            ledger.commitOrRelease(TOMORROW, NOON, 4, () -> { });
+            assertEquals(46, ledger.remaining(TOMORROW).get(NOON));
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(50, ledger.remaining(TOMORROW).get(NOON));
+    }
+
+    @Test
+    public void testFlushWritesCountersInBatches() {
+        ledger.tryReserve(TOMORROW, NOON, 3);
+        ledger.tryReserve(TOMORROW, NOON, 2);
+        ledger.tryReserve(TOMORROW, HALF_PAST, 1);
+        assertEquals(2, ledger.flush());
+        assertEquals(0, ledger.flush());
+
+        ledger.tryReserve(TOMORROW, NOON, 4);
+        assertEquals(1, ledger.flush());
+
+        assertEquals(9, reservedInDb(NOON));
+        assertEquals(1, reservedInDb(HALF_PAST));
+    }
+
+    @Test
+    public void testReloadRebuildsCountersFromPreOrders() {
+        List<Object[]> sums = new ArrayList<>();
+        sums.add(new Object[]{TOMORROW, HALF_PAST, 48L});
+        when(preOrderRepository.sumQuantitiesBySlotFrom(LocalDate.of(2024, 5, 15))).thenReturn(sums);
+
+        ledger.reload();
+
+        assertEquals(2, ledger.remaining(TOMORROW).get(HALF_PAST));
+        assertFalse(ledger.tryReserve(TOMORROW, HALF_PAST, 3));
+        ledger.flush();
+        assertEquals(48, reservedInDb(HALF_PAST));
+    }
+
+    private int reservedInDb(LocalTime slot) {
+        return jdbcTemplate.queryForObject("SELECT reserved FROM pickup_slots WHERE pickup_date = ? AND slot_start = ?",
+                Integer.class, Date.valueOf(TOMORROW), java.sql.Time.valueOf(slot));
+    }
+}
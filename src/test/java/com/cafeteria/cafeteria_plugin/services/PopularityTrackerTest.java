@@ -0,0 +1,142 @@
+package com.cafeteria.cafeteria_plugin.services;
+
+import com.cafeteria.cafeteria_plugin.models.OrderHistory;
+import com.cafeteria.cafeteria_plugin.models.Student;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class PopularityTrackerTest {
+
+    // Miercuri, 15 mai 2024
+    private static final LocalDate TODAY = LocalDate.of(2024, 5, 15);
+
+    private final MutableClock clock = new MutableClock(TODAY);
+    private final PopularityTracker tracker = new PopularityTracker(mock(JdbcTemplate.class), 16, 16, clock);
+
+    @Test
+    public void testOrdersCountInEveryWindowContainingTheirDay() {
+        record(order("Pizza", 1L, "Ana", TODAY), order("Pizza", 2L, "Ion", TODAY));
+        record(order("Soup", 1L, "Ana", TODAY.minusDays(1)));   // marți, aceeași săptămână
+        record(order("Soup", 1L, "Ana", TODAY.minusDays(5)),     // săptămâna trecută, aceeași lună
+                order("Soup", 1L, "Ana", TODAY.minusDays(5)));
+        record(order("Soup", 1L, "Ana", TODAY.minusMonths(1))); // luna trecută
+
+        assertEquals(List.of("Pizza"), names(tracker.topItems(PopularityTracker.Window.TODAY, 5)));
+        assertEquals(List.of("Pizza", "Soup"), names(tracker.topItems(PopularityTracker.Window.WEEK, 5)));
+        assertEquals(List.of("Soup", "Pizza"), names(tracker.topItems(PopularityTracker.Window.MONTH, 5)));
+        assertEquals(4L, tracker.topItems(PopularityTracker.Window.ALL_TIME, 1).get(0).get("count"));
+        assertEquals(0L, tracker.topItems(PopularityTracker.Window.ALL_TIME, 1).get(0).get("error"));
+
+        List<Map<String, Object>> students = tracker.topStudents(PopularityTracker.Window.ALL_TIME, 1);
+        assertEquals("Ana", students.get(0).get("name"));
+        assertEquals(5L, students.get(0).get("orderCount"));
+    }
+
+    @Test
+    public void testWindowsRollOverWithTheCalendar() {
+        record(order("Pizza", 1L, "Ana", TODAY));
+
+        clock.set(TODAY.plusDays(1));
+        assertTrue(tracker.topItems(PopularityTracker.Window.TODAY, 5).isEmpty());
+        assertEquals(1, tracker.topItems(PopularityTracker.Window.WEEK, 5).size());
+
+        clock.set(TODAY.plusDays(5)); // luni
+        assertTrue(tracker.topItems(PopularityTracker.Window.WEEK, 5).isEmpty());
+        assertEquals(1, tracker.topItems(PopularityTracker.Window.MONTH, 5).size());
+
+        clock.set(TODAY.plusMonths(1));
+        assertTrue(tracker.topItems(PopularityTracker.Window.MONTH, 5).isEmpty());
+        assertEquals(1, tracker.topItems(PopularityTracker.Window.ALL_TIME, 5).size());
+    }
+
+    @Test
+    public void testLoadSeedsWindowsFromOrderHistoryInH2() {
+        SingleConnectionDataSource dataSource =
+                new SingleConnectionDataSource("jdbc:h2:mem:popularity;DB_CLOSE_DELAY=-1", "sa", "", true);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        try {
+            jdbcTemplate.execute("CREATE TABLE students (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(255))");
+            jdbcTemplate.execute("CREATE TABLE order_history (id BIGINT AUTO_INCREMENT PRIMARY KEY, menu_item_name VARCHAR(255), "
+                    + "price DOUBLE, quantity INT, order_time TIMESTAMP, parent_id BIGINT, student_id BIGINT)");
+            jdbcTemplate.update("INSERT INTO students (id, name) VALUES (1, 'Ana'), (2, 'Ion')");
+            String insert = "INSERT INTO order_history (menu_item_name, quantity, order_time, student_id) VALUES (?, 1, ?, ?)";
+            jdbcTemplate.update(insert, "Pizza", TODAY.atTime(12, 0), 1L);
+            jdbcTemplate.update(insert, "Pizza", TODAY.atTime(12, 5), 2L);
+            jdbcTemplate.update(insert, "Soup", TODAY.minusDays(5).atTime(12, 0), 1L);
+            jdbcTemplate.update(insert, "Soup", TODAY.minusMonths(1).atTime(12, 0), 1L);
+
+            PopularityTracker seeded = new PopularityTracker(jdbcTemplate, 16, 16, clock);
+            seeded.load();
+
+            assertEquals(List.of("Pizza"), names(seeded.topItems(PopularityTracker.Window.TODAY, 5)));
+            assertEquals(List.of("Pizza", "Soup"), names(seeded.topItems(PopularityTracker.Window.MONTH, 5)));
+            assertEquals(2L, seeded.topItems(PopularityTracker.Window.ALL_TIME, 1).get(0).get("count"));
+            List<Map<String, Object>> students = seeded.topStudents(PopularityTracker.Window.ALL_TIME, 1);
+            assertEquals("Ana", students.get(0).get("name"));
+            assertEquals(3L, students.get(0).get("orderCount"));
+        } finally {
+            jdbcTemplate.execute("DROP ALL OBJECTS");
+            dataSource.destroy();
+        }
+    }
+
+    private void record(OrderHistory... orders) {
+        tracker.onOrdersPlaced(new OrdersPlacedEvent(List.of(orders), true));
+    }
+
+    private static List<Object> names(List<Map<String, Object>> rows) {
+        return rows.stream().map(row -> row.get("name")).toList();
+    }
+
+    private static OrderHistory order(String item, Long studentId, String studentName, LocalDate day) {
+        Student student = new Student();
+        student.setId(studentId);
+        student.setName(studentName);
+        OrderHistory order = new OrderHistory();
+        order.setMenuItemName(item);
+        order.setQuantity(1);
+        order.setOrderTime(day.atTime(12, 0));
+        order.setStudent(student);
+        return order;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(LocalDate day) {
+            set(day);
+        }
+
+        void set(LocalDate day) {
+            now = LocalDateTime.of(day, java.time.LocalTime.NOON).toInstant(ZoneOffset.UTC);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.cafeteria.cafeteria_plugin.services;
+
+import com.cafeteria.cafeteria_plugin.dtos.CartLineDTO;
+import com.cafeteria.cafeteria_plugin.models.MenuItem;
+import com.cafeteria.cafeteria_plugin.models.OrderHistory;
+import com.cafeteria.cafeteria_plugin.models.Parent;
+import com.cafeteria.cafeteria_plugin.models.PreOrder;
+import com.cafeteria.cafeteria_plugin.models.Student;
+import com.cafeteria.cafeteria_plugin.repositories.MenuItemRepository;
+import com.cafeteria.cafeteria_plugin.repositories.OrderHistoryRepository;
+import com.cafeteria.cafeteria_plugin.repositories.PreOrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class PreOrderServiceTest {
+
+    private static final LocalTime NOON = LocalTime.of(12, 0);
+
+    private PreOrderRepository preOrderRepository;
+    private MenuItemRepository menuItemRepository;
+    private OrderHistoryRepository orderHistoryRepository;
+    private PickupSlotLedger slotLedger;
+    private ApplicationEventPublisher eventPublisher;
+    private WalletService walletService;
+
+    private final Parent parent = new Parent();
+    private final Student student = new Student();
+
+    @BeforeEach
+    public void setUp() {
+        preOrderRepository = mock(PreOrderRepository.class);
+        menuItemRepository = mock(MenuItemRepository.class);
+        orderHistoryRepository = mock(OrderHistoryRepository.class);
+        slotLedger = mock(PickupSlotLedger.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        walletService = mock(WalletService.class);
+        doCallRealMethod().when(slotLedger).commitOrRelease(any(), any(), anyInt(), any());
+
+        MenuItem sandwich = new MenuItem();
+        sandwich.setId(1L);
+        sandwich.setName("Sandwich");
+        sandwich.setPrice(8.0);
+        MenuItem juice = new MenuItem();
+        juice.setId(2L);
+        juice.setName("Juice");
+        juice.setPrice(4.0);
+        when(menuItemRepository.findAllById(any())).thenReturn(List.of(sandwich, juice));
+    }
+
+    @Test
+    public void testPreOrderBooksAllPortionsInTheSlot() {
+        when(slotLedger.tryReserve(LocalDate.of(2024, 5, 16), NOON, 4)).thenReturn(true);
+
+        PreOrderService.PreOrderResult result = serviceAt("2024-05-15T10:00:00Z")
+                .placePreOrder(parent, student, LocalDate.of(2024, 5, 16), NOON,
+                        List.of(line(1L, 1), line(2L, 2), line(1L, 1)));
+
+        assertEquals(new PreOrderService.PreOrderResult(2, 4, 24.0), result);
+        verify(preOrderRepository).saveAll(anyList());
+        verify(walletService).charge(any(), eq(24.0), any());
+    }
+
+    @Test
+    public void testFullSlotRejectsWithoutSaving() {
+        when(slotLedger.tryReserve(any(), any(), anyInt())).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class, () -> serviceAt("2024-05-15T10:00:00Z")
+                .placePreOrder(parent, student, LocalDate.of(2024, 5, 16), NOON, List.of(line(1L, 1))));
+        verify(preOrderRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    public void testQuantityAboveLimitIsRejectedBeforeBooking() {
+        assertThrows(IllegalArgumentException.class, () -> serviceAt("2024-05-15T10:00:00Z")
+                .placePreOrder(parent, student, LocalDate.of(2024, 5, 16), NOON,
+                        List.of(line(1L, Integer.MAX_VALUE), line(1L, Integer.MAX_VALUE))));
+        assertThrows(IllegalArgumentException.class, () -> serviceAt("2024-05-15T10:00:00Z")
+                .placePreOrder(parent, student, LocalDate.of(2024, 5, 16), NOON,
+                        List.of(line(1L, MenuItemService.MAX_QUANTITY_PER_ITEM), line(1L, 1))));
+        verify(slotLedger, never()).tryReserve(any(), any(), anyInt());
+    }
+
+    @Test
+    public void testRefusedWalletChargeFreesTheSlot() {
+        when(slotLedger.tryReserve(LocalDate.of(2024, 5, 16), NOON, 1)).thenReturn(true);
+        when(walletService.charge(any(), anyDouble(), any()))
+                .thenThrow(new IllegalArgumentException("Insufficient wallet balance"));
+
+        assertThrows(IllegalArgumentException.class, () -> serviceAt("2024-05-15T10:00:00Z")
+                .placePreOrder(parent, student, LocalDate.of(2024, 5, 16), NOON, List.of(line(1L, 1))));
+        verify(slotLedger).release(LocalDate.of(2024, 5, 16), NOON, 1);
+    }
+
+    @Test
+    public void testNextDayClosesAtCutoff() {
+        PreOrderService late = serviceAt("2024-05-15T20:30:00Z");
+
+        assertThrows(IllegalArgumentException.class, () -> late
+                .placePreOrder(parent, student, LocalDate.of(2024, 5, 16), NOON, List.of(line(1L, 1))));
+        assertThrows(IllegalArgumentException.class, () -> late
+                .placePreOrder(parent, student, LocalDate.of(2024, 5, 30), NOON, List.of(line(1L, 1))));
+        verifyNoInteractions(slotLedger);
+    }
+
+    @Test
+    public void testDuePreOrdersMoveToOrderHistoryAtTheirSlot() {
+        PreOrder preOrder = new PreOrder();
+        preOrder.setId(9L);
+        preOrder.setPickupDate(LocalDate.of(2024, 5, 15));
+        preOrder.setSlotStart(NOON);
+        preOrder.setMenuItemId(1L);
+        preOrder.setMenuItemName("Sandwich");
+        preOrder.setQuantity(2);
+        preOrder.setPrice(16.0);
+        preOrder.setParent(parent);
+        preOrder.setStudent(student);
+        when(preOrderRepository.findDueForTransfer(LocalDate.of(2024, 5, 15))).thenReturn(List.of(preOrder));
+
+        assertEquals(1, serviceAt("2024-05-15T06:00:00Z").transferDuePreOrders());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<OrderHistory>> orders = ArgumentCaptor.forClass(List.class);
+        verify(orderHistoryRepository).insertAll(orders.capture());
+        OrderHistory order = orders.getValue().get(0);
+        assertEquals(LocalDateTime.of(2024, 5, 15, 12, 0), order.getOrderTime());
+        assertEquals(1L, order.getMenuItemId());
+        assertEquals(16.0, order.getPrice());
+        verify(preOrderRepository).markTransferred(List.of(9L));
+        verify(eventPublisher).publishEvent(new OrdersPlacedEvent(orders.getValue(), false));
+    }
+
+    private PreOrderService serviceAt(String instant) {
+        return new PreOrderService(preOrderRepository, menuItemRepository, orderHistoryRepository, slotLedger,
+                eventPublisher, walletService, 7, LocalTime.of(20, 0),
+                Clock.fixed(Instant.parse(instant), ZoneOffset.UTC));
+    }
+
+    private static CartLineDTO line(Long menuItemId, int quantity) {
+        CartLineDTO line = new CartLineDTO();
+        line.setMenuItemId(menuItemId);
+        line.setQuantity(quantity);
+        return line;
+    }
+}
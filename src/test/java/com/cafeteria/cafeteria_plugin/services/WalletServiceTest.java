@@ -0,0 +1,214 @@
+package com.cafeteria.cafeteria_plugin.services;
+
+import com.cafeteria.cafeteria_plugin.models.WalletCheckpoint;
+import com.cafeteria.cafeteria_plugin.models.WalletEntry;
+import com.cafeteria.cafeteria_plugin.repositories.WalletCheckpointRepository;
+import com.cafeteria.cafeteria_plugin.repositories.WalletEntryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the balance statements and the checkpoint INSERT against H2 tables shaped like the
+ * generated ones.
+ */
+public class WalletServiceTest {
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private MutableClock clock;
+
+    @BeforeEach
+    public void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:wallet;DB_CLOSE_DELAY=-1", "sa", "", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE wallet_entries (id BIGINT AUTO_INCREMENT PRIMARY KEY, parent_id BIGINT NOT NULL, "
+                + "type VARCHAR(20) NOT NULL, amount DOUBLE NOT NULL, balance_after DOUBLE NOT NULL, "
+                + "description VARCHAR(255), created_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE wallet_balances (parent_id BIGINT PRIMARY KEY, balance DOUBLE NOT NULL, "
+                + "entry_count BIGINT NOT NULL, updated_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE wallet_checkpoints (id BIGINT AUTO_INCREMENT PRIMARY KEY, parent_id BIGINT NOT NULL, "
+                + "period_start DATE NOT NULL, opening_balance DOUBLE NOT NULL, credits DOUBLE NOT NULL, debits DOUBLE NOT NULL, "
+                + "closing_balance DOUBLE NOT NULL, entry_count BIGINT NOT NULL, last_entry_id BIGINT NOT NULL, "
+                + "CONSTRAINT uk_wallet_checkpoints UNIQUE (parent_id, period_start))");
+        clock = new MutableClock(Instant.parse("2024-04-10T10:00:00Z"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        dataSource.destroy();
+    }
+
+    @Test
+    public void testBalanceFollowsEveryEntry() {
+        WalletService wallet = wallet(false);
+
+        assertEquals(0.0, wallet.getBalance(5L));
+        wallet.topUp(5L, 50, "Cash");
+        WalletEntry charge = wallet.charge(5L, 12.5, "Sandwich");
+        wallet.refund(5L, 4, "Cold soup");
+
+        assertEquals(-12.5, charge.getAmount());
+        assertEquals(37.5, charge.getBalanceAfter());
+        assertEquals(41.5, wallet.getBalance(5L));
+        assertEquals(41.5, jdbcTemplate.queryForObject(
+                "SELECT SUM(amount) FROM wallet_entries WHERE parent_id = 5", Double.class));
+        assertEquals(3L, jdbcTemplate.queryForObject(
+                "SELECT entry_count FROM wallet_balances WHERE parent_id = 5", Long.class));
+    }
+
+    @Test
+    public void testRequiredBalanceRefusesUncoveredCharge() {
+        WalletService wallet = wallet(true);
+        wallet.topUp(5L, 10, null);
+
+        assertThrows(IllegalArgumentException.class, () -> wallet.charge(5L, 10.01, "Menu"));
+        assertThrows(IllegalArgumentException.class, () -> wallet.charge(6L, 1, "No wallet yet"));
+        wallet.charge(5L, 10, "Menu");
+
+        assertEquals(0.0, wallet.getBalance(5L));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM wallet_entries", Integer.class));
+        assertEquals(2L, wallet.getMetrics().get("rejectedCharges"));
+    }
+
+    @Test
+    public void testPostpaidChargeMayGoNegative() {
+        WalletService wallet = wallet(false);
+
+        wallet.charge(5L, 8, "Sandwich");
+
+        assertEquals(-8.0, wallet.getBalance(5L));
+    }
+
+    @Test
+    public void testCheckpointSummarisesEachClosedMonthOnce() {
+        WalletService wallet = wallet(false);
+        clock.set("2024-02-10T10:00:00Z");
+        wallet.topUp(5L, 100, null);
+        wallet.charge(5L, 30, null);
+        clock.set("2024-03-05T10:00:00Z");
+        wallet.charge(5L, 20, null);
+        wallet.refund(5L, 5, null);
+        wallet.topUp(6L, 10, null);
+        clock.set("2024-04-02T10:00:00Z");
+        wallet.charge(5L, 1, null);
+
+        assertEquals(3, wallet.checkpointClosedMonths());
+        assertEquals(0, wallet.checkpointClosedMonths());
+
+        Map<String, Object> march = jdbcTemplate.queryForMap(
+                "SELECT opening_balance, credits, debits, closing_balance, entry_count FROM wallet_checkpoints "
+                        + "WHERE parent_id = 5 AND period_start = DATE '2024-03-01'");
+        assertEquals(70.0, ((Number) march.get("OPENING_BALANCE")).doubleValue());
+        assertEquals(5.0, ((Number) march.get("CREDITS")).doubleValue());
+        assertEquals(20.0, ((Number) march.get("DEBITS")).doubleValue());
+        assertEquals(55.0, ((Number) march.get("CLOSING_BALANCE")).doubleValue());
+        assertEquals(2L, ((Number) march.get("ENTRY_COUNT")).longValue());
+
+        clock.set("2024-05-03T10:00:00Z");
+        assertEquals(1, wallet.checkpointClosedMonths());
+    }
+
+    @Test
+    public void testStatementStartsFromCheckpointAndReadsOnlyLaterEntries() {
+        WalletEntryRepository entries = mock(WalletEntryRepository.class);
+        WalletCheckpointRepository checkpoints = mock(WalletCheckpointRepository.class);
+        WalletService wallet = new WalletService(jdbcTemplate, entries, checkpoints, false, clock);
+        WalletCheckpoint march = new WalletCheckpoint();
+        march.setParentId(5L);
+        march.setPeriodStart(LocalDate.of(2024, 3, 1));
+        march.setOpeningBalance(70);
+        march.setCredits(5);
+        march.setDebits(20);
+        march.setClosingBalance(55);
+        march.setEntryCount(2);
+        march.setLastEntryId(4);
+        when(checkpoints.findFirstByParentIdAndPeriodStartLessThanEqualOrderByPeriodStartDesc(5L, LocalDate.of(2024, 3, 1)))
+                .thenReturn(Optional.of(march));
+        when(checkpoints.findFirstByParentIdAndPeriodStartLessThanEqualOrderByPeriodStartDesc(5L, LocalDate.of(2024, 4, 1)))
+                .thenReturn(Optional.of(march));
+        when(entries.findAllByParentIdAndIdGreaterThanAndCreatedAtLessThanOrderByIdAsc(
+                5L, 4L, LocalDateTime.of(2024, 4, 1, 0, 0))).thenReturn(List.of());
+        when(entries.findAllByParentIdAndIdGreaterThanAndCreatedAtLessThanOrderByIdAsc(
+                5L, 4L, LocalDateTime.of(2024, 5, 1, 0, 0)))
+                .thenReturn(List.of(entry(5L, -1, 54, LocalDateTime.of(2024, 4, 2, 10, 0))));
+
+        Map<String, Object> closed = wallet.getStatement(5L, YearMonth.of(2024, 3));
+        assertEquals(70.0, closed.get("openingBalance"));
+        assertEquals(5.0, closed.get("credits"));
+        assertEquals(20.0, closed.get("debits"));
+        assertEquals(55.0, closed.get("closingBalance"));
+        assertEquals(List.of(), closed.get("entries"));
+
+        Map<String, Object> open = wallet.getStatement(5L, YearMonth.of(2024, 4));
+        assertEquals(55.0, open.get("openingBalance"));
+        assertEquals(0.0, open.get("credits"));
+        assertEquals(1.0, open.get("debits"));
+        assertEquals(54.0, open.get("closingBalance"));
+        assertEquals(1, ((List<?>) open.get("entries")).size());
+
+        verify(entries, never()).findAllByParentIdAndCreatedAtGreaterThanEqualAndCreatedAtLessThanOrderByIdAsc(any(), any(), any());
+        verify(entries, never()).findFirstByParentIdAndCreatedAtLessThanOrderByCreatedAtDescIdDesc(any(), any());
+    }
+
+    private static WalletEntry entry(Long id, double amount, double balanceAfter, LocalDateTime createdAt) {
+        WalletEntry entry = new WalletEntry();
+        entry.setId(id);
+        entry.setParentId(5L);
+        entry.setType(amount > 0 ? WalletEntry.Type.TOP_UP : WalletEntry.Type.CHARGE);
+        entry.setAmount(amount);
+        entry.setBalanceAfter(balanceAfter);
+        entry.setCreatedAt(createdAt);
+        return entry;
+    }
+
+    private WalletService wallet(boolean requireBalance) {
+        return new WalletService(jdbcTemplate, mock(WalletEntryRepository.class), mock(WalletCheckpointRepository.class),
+                requireBalance, clock);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void set(String instant) {
+            now = Instant.parse(instant);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
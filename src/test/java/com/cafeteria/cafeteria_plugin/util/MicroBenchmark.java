@@ -0,0 +1,60 @@
+package com.cafeteria.cafeteria_plugin.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Warm-up plus best-of-N timing shared by the benchmark tests. Tests that use it are tagged
+ * {@value #TAG} and only run with {@code mvn test -Pbenchmarks}; they report their numbers in
+ * the log and do not assert on timings.
+ */
+public final class MicroBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(MicroBenchmark.class);
+
+    public static final String TAG = "benchmark";
+
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASURED_ITERATIONS = 5;
+
+    private MicroBenchmark() {
+    }
+
+    /**
+     * One operation; the returned value is summed so the work cannot be optimised away.
+     */
+    @FunctionalInterface
+    public interface Op {
+        long run(int index) throws Exception;
+    }
+
+    /**
+     * Runs {@code op} {@code opsPerIteration} times per iteration and returns the best iteration,
+     * in nanoseconds per operation.
+     */
+    public static double nanosPerOp(String label, int opsPerIteration, Op op) throws Exception {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            iteration(opsPerIteration, op);
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            best = Math.min(best, iteration(opsPerIteration, op));
+        }
+        double nanosPerOp = (double) best / opsPerIteration;
+        logger.info("{}: {} ns/op", label, String.format("%,.0f", nanosPerOp));
+        return nanosPerOp;
+    }
+
+    private static long iteration(int ops, Op op) throws Exception {
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            sink += op.run(i);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == Long.MIN_VALUE) {
+            logger.trace("sink {}", sink);
+        }
+        return elapsed;
+    }
+}
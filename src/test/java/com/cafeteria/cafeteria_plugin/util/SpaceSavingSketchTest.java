@@ -0,0 +1,46 @@
+package com.cafeteria.cafeteria_plugin.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpaceSavingSketchTest {
+
+    @Test
+    public void testCountsAreExactBelowCapacity() {
+        SpaceSavingSketch<String> sketch = new SpaceSavingSketch<>(10);
+        sketch.offer("pizza", 3);
+        sketch.offer("soup", 1);
+        sketch.offer("pizza", 2);
+
+        List<SpaceSavingSketch.Estimate<String>> top = sketch.top(5);
+        assertEquals(2, top.size());
+        assertEquals(new SpaceSavingSketch.Estimate<>("pizza", 5, 0), top.get(0));
+        assertEquals(new SpaceSavingSketch.Estimate<>("soup", 1, 0), top.get(1));
+        assertEquals(6, sketch.total());
+    }
+
+    @Test
+    public void testHeavyHittersSurviveALongTail() {
+        SpaceSavingSketch<Integer> sketch = new SpaceSavingSketch<>(20);
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            // Trei chei frecvente amestecate cu multe chei rare
+            int roll = random.nextInt(10);
+            sketch.offer(roll < 3 ? -roll - 1 : random.nextInt(5_000), 1);
+        }
+
+        List<SpaceSavingSketch.Estimate<Integer>> top = sketch.top(3);
+        assertEquals(3, top.size());
+        assertTrue(top.stream().allMatch(e -> e.key() < 0), "top keys: " + top);
+        assertEquals(20, sketch.size());
+        for (SpaceSavingSketch.Estimate<Integer> estimate : top) {
+            // ~2000 apariții reale; estimarea supraevaluează cu cel mult error
+            assertTrue(estimate.count() - estimate.error() <= 2_300);
+            assertTrue(estimate.count() >= 1_700);
+        }
+    }
+}